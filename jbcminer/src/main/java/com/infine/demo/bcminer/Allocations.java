@@ -0,0 +1,64 @@
+package com.infine.demo.bcminer;
+
+import com.sun.management.ThreadMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Heap allocation counters of the JVM threads ({@link ThreadMXBean#getThreadAllocatedBytes(long)}), to check that the
+ * mining hot loops do not allocate.
+ */
+public final class Allocations {
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private Allocations() {
+    }
+
+    /**
+     * @return true if the thread allocation counters are available, they are enabled if needed
+     */
+    public static boolean supported() {
+        if (!THREADS.isThreadAllocatedMemorySupported())
+            return false;
+        if (!THREADS.isThreadAllocatedMemoryEnabled())
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        return true;
+    }
+
+    /**
+     * @return bytes allocated by the current thread since its start, -1 if not supported
+     */
+    public static long currentThread() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * @return bytes allocated by each live thread, by thread id
+     */
+    public static Map<Long, Long> allThreads() {
+        long[] ids = THREADS.getAllThreadIds();
+        long[] bytes = THREADS.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocated = new HashMap<>(ids.length * 2);
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0)
+                allocated.put(ids[i], bytes[i]);
+        }
+        return allocated;
+    }
+
+    /**
+     * @param before {@link #allThreads()} at the start of the measure
+     * @return bytes allocated by all threads since before, including the threads started since. The allocations of the
+     * threads terminated since are lost.
+     */
+    public static long allThreadsSince(Map<Long, Long> before) {
+        long total = 0;
+        for (Map.Entry<Long, Long> entry : allThreads().entrySet())
+            total += entry.getValue() - before.getOrDefault(entry.getKey(), 0L);
+        return total;
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.infine.demo.bcminer;
 
 import com.infine.demo.bcminer.cl.CLMiner;
+import com.infine.demo.bcminer.cpp.CppMiner;
 import com.infine.demo.bcminer.cuda.CudaMiner;
 import com.infine.demo.bcminer.java.JavaMiner;
+import com.infine.demo.bcminer.jfr.FlightRecording;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -27,9 +30,11 @@ public class Bench {
         CompletableFuture<Integer> future = new CompletableFuture<>();
         new Thread(() -> start(future, miner, header, startNonce)).start();
         while (!await(future)) {
-            System.out.println(miner.getStats());
+            System.out.println(miner.getStats().sample());
         }
         System.out.println(miner.getStats());
+        if (miner.getStats().workers() > 0)
+            System.out.print(miner.getStats().workersBreakdown());
         Integer nonce = get(future);
         if (nonce == null)
             System.out.printf("Nonce not found%n");
@@ -65,11 +70,46 @@ public class Bench {
         }
     }
 
+    /**
+     * Usage : <code>Bench [miner id] [miner options] [-jfr bench.jfr] [-metrics 9100] [-statsfile bcminer.stats]
+     * [-steady [-warmup 3] [-iterations 5] [-time 5] [-hashes 0] [-forks 1]]</code>, see {@link SteadyStateBench} for
+     * the steady state mode, {@link FlightRecording} for the <code>-jfr</code> recording, {@link MetricsServer} for the
+     * Prometheus <code>-metrics</code> endpoint and {@link StatsFile} for the memory mapped <code>-statsfile</code> (not
+     * in steady state mode).
+     */
     public static void main(String[] args) throws InterruptedException {
-        List<MinerOptions> minerOptions = List.of(JavaMiner.OPTIONS, CLMiner.OPTIONS, CudaMiner.OPTIONS);
-        try (IMiner miner = MinerOptions.parseCommandLine(args, minerOptions)) {
+        Path jfrFile = FlightRecording.parseFile(args);
+        if (jfrFile == null) {
+            run(args);
+            return;
+        }
+        try (FlightRecording ignored = FlightRecording.start(jfrFile)) {
+            run(args);
+        }
+    }
+
+    private static void run(String[] args) throws InterruptedException {
+        List<MinerOptions> minerOptions = List.of(JavaMiner.OPTIONS, CLMiner.OPTIONS, CudaMiner.OPTIONS, CppMiner.OPTIONS);
+        if (SteadyStateBench.isSteady(args)) {
+            SteadyStateBench.run(() -> {
+                IMiner miner = MinerOptions.parseCommandLine(args, minerOptions);
+                if (miner == null)
+                    throw new IllegalArgumentException("Invalid miner options");
+                return miner;
+            }, args);
+            return;
+        }
+        int metricsPort = MetricsServer.parsePort(args);
+        Path statsFilePath = StatsFile.parseFile(args);
+        try (IMiner miner = MinerOptions.parseCommandLine(args, minerOptions);
+             MetricsServer metricsServer = metricsPort < 0 ? null : MetricsServer.start(metricsPort, false);
+             StatsFile statsFile = statsFilePath == null ? null : StatsFile.create(statsFilePath, StatsFile.DEFAULT_MAX_WORKERS)) {
             if (miner == null)
                 return;
+            if (metricsServer != null)
+                metricsServer.register(args.length > 0 ? args[0] : minerOptions.get(0).id(), miner);
+            if (statsFile != null)
+                miner.getStats().publish(statsFile);
             start(BlockHeader.testHeader(), miner, -1);
         }
     }
@@ -7,6 +7,7 @@ import com.infine.demo.bcminer.java.Sha256;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.math.BigInteger;
 import java.nio.ByteBuffer;
 
 /**
@@ -32,6 +33,11 @@ public record BlockHeader(int[] data) {
     public static final int NBITS = 18;
     public static final int NONCE = 19;
 
+    // ints of the copyData layout
+    public static final int DATA_INTS = 21;
+    // index of the target words in the copyData layout
+    public static final int DATA_TARGET = 13;
+
     public int version() {
         return Utils.flipEndianess(data[VERSION]);
     }
@@ -57,14 +63,27 @@ public record BlockHeader(int[] data) {
         return Utils.print(data);
     }
 
+    /**
+     * @return the exact predicate of the {@link #target()}
+     */
     public HashPredicate hashPredicate() {
-        int nbitsExp = Byte.toUnsignedInt((byte) data[NBITS]);
-        int leadingBytes = 32 - nbitsExp; // expected MSB 0
-        int hOffset = 8 - leadingBytes / 4 - 1;
-        int mask = 0;
-        for (int i = 0; i < leadingBytes % 4; i++)
-            mask |= 0xFF << (i * 8);
-        return new HashPredicate(hOffset, mask);
+        return HashPredicate.ofTarget(target());
+    }
+
+    /**
+     * @return the 256 bits target of nbits (mantissa * 256^(exponent - 3)), {@link Sha256#H_INTS} words most significant
+     * first, 0 for a negative mantissa
+     */
+    public int[] target() {
+        int nbits = nbits();
+        int exponent = nbits >>> 24, mantissa = nbits & 0x007FFFFF;
+        BigInteger target = (nbits & 0x00800000) != 0 ? BigInteger.ZERO : BigInteger.valueOf(mantissa).shiftLeft(8 * (exponent - 3));
+        if (target.bitLength() > 256)
+            target = BigInteger.ONE.shiftLeft(256).subtract(BigInteger.ONE);
+        int[] words = new int[Sha256.H_INTS];
+        for (int i = 0; i < Sha256.H_INTS; i++)
+            words[i] = target.shiftRight(32 * (Sha256.H_INTS - 1 - i)).intValue();
+        return words;
     }
 
     public static BlockHeader testHeader() {
@@ -86,6 +105,7 @@ public record BlockHeader(int[] data) {
      * [3+8] midState
      * [11] hMastOffset (int)
      * [12] hMask
+     * [13+8] target, most significant word first
      */
     public void copyData(ByteBuffer dst) {
         int[] headerData = data();
@@ -96,9 +116,7 @@ public record BlockHeader(int[] data) {
         int[] midstate = Sha256.createMidstate(this);
         for (int i : midstate) dst.putInt(i);
 
-        HashPredicate hashPredicate = hashPredicate();
-        dst.putInt(hashPredicate.hOffset());
-        dst.putInt(hashPredicate.mask());
+        hashPredicate().copyData(dst);
 
         assert dst.remaining() == 0;
         dst.flip();
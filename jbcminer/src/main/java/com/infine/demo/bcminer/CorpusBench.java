@@ -0,0 +1,171 @@
+package com.infine.demo.bcminer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infine.demo.bcminer.api.BlockChainResponse;
+import com.infine.demo.bcminer.cl.CLMiner;
+import com.infine.demo.bcminer.cpp.CppMiner;
+import com.infine.demo.bcminer.cuda.CudaMiner;
+import com.infine.demo.bcminer.java.JavaMiner;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Regression benchmark of the miners over the {@link HeaderCorpus}.<br/>
+ * Each available miner, with its default options, mines every corpus header in a bounded window of nonces ending at
+ * the known nonce. The setup time (miner creation), the time to solution and the hash rate are written as JSON, and
+ * can be compared to a baseline result file : a hash rate lower than the baseline by more than the tolerance is a
+ * regression.<br/>
+ * Usage : <code>CorpusBench [-miners java,cpp,cl,cuda] [-window 1000000] [-out corpus-bench.json]
+ * [-baseline baseline.json] [-tolerance 0.1]</code>, exit with status 1 on regression.
+ */
+public final class CorpusBench {
+
+    public static final List<MinerOptions> MINERS = List.of(JavaMiner.OPTIONS, CppMiner.OPTIONS, CLMiner.OPTIONS, CudaMiner.OPTIONS);
+
+    public static final long DEFAULT_WINDOW = 1_000_000;
+    public static final double DEFAULT_TOLERANCE = 0.1;
+
+    /**
+     * @param matchedNonce unsigned matched nonce, may be before the known nonce since the miners only test the leading
+     *                     zero bytes of the target
+     */
+    public record Result(String miner, int height, long window, @Nullable Long matchedNonce, boolean knownNonce,
+                         long hashes, double setupSeconds, double seconds, double mhps) {
+    }
+
+    public record Report(long timestamp, long window, List<Result> results) {
+    }
+
+    public record Regression(Result baseline, Result current) {
+        public double ratio() {
+            return current.mhps() / baseline.mhps();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s block %d : %.2f million hash/s, baseline %.2f (%+.1f%%)", current.miner(), current.height(),
+                    current.mhps(), baseline.mhps(), (ratio() - 1) * 100);
+        }
+    }
+
+    private CorpusBench() {
+    }
+
+    /**
+     * Run the corpus on the miners, a miner that can not be created (missing native library or device) is skipped
+     */
+    public static Report run(List<MinerOptions> miners, List<HeaderCorpus.Entry> corpus, long window) {
+        List<Result> results = new ArrayList<>();
+        for (MinerOptions options : miners) {
+            for (HeaderCorpus.Entry entry : corpus) {
+                Result result = run(options, entry, window);
+                if (result == null)
+                    break;
+                System.out.println(result);
+                results.add(result);
+            }
+        }
+        return new Report(System.currentTimeMillis(), window, results);
+    }
+
+    @Nullable
+    public static Result run(MinerOptions options, HeaderCorpus.Entry entry, long window) {
+        long setupStart = System.nanoTime();
+        IMiner miner;
+        try {
+            miner = options.createMiner(options.parse(new String[0], 0));
+        } catch (Exception | LinkageError e) {
+            System.out.printf("Skipping miner %s : %s%n", options.id(), e);
+            return null;
+        }
+        double setupSeconds = (System.nanoTime() - setupStart) * 1E-9;
+        try (miner) {
+            long knownNonce = Integer.toUnsignedLong(entry.nonce());
+            long startNonce = Math.max(0, knownNonce - window);
+            long start = System.nanoTime();
+            Integer matched = miner.mine(entry.header(), (int) startNonce);
+            double seconds = (System.nanoTime() - start) * 1E-9;
+            long hashes = miner.getStats().totalHashes();
+            Long matchedNonce = matched == null ? null : Integer.toUnsignedLong(matched);
+            return new Result(options.id(), entry.height(), window, matchedNonce, matchedNonce != null && matchedNonce == knownNonce,
+                    hashes, setupSeconds, seconds, seconds > 0 ? hashes * 1E-6 / seconds : 0);
+        }
+    }
+
+    /**
+     * @param tolerance accepted relative hash rate drop
+     * @return the results of the current report slower than the baseline
+     */
+    public static List<Regression> compare(Report baseline, Report current, double tolerance) {
+        Map<String, Result> baselineResults = new HashMap<>();
+        for (Result result : baseline.results())
+            baselineResults.put(result.miner() + "/" + result.height(), result);
+        List<Regression> regressions = new ArrayList<>();
+        for (Result result : current.results()) {
+            Result baselineResult = baselineResults.get(result.miner() + "/" + result.height());
+            if (baselineResult != null && result.mhps() < baselineResult.mhps() * (1 - tolerance))
+                regressions.add(new Regression(baselineResult, result));
+        }
+        return regressions;
+    }
+
+    public static Report read(Path file) {
+        try {
+            return BlockChainResponse.createObjectMapper().readValue(file.toFile(), Report.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void write(Report report, Path file) {
+        try {
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) {
+        List<String> minerIds = null;
+        long window = DEFAULT_WINDOW;
+        Path out = Path.of("corpus-bench.json");
+        Path baseline = null;
+        double tolerance = DEFAULT_TOLERANCE;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-miners" -> minerIds = Arrays.asList(value.toLowerCase().split(","));
+                case "-window" -> window = Long.parseLong(value);
+                case "-out" -> out = Path.of(value);
+                case "-baseline" -> baseline = Path.of(value);
+                case "-tolerance" -> tolerance = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        List<String> ids = minerIds;
+        List<MinerOptions> miners = MINERS.stream().filter(o -> ids == null || ids.contains(o.id())).toList();
+
+        Report report = run(miners, HeaderCorpus.load(), window);
+        write(report, out);
+        System.out.printf("Results written to %s%n", out);
+
+        if (baseline != null) {
+            List<Regression> regressions = compare(read(baseline), report, tolerance);
+            if (!regressions.isEmpty()) {
+                System.out.printf("%d regressions against %s :%n", regressions.size(), baseline);
+                regressions.forEach(r -> System.out.println("  " + r));
+                System.exit(1);
+            }
+            System.out.printf("No regression against %s%n", baseline);
+        }
+    }
+
+}
@@ -2,22 +2,101 @@ package com.infine.demo.bcminer;
 
 import com.infine.demo.bcminer.java.Sha256;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.function.Predicate;
 
 /**
  * Predicate to test a hash.
- * Use an int bit mask  for the first int in the h and check for 0 for other int from the start offset.
+ * Use an int bit mask  for the first int in the h and check for 0 for other int from the start offset.<br/>
+ * The mask is a necessary condition, tested first (the engines test the last hash word early to skip the last rounds).
+ * The hash, as a 256 bits number, must then be lower or equal to the target : the words are compared from the first
+ * significant word of the target, the target words before are not compared and must be tested by the mask.
  *
  * @param hOffset
  * @param mask
+ * @param target  256 bits target, {@link Sha256#H_INTS} words most significant first
  */
-public record HashPredicate(int hOffset, int mask) implements Predicate<int[]> {
+public record HashPredicate(int hOffset, int mask, int[] target) implements Predicate<int[]> {
+
+    // ints of the copyData layout
+    public static final int DATA_INTS = 2 + Sha256.H_INTS;
+
+    /**
+     * Target of the predicates testing the mask only
+     */
+    private static final int[] MAX_TARGET = new int[Sha256.H_INTS];
+
+    static {
+        Arrays.fill(MAX_TARGET, 0xFFFFFFFF);
+    }
+
+    /**
+     * Predicate of the mask only
+     */
+    public HashPredicate(int hOffset, int mask) {
+        this(hOffset, mask, MAX_TARGET);
+    }
+
+    /**
+     * @param target 256 bits target, {@link Sha256#H_INTS} words most significant first
+     * @return the exact predicate of the target : the mask tests the leading zero bits of the target
+     */
+    public static HashPredicate ofTarget(int[] target) {
+        int first = 0;
+        while (first < Sha256.H_INTS && target[first] == 0)
+            first++;
+        // only the zero hash matches a zero target
+        if (first == Sha256.H_INTS)
+            return new HashPredicate(0, 0xFFFFFFFF, target.clone());
+        // leading zero bits of the first significant word, in the hash word byte order
+        int mask = Integer.reverseBytes(~(0xFFFFFFFF >>> Integer.numberOfLeadingZeros(target[first])));
+        return new HashPredicate(Sha256.H_INTS - 1 - first, mask, target.clone());
+    }
+
     @Override
     public boolean test(int[] hash) {
         int sum = hash[hOffset] & mask;
         for (int i = hOffset + 1; i < Sha256.H_INTS; i++) {
             sum |= hash[i];
         }
-        return sum == 0;
+        return sum == 0 && atMostTarget(hash, target, Sha256.H_INTS - 1 - hOffset);
+    }
+
+    /**
+     * @param first index of the first compared target word
+     * @return true if the hash, as a 256 bits number, is lower or equal to the target
+     */
+    public static boolean atMostTarget(int[] hash, int[] target, int first) {
+        for (int i = first; i < Sha256.H_INTS; i++) {
+            // hash words are in the reverse order of the 256 bits number, and their bytes too
+            int word = Integer.reverseBytes(hash[Sha256.H_INTS - 1 - i]);
+            if (word != target[i])
+                return Integer.compareUnsigned(word, target[i]) < 0;
+        }
+        return true;
+    }
+
+    /**
+     * Write the predicate for the native code and the kernels (position of dst is advanced) :
+     * <pre>
+     * [0] hOffset
+     * [1] mask
+     * [2+8] target, most significant word first
+     * </pre>
+     */
+    public void copyData(ByteBuffer dst) {
+        dst.putInt(hOffset);
+        dst.putInt(mask);
+        for (int i : target) dst.putInt(i);
+    }
+
+    /**
+     * @return the mask of the bits of hash[index] that must be 0
+     */
+    public int wordMask(int index) {
+        if (index < hOffset)
+            return 0;
+        return index == hOffset ? mask : 0xFFFFFFFF;
     }
 }
@@ -0,0 +1,224 @@
+package com.infine.demo.bcminer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Hash rate estimator fed with {@link #sample(long, long)} of a total hash counter.<br/>
+ * Gives the rate over the last 1s, 10s and 60s windows, their exponentially weighted moving averages, and keeps the
+ * history of samples in a fixed size ring buffer, one entry per {@link #HISTORY_INTERVAL} at most, with a tolerance for
+ * the sampling jitter. The history can be
+ * read entry by entry without allocation, or exported as CSV or JSON lines.<br/>
+ * Rates are in hashes per second, times in nanoseconds since the first sample.
+ */
+public class HashRate {
+
+    public static final int DEFAULT_CAPACITY = 3600;
+
+    // minimum interval between two history entries
+    public static final long HISTORY_INTERVAL = 1_000_000_000L;
+    // accepted jitter of the sampling period, so a sample about every interval is always an entry
+    private static final long HISTORY_TOLERANCE = HISTORY_INTERVAL / 4;
+
+    public static final long[] WINDOWS = {1_000_000_000L, 10_000_000_000L, 60_000_000_000L};
+
+    /**
+     * History entry consumer, rate of the interval ending at time
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long time, long totalHashes, double rate);
+    }
+
+    private final int capacity;
+    // ring of history entries
+    private final long[] times;
+    private final long[] hashes;
+    private int head; // next entry
+    private int size;
+
+    private long startTime;
+    private long lastTime;
+    private long lastHashes;
+
+    private final double[] ewmas = new double[WINDOWS.length];
+
+    public HashRate() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity max number of history entries, the oldest are overwritten
+     */
+    public HashRate(int capacity) {
+        if (capacity < 2)
+            throw new IllegalArgumentException("Invalid capacity " + capacity);
+        this.capacity = capacity;
+        this.times = new long[capacity];
+        this.hashes = new long[capacity];
+    }
+
+    /**
+     * Clear the history, and start from this sample
+     */
+    public synchronized void reset(long nanoTime, long totalHashes) {
+        head = size = 0;
+        startTime = lastTime = nanoTime;
+        lastHashes = totalHashes;
+        Arrays.fill(ewmas, 0);
+        add(0, totalHashes);
+    }
+
+    /**
+     * @param nanoTime    {@link System#nanoTime()} of the sample
+     * @param totalHashes hashes since the {@link #reset(long, long)}
+     */
+    public synchronized void sample(long nanoTime, long totalHashes) {
+        if (size == 0) {
+            reset(nanoTime, totalHashes);
+            return;
+        }
+        long dt = nanoTime - lastTime;
+        if (dt <= 0)
+            return;
+        double rate = (totalHashes - lastHashes) * 1E9 / dt;
+        for (int i = 0; i < WINDOWS.length; i++) {
+            if (lastTime == startTime) {
+                // first interval
+                ewmas[i] = rate;
+                continue;
+            }
+            double alpha = 1 - Math.exp(-(double) dt / WINDOWS[i]);
+            ewmas[i] += alpha * (rate - ewmas[i]);
+        }
+        lastTime = nanoTime;
+        lastHashes = totalHashes;
+        long time = nanoTime - startTime;
+        if (time - times[index(size - 1)] >= HISTORY_INTERVAL - HISTORY_TOLERANCE)
+            add(time, totalHashes);
+    }
+
+    /**
+     * @param window window duration in nanoseconds
+     * @return the rate up to the last sample, since the newest entry at or before the window start (within the history
+     * tolerance), or over the history if shorter than the window
+     */
+    public synchronized double windowRate(long window) {
+        if (size == 0)
+            return 0;
+        long time = lastTime - startTime;
+        // newest entry at or before the window start, the rate is computed over the actual entry interval
+        int i = size - 1;
+        while (i > 0 && times[index(i)] > time - window + HISTORY_TOLERANCE)
+            i--;
+        long dt = time - times[index(i)];
+        if (dt <= 0)
+            return 0;
+        return (lastHashes - hashes[index(i)]) * 1E9 / dt;
+    }
+
+    public double rate1s() {
+        return windowRate(WINDOWS[0]);
+    }
+
+    public double rate10s() {
+        return windowRate(WINDOWS[1]);
+    }
+
+    public double rate60s() {
+        return windowRate(WINDOWS[2]);
+    }
+
+    /**
+     * @param window index in {@link #WINDOWS}
+     * @return the exponentially weighted moving average with the window as time constant
+     */
+    public synchronized double ewma(int window) {
+        return ewmas[window];
+    }
+
+    /**
+     * @return number of history entries, up to the capacity
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param i history entry, from 0 the oldest
+     */
+    public synchronized long time(int i) {
+        return times[index(checkIndex(i))];
+    }
+
+    public synchronized long totalHashes(int i) {
+        return hashes[index(checkIndex(i))];
+    }
+
+    /**
+     * @return rate of the interval ending at entry i, 0 for the first entry
+     */
+    public synchronized double rate(int i) {
+        checkIndex(i);
+        if (i == 0)
+            return 0;
+        int current = index(i), previous = index(i - 1);
+        return (hashes[current] - hashes[previous]) * 1E9 / (times[current] - times[previous]);
+    }
+
+    public synchronized void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < size; i++)
+            consumer.accept(times[index(i)], hashes[index(i)], rate(i));
+    }
+
+    /**
+     * Write the history as CSV, with a header line
+     */
+    public void writeCsv(Appendable out) {
+        try {
+            out.append("time_s,total_hashes,rate_hps\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        write(out, "%.3f,%d,%.1f\n");
+    }
+
+    /**
+     * Write the history as one JSON object per line
+     */
+    public void writeJsonLines(Appendable out) {
+        write(out, "{\"time_s\":%.3f,\"total_hashes\":%d,\"rate_hps\":%.1f}\n");
+    }
+
+    private void write(Appendable out, String format) {
+        forEach((time, totalHashes, rate) -> {
+            try {
+                out.append(String.format(Locale.ROOT, format, time * 1E-9, totalHashes, rate));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void add(long time, long totalHashes) {
+        times[head] = time;
+        hashes[head] = totalHashes;
+        head = (head + 1) % capacity;
+        if (size < capacity)
+            size++;
+    }
+
+    // ring index of the history entry i
+    private int index(int i) {
+        return Math.floorMod(head - size + i, capacity);
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException(i);
+        return i;
+    }
+
+}
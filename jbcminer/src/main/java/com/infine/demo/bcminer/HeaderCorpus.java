@@ -0,0 +1,90 @@
+package com.infine.demo.bcminer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infine.demo.bcminer.api.BlockChainResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Bundled corpus of historical block headers, from the genesis block to recent difficulties, in the
+ * {@link BlockChainResponse} format.<br/>
+ * Each header is verified when loaded : its double SHA-256 must be the block hash, and below the nBits target.
+ */
+public final class HeaderCorpus {
+
+    public static final String RESOURCE = "/headers_corpus.json";
+
+    public record Entry(int height, String hash, BlockHeader header) {
+        /**
+         * @return the known nonce of the block
+         */
+        public int nonce() {
+            return header.nonce();
+        }
+    }
+
+    private HeaderCorpus() {
+    }
+
+    /**
+     * @throws IllegalStateException if a header does not match its hash or target
+     */
+    public static List<Entry> load() {
+        ObjectMapper om = BlockChainResponse.createObjectMapper();
+        try (InputStream is = HeaderCorpus.class.getResourceAsStream(RESOURCE)) {
+            if (is == null)
+                throw new IllegalStateException("Missing header corpus " + RESOURCE);
+            List<Entry> entries = new ArrayList<>();
+            for (BlockChainResponse block : om.readValue(is, BlockChainResponse[].class)) {
+                Entry entry = new Entry(block.height, block.hash, block.createBlockHeader());
+                verify(entry);
+                entries.add(entry);
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void verify(Entry entry) {
+        String hash = hash(entry.header());
+        if (!hash.equals(entry.hash()))
+            throw new IllegalStateException("Block " + entry.height() + " header hash " + hash + " != " + entry.hash());
+        if (new BigInteger(hash, 16).compareTo(target(entry.header().nbits())) > 0)
+            throw new IllegalStateException("Block " + entry.height() + " hash " + hash + " is above its target");
+    }
+
+    /**
+     * @return the block hash : the header double SHA-256, in the usual reversed hex
+     */
+    public static String hash(BlockHeader header) {
+        ByteBuffer bytes = ByteBuffer.allocate(BlockHeader.HEADER_INTS * Integer.BYTES);
+        bytes.asIntBuffer().put(header.data());
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(digest.digest(bytes.array()));
+            return Utils.reverse(HexFormat.of().formatHex(hash));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param nbits compact target, as {@link BlockHeader#nbits()}
+     */
+    public static BigInteger target(int nbits) {
+        int exponent = nbits >>> 24;
+        BigInteger mantissa = BigInteger.valueOf(nbits & 0xFFFFFF);
+        return exponent <= 3 ? mantissa.shiftRight(8 * (3 - exponent)) : mantissa.shiftLeft(8 * (exponent - 3));
+    }
+
+}
@@ -4,8 +4,34 @@ public interface IMiner extends AutoCloseable {
 
     MinerStats getStats();
 
+    /**
+     * @param worker worker (thread or device) index, in [0, {@link MinerStats#workers()}[ of the {@link #getStats()}
+     * @return the stats of a single worker
+     */
+    default MinerStats.Counter getStats(int worker) {
+        return getStats().worker(worker);
+    }
+
     Integer mine(BlockHeader header, int startNonce);
 
+    /**
+     * Share mode, for pool mining : mine the header and offer every nonce whose hash matches the share predicate to the
+     * shares ring, the search goes on after each share. The share target must be easier than the header target, a
+     * nonce matching the header target is a share too.<br/>
+     * The ring is not drained by the miner, nonces offered to a full ring are counted as dropped.
+     *
+     * @return the nonce matching the header target, or null if not found or cancelled
+     */
+    Integer mine(BlockHeader header, int startNonce, HashPredicate share, ShareRing shares);
+
+    /**
+     * Stop the running {@link #mine(BlockHeader, int)} from another thread, it returns null unless a nonce is already
+     * matched.<br/>
+     * A job is stopped by any cancel once it started, when the {@link MinerStats#jobs()} of the {@link #getStats()}
+     * changed. A cancel issued before may be ignored : to stop a mine submitted asynchronously, wait for its start.
+     */
+    void cancel();
+
     @Override
     default void close() {
     }
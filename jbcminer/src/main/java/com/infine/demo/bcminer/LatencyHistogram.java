@@ -0,0 +1,97 @@
+package com.infine.demo.bcminer;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear latency histogram in nanoseconds, like HdrHistogram : each power of 2 is split in {@link #SUB_BUCKETS}
+ * linear buckets, so a recorded value is known within 1 / {@link #SUB_BUCKETS} (12.5%) of its value, from 1 ns up
+ * to {@link #MAX_VALUE}, larger values are counted in the last bucket.<br/>
+ * Recording is lock free (one atomic increment), reads are not atomic across buckets.
+ */
+public class LatencyHistogram {
+
+    public static final int SUB_BUCKET_BITS = 3;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // about 18 minutes
+    public static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int BUCKETS = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * @param nanos latency, negative values are ignored
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            return;
+        counts.getAndIncrement(index(Math.min(nanos, MAX_VALUE)));
+        sum.add(nanos);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            count += counts.get(i);
+        return count;
+    }
+
+    /**
+     * @return sum of the recorded values, in nanoseconds
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    public int buckets() {
+        return BUCKETS;
+    }
+
+    /**
+     * @return number of values recorded in the bucket
+     */
+    public long count(int bucket) {
+        return counts.get(bucket);
+    }
+
+    /**
+     * @return the largest value of the bucket, included
+     */
+    public static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long base = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return base + (1L << shift) - 1;
+    }
+
+    /**
+     * @param quantile in [0, 1]
+     * @return the upper bound of the bucket containing the quantile, 0 if empty
+     */
+    public long quantile(double quantile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++)
+            count += snapshot[i] = counts.get(i);
+        long rank = (long) Math.ceil(quantile * count);
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += snapshot[i];
+            if (cumulated >= rank && cumulated > 0)
+                return upperBound(i);
+        }
+        return 0;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+}
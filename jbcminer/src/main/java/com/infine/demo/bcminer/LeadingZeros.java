@@ -0,0 +1,132 @@
+package com.infine.demo.bcminer;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of the leading zero bits of the computed hashes (the Bitcoin hash as a 256 bits number), an estimate of
+ * the hashing work backed by the hashes themselves : a hash has at least n leading zero bits with a probability of
+ * 2<sup>-n</sup>, so the hashes counted here estimate the computed hashes ({@link #estimatedHashes()}) independently of
+ * the hash counts reported by the miners. A reported count out of the estimate error reveals nonces counted but not
+ * hashed, or hashed but not counted.<br/>
+ * Only the hashes with at least {@link #MIN_BITS} leading zero bits (1 in 256) are recorded : the engines test the last
+ * hash word they already computed for the early reject, before the early reject, so the early rejected hashes are
+ * recorded too.<br/>
+ * Recording is lock free (one atomic increment), reads are not atomic across bins.
+ */
+public class LeadingZeros {
+
+    public static final int MIN_BITS = 8;
+
+    // bits of the last hash word that must be 0 for the hash to be recorded, its most significant byte in Bitcoin order
+    public static final int MIN_BITS_MASK = (1 << MIN_BITS) - 1;
+
+    // 0 to 32 leading zero bits, the last bin counts the hashes with at least 32 bits
+    public static final int BINS = Integer.SIZE + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BINS);
+
+    /**
+     * @param h7 last word of the hash, as computed by sha-256
+     * @return leading zero bits of the hash, up to 32
+     */
+    public static int bits(int h7) {
+        return Integer.numberOfLeadingZeros(Integer.reverseBytes(h7));
+    }
+
+    /**
+     * Record the hash if it has at least {@link #MIN_BITS} leading zero bits
+     *
+     * @param h7 last word of the hash, as computed by sha-256
+     */
+    public void record(int h7) {
+        if ((h7 & MIN_BITS_MASK) == 0)
+            counts.getAndIncrement(bits(h7));
+    }
+
+    public void add(int bits, long count) {
+        if (count != 0)
+            counts.getAndAdd(bits, count);
+    }
+
+    /**
+     * Add the counts of a device histogram not added yet
+     *
+     * @param counts   {@link #BINS} unsigned 32 bits counts, cumulated by the device
+     * @param reported the counts already added, updated
+     */
+    public void addNew(IntBuffer counts, IntBuffer reported) {
+        for (int i = 0; i < BINS; i++) {
+            int count = counts.get(i);
+            add(i, Integer.toUnsignedLong(count - reported.get(i)));
+            reported.put(i, count);
+        }
+    }
+
+    public void add(LeadingZeros other) {
+        for (int i = 0; i < BINS; i++)
+            add(i, other.count(i));
+    }
+
+    /**
+     * @return number of recorded hashes with exactly bits leading zero bits (at least 32 for 32)
+     */
+    public long count(int bits) {
+        return counts.get(bits);
+    }
+
+    /**
+     * @return number of recorded hashes with at least bits leading zero bits, bits >= {@link #MIN_BITS}
+     */
+    public long atLeast(int bits) {
+        long count = 0;
+        for (int i = bits; i < BINS; i++)
+            count += counts.get(i);
+        return count;
+    }
+
+    /**
+     * @return the most leading zero bits recorded, 0 if none
+     */
+    public int best() {
+        for (int i = BINS - 1; i >= MIN_BITS; i--) {
+            if (counts.get(i) > 0)
+                return i;
+        }
+        return 0;
+    }
+
+    /**
+     * @return the number of hashes computed to record these hashes
+     */
+    public long estimatedHashes() {
+        return atLeast(MIN_BITS) << MIN_BITS;
+    }
+
+    /**
+     * @return relative standard error of {@link #estimatedHashes()} (Poisson), 1 if nothing recorded
+     */
+    public double relativeError() {
+        long recorded = atLeast(MIN_BITS);
+        return recorded > 0 ? 1 / Math.sqrt(recorded) : 1;
+    }
+
+    /**
+     * @param hashes reported hash count
+     * @return deviation of the recorded hashes from the expected count for the reported hashes, in standard deviations :
+     * beyond 4 or so the reported count is not consistent with the computed hashes
+     */
+    public double zScore(long hashes) {
+        double expected = (double) hashes / (1 << MIN_BITS);
+        if (expected == 0)
+            return atLeast(MIN_BITS) == 0 ? 0 : Double.POSITIVE_INFINITY;
+        return (atLeast(MIN_BITS) - expected) / Math.sqrt(expected);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f million hashes estimated by leading zeros (+/-%.1f%%), best %d bits",
+                estimatedHashes() * 1E-6, relativeError() * 100, best());
+    }
+
+}
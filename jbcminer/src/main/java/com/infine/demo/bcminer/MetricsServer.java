@@ -0,0 +1,227 @@
+package com.infine.demo.bcminer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local HTTP endpoint serving the {@link MinerStats} of the registered miners in the Prometheus text format, on
+ * <code>http://localhost:&lt;port&gt;/metrics</code> (loopback only).<br/>
+ * Exports the cumulated hashes, matched nonces, windowed hash rates of the miners and the hash rate of their workers,
+ * the job hashes reported and estimated from their {@link LeadingZeros}, and the pass, job switch and setup {@link LatencyHistogram}s as Prometheus histograms (non empty buckets only).
+ * Scrapes only read the lock free counters, the windowed rates are fed by {@link MinerStats#sample()}, by the server
+ * every second if requested.
+ */
+public class MetricsServer implements AutoCloseable {
+
+    public static final String METRICS_OPTION = "-metrics";
+
+    public static final String PATH = "/metrics";
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String[] WINDOWS = {"1s", "10s", "60s"};
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "metrics-server");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, IMiner> miners = new ConcurrentSkipListMap<>();
+
+    @Nullable
+    private final ScheduledExecutorService sampler;
+
+    private MetricsServer(HttpServer server, boolean sample) {
+        this.server = server;
+        if (sample) {
+            sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sampler.scheduleAtFixedRate(() -> miners.values().forEach(m -> m.getStats().sample()), 1, 1, TimeUnit.SECONDS);
+        } else {
+            sampler = null;
+        }
+    }
+
+    /**
+     * @param port   listening port, 0 for any free port
+     * @param sample true to {@link MinerStats#sample()} the registered miners every second, false if already sampled
+     *               by the caller
+     */
+    public static MetricsServer start(int port, boolean sample) {
+        HttpServer server;
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        MetricsServer metricsServer = new MetricsServer(server, sample);
+        server.createContext(PATH, metricsServer::handle);
+        server.setExecutor(metricsServer.executor);
+        server.start();
+        System.out.printf("Serving metrics on http://localhost:%d%s%n", metricsServer.port(), PATH);
+        return metricsServer;
+    }
+
+    /**
+     * @return the listening port of the <code>-metrics</code> command line option, or -1 if absent
+     */
+    public static int parsePort(String[] args) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(METRICS_OPTION))
+                return Integer.parseInt(args[i + 1]);
+        }
+        return -1;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @param name miner label value, replaces a miner registered with the same name
+     */
+    public MetricsServer register(String name, IMiner miner) {
+        miners.put(name, miner);
+        return this;
+    }
+
+    public void unregister(String name) {
+        miners.remove(name);
+    }
+
+    /**
+     * @return the metrics of the registered miners, in the Prometheus text format
+     */
+    public String scrape() {
+        StringBuilder sb = new StringBuilder();
+        header(sb, "bcminer_hashes_total", "counter", "Hashes since the miner creation");
+        miners.forEach((name, miner) -> sample(sb, "bcminer_hashes_total", labels(name), miner.getStats().cumulativeHashes()));
+        header(sb, "bcminer_nonces_found_total", "counter", "Matched nonces since the miner creation");
+        miners.forEach((name, miner) -> sample(sb, "bcminer_nonces_found_total", labels(name), miner.getStats().noncesFound()));
+
+        header(sb, "bcminer_hash_rate", "gauge", "Hashes per second over the last window");
+        miners.forEach((name, miner) -> {
+            HashRate hashRate = miner.getStats().hashRate();
+            for (int i = 0; i < WINDOWS.length; i++)
+                sample(sb, "bcminer_hash_rate", labels(name) + ",window=\"" + WINDOWS[i] + "\"", hashRate.windowRate(HashRate.WINDOWS[i]));
+        });
+        header(sb, "bcminer_job_hash_rate", "gauge", "Hashes per second since the current job start");
+        miners.forEach((name, miner) -> sample(sb, "bcminer_job_hash_rate", labels(name), miner.getStats().mhps() * 1E6));
+
+        header(sb, "bcminer_job_hashes", "gauge", "Hashes reported since the current job start");
+        miners.forEach((name, miner) -> sample(sb, "bcminer_job_hashes", labels(name), miner.getStats().totalHashes()));
+        header(sb, "bcminer_job_estimated_hashes", "gauge", "Hashes since the current job start, estimated from the leading zero bits of the computed hashes");
+        miners.forEach((name, miner) -> sample(sb, "bcminer_job_estimated_hashes", labels(name), miner.getStats().leadingZeros().estimatedHashes()));
+
+        header(sb, "bcminer_worker_hash_rate", "gauge", "Hashes per second of a worker since the current job start");
+        miners.forEach((name, miner) -> forEachWorker(name, miner, (labels, worker) -> sample(sb, "bcminer_worker_hash_rate", labels, worker.mhps() * 1E6)));
+        header(sb, "bcminer_worker_busy_hash_rate", "gauge", "Hashes per second of a worker while hashing");
+        miners.forEach((name, miner) -> forEachWorker(name, miner, (labels, worker) -> sample(sb, "bcminer_worker_busy_hash_rate", labels, worker.busyMhps() * 1E6)));
+        header(sb, "bcminer_worker_idle_seconds", "gauge", "Time not spent hashing by a worker since the current job start");
+        miners.forEach((name, miner) -> forEachWorker(name, miner, (labels, worker) -> sample(sb, "bcminer_worker_idle_seconds", labels, worker.idleTime())));
+
+        header(sb, "bcminer_pass_duration_seconds", "histogram", "Device pass duration, from kernel launch to result read back");
+        miners.forEach((name, miner) -> histogram(sb, "bcminer_pass_duration_seconds", labels(name), miner.getStats().passLatency()));
+        header(sb, "bcminer_job_switch_seconds", "histogram", "Delay from a mine call to its first hashed nonces");
+        miners.forEach((name, miner) -> histogram(sb, "bcminer_job_switch_seconds", labels(name), miner.getStats().jobSwitchLatency()));
+        header(sb, "bcminer_setup_seconds", "histogram", "Mine setup duration, from the call to the hashing start");
+        miners.forEach((name, miner) -> histogram(sb, "bcminer_setup_seconds", labels(name), miner.getStats().setupLatency()));
+        return sb.toString();
+    }
+
+    private interface WorkerConsumer {
+        void accept(String labels, MinerStats.Counter worker);
+    }
+
+    private static void forEachWorker(String name, IMiner miner, WorkerConsumer consumer) {
+        // workers are replaced by each job start
+        for (MinerStats.Counter worker : miner.getStats().workerCounters())
+            consumer.accept(labels(name) + ",worker=\"" + escape(worker.name()) + "\"", worker);
+    }
+
+    private static void header(StringBuilder sb, String name, String type, String help) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, double value) {
+        sb.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder sb, String name, String labels, long value) {
+        sb.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    // cumulative buckets in seconds, the count is the sum of the same bucket reads
+    private static void histogram(StringBuilder sb, String name, String labels, LatencyHistogram histogram) {
+        long count = 0;
+        for (int i = 0; i < histogram.buckets(); i++) {
+            long bucketCount = histogram.count(i);
+            if (bucketCount == 0)
+                continue;
+            count += bucketCount;
+            // values are integer nanoseconds, the bucket holds values up to its upper bound included
+            sample(sb, name + "_bucket", labels + ",le=\"" + seconds(LatencyHistogram.upperBound(i)) + "\"", count);
+        }
+        sample(sb, name + "_bucket", labels + ",le=\"+Inf\"", count);
+        sample(sb, name + "_sum", labels, histogram.sum() * 1E-9);
+        sample(sb, name + "_count", labels, count);
+    }
+
+    // exact decimal seconds
+    static String seconds(long nanos) {
+        return BigDecimal.valueOf(nanos, 9).stripTrailingZeros().toPlainString();
+    }
+
+    private static String labels(String miner) {
+        return "miner=\"" + escape(miner) + "\"";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (sampler != null)
+            sampler.shutdownNow();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+}
@@ -1,42 +1,485 @@
 package com.infine.demo.bcminer;
 
+import com.infine.demo.bcminer.jfr.HashRateEvent;
+
+import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Miner hash counters, updated without lock from any number of worker threads.<br/>
+ * {@link #update(int, int)} is striped ({@link LongAdder}), and each worker (thread or device) can own a padded single
+ * writer {@link Counter} ({@link #counter(String)}) to avoid even the striping CAS. The worker counters also give the
+ * per worker breakdown : hashes, rates and idle time. Reads sum all counters without lock, use {@link #snapshot()} for
+ * consistent values.<br/>
+ * The cumulative rate is completed by the windowed rates of {@link #hashRate()}, fed by {@link #sample()}, each sample
+ * is also recorded as a {@link HashRateEvent} when flight recording.<br/>
+ * Miner lifetime counters and {@link LatencyHistogram}s, not reset by {@link #start()}, are exported by the
+ * {@link MetricsServer} : cumulated hashes, matched nonces, pass, job switch and setup latencies.<br/>
+ * The stats can also be published in a memory mapped {@link StatsFile}, see {@link #publish(StatsFile)}.<br/>
+ * Each worker counter also holds the {@link LeadingZeros} histogram of the hashes computed by its worker, an estimate of
+ * the job hashes independent of the reported counts ({@link #leadingZeros()}).
+ */
 public class MinerStats {
-    protected long startTime;
-    protected long totalHashes;
-    protected double totalTime;
+
+    /**
+     * Consistent view of the stats
+     */
+    public record Snapshot(long totalHashes, long earlyRejected, double totalTime) {
+        public long fullyComputed() {
+            return totalHashes - earlyRejected;
+        }
+
+        /**
+         * milion H per sec
+         */
+        public double mhps() {
+            if (totalTime > 0)
+                return (totalHashes * 1E-6) / totalTime;
+            return 0;
+        }
+    }
+
+    @Nullable
+    private volatile String engine;
+    private volatile long startTime = System.nanoTime();
+
+    private final LongAdder totalHashes = new LongAdder();
+    private final LongAdder earlyRejected = new LongAdder();
+    // nanoTime of the last update
+    private final LongAccumulator lastUpdate = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    private final List<Counter> counters = new CopyOnWriteArrayList<>();
+
+    private final HashRate hashRate = new HashRate();
+
+    // miner lifetime values
+    // hashes of the jobs before the current one, folded in by start() with the counters reset
+    private final Object jobLock = new Object();
+    private long previousJobsHashes;
+    private volatile long jobs;
+    private final LongAdder noncesFound = new LongAdder();
+    private final LatencyHistogram passLatency = new LatencyHistogram();
+    private final LatencyHistogram jobSwitchLatency = new LatencyHistogram();
+    private final LatencyHistogram setupLatency = new LatencyHistogram();
+
+    @Nullable
+    private volatile StatsFile statsFile;
+
+    public MinerStats() {
+        hashRate.reset(startTime, 0);
+    }
+
+    /**
+     * @return the hash engine used by the miner, if reported
+     */
+    @Nullable
+    public String engine() {
+        return engine;
+    }
+
+    public MinerStats engine(@Nullable String engine) {
+        this.engine = engine;
+        return this;
+    }
 
     public long totalHashes() {
-        return totalHashes;
+        long total = totalHashes.sum();
+        for (Counter counter : counters)
+            total += counter.totalHashes();
+        return total;
+    }
+
+    /**
+     * @return number of hashes rejected before being fully computed
+     */
+    public long earlyRejected() {
+        long total = earlyRejected.sum();
+        for (Counter counter : counters)
+            total += counter.earlyRejected();
+        return total;
     }
 
+    public long fullyComputed() {
+        return snapshot().fullyComputed();
+    }
+
+    /**
+     * @return seconds from {@link #start()} to the last update
+     */
     public double totalTime() {
-        return totalTime;
+        long last = lastUpdate.get();
+        for (Counter counter : counters)
+            last = Math.max(last, counter.lastUpdate());
+        if (last == Long.MIN_VALUE)
+            return 0;
+        return Math.max(0, last - startTime) * 1E-9;
     }
 
     /**
      * milion H per sec
      */
     public double mhps() {
-        if (totalTime > 0)
-            return (totalHashes * 1E-6) / totalTime;
-        return 0;
+        return snapshot().mhps();
+    }
+
+    /**
+     * @return the current values, read in the reverse order of the updates : early rejected before total hashes (written
+     * first) so fully computed is never negative, and totals before the time so the hash rate is never over estimated
+     */
+    public Snapshot snapshot() {
+        long rejected = earlyRejected();
+        long hashes = totalHashes();
+        return new Snapshot(hashes, rejected, totalTime());
     }
 
+    /**
+     * Reset the counters, must be called before the workers start. The worker {@link Counter}s are released.<br/>
+     * The job hashes are added to the {@link #cumulativeHashes()} and the counters cleared under the lock it reads, so a
+     * concurrent scrape never counts them twice. The {@link #jobs()} count is incremented last.
+     */
     public void start() {
-        totalHashes = 0;
-        startTime = System.currentTimeMillis();
+        synchronized (jobLock) {
+            previousJobsHashes += totalHashes();
+            counters.clear();
+            totalHashes.reset();
+        }
+        earlyRejected.reset();
+        lastUpdate.reset();
+        startTime = System.nanoTime();
+        hashRate.reset(startTime, 0);
+        StatsFile statsFile = this.statsFile;
+        if (statsFile != null)
+            statsFile.startJob();
+        synchronized (jobLock) {
+            jobs++;
+        }
     }
 
-    public synchronized MinerStats update(int newHashes) {
-        totalHashes += newHashes;
-        totalTime = (System.currentTimeMillis() - startTime) * 1E-3;
+    /**
+     * @return number of {@link #start()} calls : a job is started, its counters reset, once the count changed. A
+     * {@link IMiner#cancel()} issued from then on stops it.
+     */
+    public long jobs() {
+        return jobs;
+    }
+
+    /**
+     * Publish the stats in the file : the worker counters created from now on write their slot on each update, the
+     * totals and rates are written by each {@link #sample()}
+     *
+     * @param statsFile the file, or null to stop publishing
+     */
+    public MinerStats publish(@Nullable StatsFile statsFile) {
+        this.statsFile = statsFile;
+        if (statsFile != null)
+            statsFile.publish(this);
         return this;
     }
 
+    /**
+     * Sample the total hashes in the {@link #hashRate()}, to call periodically (every second or so) by a single thread
+     */
+    public MinerStats sample() {
+        long totalHashes = totalHashes();
+        hashRate.sample(System.nanoTime(), totalHashes);
+        HashRateEvent.commit(engine, totalHashes, hashRate);
+        StatsFile statsFile = this.statsFile;
+        if (statsFile != null)
+            statsFile.publish(this);
+        return this;
+    }
+
+    /**
+     * @return the windowed rates and history of the {@link #sample()}
+     */
+    public HashRate hashRate() {
+        return hashRate;
+    }
+
+    public MinerStats update(int newHashes) {
+        return update(newHashes, 0);
+    }
+
+    /**
+     * @param earlyRejected number of the new hashes that were rejected before being fully computed
+     */
+    public MinerStats update(int newHashes, int earlyRejected) {
+        totalHashes.add(newHashes);
+        if (earlyRejected != 0)
+            this.earlyRejected.add(earlyRejected);
+        lastUpdate.accumulate(System.nanoTime());
+        return this;
+    }
+
+    /**
+     * @return hashes since the miner creation, all jobs included
+     */
+    public long cumulativeHashes() {
+        synchronized (jobLock) {
+            return previousJobsHashes + totalHashes();
+        }
+    }
+
+    public void nonceFound() {
+        noncesFound.increment();
+    }
+
+    /**
+     * @return number of matched nonces since the miner creation
+     */
+    public long noncesFound() {
+        return noncesFound.sum();
+    }
+
+    /**
+     * @return latency of the device passes (kernel launch to result read back), for the GPU miners
+     */
+    public LatencyHistogram passLatency() {
+        return passLatency;
+    }
+
+    /**
+     * @return latency from a mine call to its first hashed nonces
+     */
+    public LatencyHistogram jobSwitchLatency() {
+        return jobSwitchLatency;
+    }
+
+    /**
+     * @return duration of the mine setup, from the call to the hashing start (precompute, device buffers...)
+     */
+    public LatencyHistogram setupLatency() {
+        return setupLatency;
+    }
+
+    /**
+     * @param name worker name, thread or device
+     * @return a new counter for a single worker, until the next {@link #start()}
+     */
+    public Counter counter(String name) {
+        return counter(name, new LeadingZeros());
+    }
+
+    /**
+     * @param name         worker name, thread or device
+     * @param leadingZeros histogram of the hashes computed by the worker for this job
+     * @return a new counter for a single worker, until the next {@link #start()}
+     */
+    public Counter counter(String name, LeadingZeros leadingZeros) {
+        StatsFile statsFile = this.statsFile;
+        Counter counter = new Counter(name, startTime, leadingZeros, statsFile, statsFile == null ? -1 : statsFile.addWorker(name));
+        counters.add(counter);
+        return counter;
+    }
+
+    /**
+     * @return the sum of the worker counters {@link LeadingZeros} histograms, the job hashes estimated from the hashes
+     */
+    public LeadingZeros leadingZeros() {
+        LeadingZeros leadingZeros = new LeadingZeros();
+        for (Counter counter : counters)
+            leadingZeros.add(counter.leadingZeros());
+        return leadingZeros;
+    }
+
+    /**
+     * @return number of worker counters since {@link #start()}
+     */
+    public int workers() {
+        return counters.size();
+    }
+
+    /**
+     * @param index worker counter, by creation order
+     */
+    public Counter worker(int index) {
+        return counters.get(index);
+    }
+
+    /**
+     * @return the worker counters, by creation order, a consistent view when iterated
+     */
+    public List<Counter> workerCounters() {
+        return Collections.unmodifiableList(counters);
+    }
+
+    /**
+     * @return one line per worker counter
+     */
+    public String workersBreakdown() {
+        StringBuilder sb = new StringBuilder();
+        for (Counter counter : counters)
+            sb.append("  ").append(counter).append(System.lineSeparator());
+        return sb.toString();
+    }
+
     @Override
-    public synchronized String toString() {
-        return String.format("Hashed %-5.0f million in %-6.2f secs (%.1f million hash/s)",
-                totalHashes * 1E-6, totalTime, this.mhps());
+    public String toString() {
+        Snapshot snapshot = snapshot();
+        String s = String.format("Hashed %-5.0f million in %-6.2f secs (%.1f million hash/s)",
+                snapshot.totalHashes() * 1E-6, snapshot.totalTime(), snapshot.mhps());
+        if (snapshot.earlyRejected() > 0)
+            s += String.format(" %.0f million early rejected, %d fully computed", snapshot.earlyRejected() * 1E-6, snapshot.fullyComputed());
+        if (hashRate.size() > 1)
+            s += String.format(" last 1s/10s/60s %.1f/%.1f/%.1f million hash/s",
+                    hashRate.rate1s() * 1E-6, hashRate.rate10s() * 1E-6, hashRate.rate60s() * 1E-6);
+        LeadingZeros leadingZeros = leadingZeros();
+        if (leadingZeros.atLeast(LeadingZeros.MIN_BITS) > 0)
+            s += String.format(" %.1f million estimated (+/-%.1f%%)", leadingZeros.estimatedHashes() * 1E-6, leadingZeros.relativeError() * 100);
+        String engine = this.engine;
+        if (engine != null)
+            s += " [" + engine + "]";
+        return s;
+    }
+
+    // padding around the counter fields, on their own cache lines (128 bytes for adjacent line prefetch)
+    @SuppressWarnings("unused")
+    private static class CounterPadding {
+        long p00, p01, p02, p03, p04, p05, p06, p07, p08, p09, p10, p11, p12, p13, p14, p15;
+    }
+
+    private static class CounterFields extends CounterPadding {
+        long hashes;
+        long rejected;
+        long busy;
+        long lastUpdate = Long.MIN_VALUE;
+    }
+
+    /**
+     * Hash counter of a worker, written by a single thread at a time, read by any thread.<br/>
+     * The worker reports the time spent hashing, the remaining time since the {@link #start()} is idle : waiting for
+     * work, stalled or descheduled.
+     */
+    @SuppressWarnings("unused")
+    public static final class Counter extends CounterFields {
+        private static final VarHandle HASHES;
+        private static final VarHandle REJECTED;
+        private static final VarHandle BUSY;
+        private static final VarHandle LAST_UPDATE;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                HASHES = lookup.findVarHandle(CounterFields.class, "hashes", long.class);
+                REJECTED = lookup.findVarHandle(CounterFields.class, "rejected", long.class);
+                BUSY = lookup.findVarHandle(CounterFields.class, "busy", long.class);
+                LAST_UPDATE = lookup.findVarHandle(CounterFields.class, "lastUpdate", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        long q00, q01, q02, q03, q04, q05, q06, q07, q08, q09, q10, q11, q12, q13, q14, q15;
+
+        private final String name;
+        private final long startTime;
+        private final LeadingZeros leadingZeros;
+
+        // published slot, if any
+        @Nullable
+        private final StatsFile statsFile;
+        private final int slot;
+
+        private Counter(String name, long startTime, LeadingZeros leadingZeros, @Nullable StatsFile statsFile, int slot) {
+            this.name = name;
+            this.startTime = startTime;
+            this.leadingZeros = leadingZeros;
+            this.statsFile = slot < 0 ? null : statsFile;
+            this.slot = slot;
+        }
+
+        /**
+         * Must only be called by the owner thread
+         *
+         * @param earlyRejected number of the new hashes that were rejected before being fully computed
+         * @param busyNanos     time spent hashing the new hashes
+         */
+        public void update(int newHashes, int earlyRejected, long busyNanos) {
+            HASHES.setRelease(this, hashes + newHashes);
+            if (earlyRejected != 0)
+                REJECTED.setRelease(this, rejected + earlyRejected);
+            BUSY.setRelease(this, busy + busyNanos);
+            long now = System.nanoTime();
+            LAST_UPDATE.setRelease(this, now);
+            if (statsFile != null)
+                statsFile.updateWorker(slot, hashes, busy, now - startTime);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long totalHashes() {
+            return (long) HASHES.getAcquire(this);
+        }
+
+        /**
+         * @return histogram of the hashes computed by the worker, recorded by the worker itself
+         */
+        public LeadingZeros leadingZeros() {
+            return leadingZeros;
+        }
+
+        public long earlyRejected() {
+            return (long) REJECTED.getAcquire(this);
+        }
+
+        /**
+         * @return seconds from {@link #start()} to the last update
+         */
+        public double totalTime() {
+            long last = lastUpdate();
+            if (last == Long.MIN_VALUE)
+                return 0;
+            return Math.max(0, last - startTime) * 1E-9;
+        }
+
+        /**
+         * @return seconds spent hashing
+         */
+        public double busyTime() {
+            return (long) BUSY.getAcquire(this) * 1E-9;
+        }
+
+        /**
+         * @return seconds not spent hashing
+         */
+        public double idleTime() {
+            return Math.max(0, totalTime() - busyTime());
+        }
+
+        /**
+         * milion H per sec
+         */
+        public double mhps() {
+            double totalTime = totalTime();
+            return totalTime > 0 ? totalHashes() * 1E-6 / totalTime : 0;
+        }
+
+        /**
+         * @return milion H per sec while hashing, the worker speed regardless of the idle time
+         */
+        public double busyMhps() {
+            double busyTime = busyTime();
+            return busyTime > 0 ? totalHashes() * 1E-6 / busyTime : 0;
+        }
+
+        long lastUpdate() {
+            return (long) LAST_UPDATE.getAcquire(this);
+        }
+
+        @Override
+        public String toString() {
+            double totalTime = totalTime();
+            return String.format("%s : hashed %.1f million (%.2f million hash/s, %.2f while busy), idle %.2f secs (%.0f%%)",
+                    name, totalHashes() * 1E-6, mhps(), busyMhps(), idleTime(), totalTime > 0 ? idleTime() * 100 / totalTime : 0);
+        }
     }
 
 }
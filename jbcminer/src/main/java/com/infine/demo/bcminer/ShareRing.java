@@ -0,0 +1,200 @@
+package com.infine.demo.bcminer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.function.IntConsumer;
+
+/**
+ * Bounded lock free multi producer, multi consumer ring of the share nonces found by a miner in share mode (see
+ * {@link IMiner#mine(BlockHeader, int, HashPredicate, ShareRing)}).<br/>
+ * The ring never allocates and never blocks a producer : a nonce offered to a full ring is dropped and counted in
+ * {@link #dropped()}, the miner keeps hashing. The consumer must poll faster than the shares are found.<br/>
+ * Each slot has a sequence number telling the producers and the consumers whose turn it is (the bounded MPMC queue of
+ * D. Vyukov) : a producer claims a slot by incrementing the tail, writes the nonce, then releases the slot to the
+ * consumers, and the other way around for the consumers with the head.<br/>
+ * The ring lives in a direct buffer, in native order, so the native miner workers offer their shares directly with
+ * the same protocol. Layout, offsets in bytes :
+ * <pre>
+ *   0  long  capacity, a power of 2
+ *  64  long  tail, next slot to write
+ * 128  long  head, next slot to read
+ * 192  long  dropped nonces
+ * slot i at {@link #HEADER_SIZE} + i * {@link #SLOT_SIZE}
+ *   0  long  sequence
+ *   8  long  nonce, unsigned 32 bits
+ * </pre>
+ */
+public final class ShareRing {
+
+    public static final int HEADER_SIZE = 256;
+    public static final int SLOT_SIZE = 16;
+
+    // header offsets, the cursors on their own cache lines
+    static final int CAPACITY = 0;
+    static final int TAIL = 64;
+    static final int HEAD = 128;
+    static final int DROPPED = 192;
+
+    // slot offsets
+    static final int SEQUENCE = 0;
+    static final int NONCE = 8;
+
+    // returned by poll when the ring is empty
+    public static final long EMPTY = -1;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final long mask;
+
+    private ShareRing(ByteBuffer buffer, int capacity) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @param capacity number of slots, rounded up to a power of 2
+     */
+    public static ShareRing allocate(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 24)
+            throw new IllegalArgumentException("Invalid share ring capacity " + capacity);
+        int slots = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HEADER_SIZE + slots * SLOT_SIZE).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < slots; i++)
+            LONG.set(buffer, slotOffset(i) + SEQUENCE, (long) i);
+        LONG.set(buffer, CAPACITY, (long) slots);
+        // off heap initial sequences, before the ring is shared
+        VarHandle.releaseFence();
+        return new ShareRing(buffer, slots);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the direct buffer of the ring, for the native producers
+     */
+    public ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return true if the nonce is queued, false if the ring is full and the nonce dropped
+     */
+    public boolean offer(int nonce) {
+        long tail = (long) LONG.getVolatile(buffer, TAIL);
+        for (; ; ) {
+            int slot = slotOffset((int) (tail & mask));
+            long sequence = (long) LONG.getAcquire(buffer, slot + SEQUENCE);
+            long diff = sequence - tail;
+            if (diff == 0) {
+                long witness = (long) LONG.compareAndExchange(buffer, TAIL, tail, tail + 1);
+                if (witness == tail) {
+                    LONG.set(buffer, slot + NONCE, Integer.toUnsignedLong(nonce));
+                    LONG.setRelease(buffer, slot + SEQUENCE, tail + 1);
+                    return true;
+                }
+                tail = witness;
+            } else if (diff < 0) {
+                // the slot of the previous lap is not consumed yet
+                addDropped(1);
+                return false;
+            } else {
+                tail = (long) LONG.getVolatile(buffer, TAIL);
+            }
+        }
+    }
+
+    /**
+     * Offer the shares of a device append buffer : [0] shares found, unsigned, then the nonces. The shares found beyond
+     * the buffer capacity are counted as dropped.
+     *
+     * @param capacity nonces held by the append buffer
+     */
+    public void offerAppended(IntBuffer appendBuffer, int capacity) {
+        long found = Integer.toUnsignedLong(appendBuffer.get(0));
+        int kept = (int) Math.min(found, capacity);
+        for (int i = 0; i < kept; i++)
+            offer(appendBuffer.get(1 + i));
+        if (found > kept)
+            addDropped(found - kept);
+    }
+
+    /**
+     * @return the oldest nonce, unsigned, or {@link #EMPTY}
+     */
+    public long poll() {
+        long head = (long) LONG.getVolatile(buffer, HEAD);
+        for (; ; ) {
+            int slot = slotOffset((int) (head & mask));
+            long sequence = (long) LONG.getAcquire(buffer, slot + SEQUENCE);
+            long diff = sequence - (head + 1);
+            if (diff == 0) {
+                long witness = (long) LONG.compareAndExchange(buffer, HEAD, head, head + 1);
+                if (witness == head) {
+                    long nonce = (long) LONG.get(buffer, slot + NONCE);
+                    // free the slot for the next lap
+                    LONG.setRelease(buffer, slot + SEQUENCE, head + capacity);
+                    return nonce;
+                }
+                head = witness;
+            } else if (diff < 0) {
+                return EMPTY;
+            } else {
+                head = (long) LONG.getVolatile(buffer, HEAD);
+            }
+        }
+    }
+
+    /**
+     * Poll all the queued nonces
+     *
+     * @return the number of polled nonces
+     */
+    public int drain(IntConsumer consumer) {
+        int count = 0;
+        for (long nonce = poll(); nonce != EMPTY; nonce = poll()) {
+            consumer.accept((int) nonce);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of queued nonces, approximate while offered or polled
+     */
+    public int size() {
+        long size = (long) LONG.getVolatile(buffer, TAIL) - (long) LONG.getVolatile(buffer, HEAD);
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    /**
+     * @return the number of nonces dropped because the ring was full
+     */
+    public long dropped() {
+        return (long) LONG.getVolatile(buffer, DROPPED);
+    }
+
+    /**
+     * Count nonces dropped before they could be offered, like the overflow of a device share buffer
+     */
+    public void addDropped(long count) {
+        LONG.getAndAdd(buffer, DROPPED, count);
+    }
+
+    private static int slotOffset(int index) {
+        return HEADER_SIZE + index * SLOT_SIZE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d shares queued, %d dropped", size(), capacity, dropped());
+    }
+
+}
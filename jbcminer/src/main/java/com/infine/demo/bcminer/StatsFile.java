@@ -0,0 +1,233 @@
+package com.infine.demo.bcminer;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link MinerStats} published in a memory mapped file with a fixed binary layout, like the JVM hsperfdata files : an
+ * external agent samples the miner by reading the file, without any call into the JVM (see {@link StatsFileReader}).
+ * <br/>
+ * The worker counters write their slot on each update with release stores, the job fields are written by
+ * {@link MinerStats#start()} and the totals and rates by {@link MinerStats#sample()}.<br/>
+ * Layout, little endian, offsets in bytes :
+ * <pre>
+ * header, {@link #HEADER_SIZE} bytes
+ *   0  int     magic {@link #MAGIC}
+ *   4  int     layout version {@link #VERSION}
+ *   8  int     max workers
+ *  12  int     worker count
+ *  16  long    sequence, odd while the totals (offsets 32 to 144) are written, retry the read if odd or changed
+ *  24  long    pid
+ *  32  long    job id, incremented by each job start
+ *  40  long    update time, epoch milliseconds of the last sample
+ *  48  long    job hashes
+ *  56  long    job early rejected hashes
+ *  64  long    cumulative hashes, all jobs
+ *  72  long    matched nonces
+ *  80  double  job hash rate, hashes per second
+ *  88  double  last 1s hash rate
+ *  96  double  last 10s hash rate
+ * 104  double  last 60s hash rate
+ * 112  char[32] engine, ASCII zero padded
+ * worker slot i at {@link #HEADER_SIZE} + i * {@link #WORKER_SIZE}, {@link #WORKER_SIZE} bytes
+ *   0  char[64] name, ASCII zero padded
+ *  64  long    job hashes
+ *  72  long    job busy nanoseconds
+ *  80  long    nanoseconds from the job start to the last update
+ * </pre>
+ */
+public final class StatsFile implements AutoCloseable {
+
+    public static final String STATS_FILE_OPTION = "-statsfile";
+
+    public static final int MAGIC = 0x46534D42; // "BMSF"
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 256;
+    // two cache lines, no false sharing between workers
+    public static final int WORKER_SIZE = 128;
+    public static final int DEFAULT_MAX_WORKERS = 256;
+
+    // header offsets
+    static final int LAYOUT_VERSION = 4;
+    static final int MAX_WORKERS = 8;
+    static final int WORKER_COUNT = 12;
+    static final int SEQUENCE = 16;
+    static final int PID = 24;
+    static final int JOB_ID = 32;
+    static final int UPDATE_TIME = 40;
+    static final int JOB_HASHES = 48;
+    static final int EARLY_REJECTED = 56;
+    static final int CUMULATIVE_HASHES = 64;
+    static final int NONCES_FOUND = 72;
+    static final int JOB_RATE = 80;
+    static final int RATE_1S = 88;
+    static final int RATE_10S = 96;
+    static final int RATE_60S = 104;
+    static final int ENGINE = 112;
+    static final int ENGINE_SIZE = 32;
+
+    // worker slot offsets
+    static final int WORKER_NAME = 0;
+    static final int WORKER_NAME_SIZE = 64;
+    static final int WORKER_HASHES = 64;
+    static final int WORKER_BUSY = 72;
+    static final int WORKER_ACTIVE = 80;
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path file;
+    private final int maxWorkers;
+    private final MappedByteBuffer buffer;
+
+    private StatsFile(Path file, int maxWorkers, MappedByteBuffer buffer) {
+        this.file = file;
+        this.maxWorkers = maxWorkers;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create or truncate the file, and map it. The file is deleted by {@link #close()}, or at the JVM exit.
+     *
+     * @param maxWorkers number of worker slots, the workers created beyond are not published
+     */
+    public static StatsFile create(Path file, int maxWorkers) {
+        int size = HEADER_SIZE + maxWorkers * WORKER_SIZE;
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        file.toFile().deleteOnExit();
+        StatsFile statsFile = new StatsFile(file, maxWorkers, buffer);
+        LONG.set(buffer, PID, ProcessHandle.current().pid());
+        INT.set(buffer, MAX_WORKERS, maxWorkers);
+        INT.set(buffer, LAYOUT_VERSION, VERSION);
+        // written last, the file is valid once the magic is set
+        INT.setRelease(buffer, 0, MAGIC);
+        return statsFile;
+    }
+
+    /**
+     * @return the stats file of the <code>-statsfile</code> command line option, or null if absent
+     */
+    @Nullable
+    public static Path parseFile(String[] args) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(STATS_FILE_OPTION))
+                return Path.of(args[i + 1]);
+        }
+        return null;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * New job : clear the worker slots and increment the job id
+     */
+    synchronized void startJob() {
+        int workers = (int) INT.getAcquire(buffer, WORKER_COUNT);
+        for (int i = 0; i < workers * WORKER_SIZE; i += Long.BYTES)
+            LONG.setRelease(buffer, HEADER_SIZE + i, 0L);
+        INT.setRelease(buffer, WORKER_COUNT, 0);
+        beginWrite();
+        LONG.set(buffer, JOB_ID, (long) LONG.get(buffer, JOB_ID) + 1);
+        endWrite();
+    }
+
+    /**
+     * @return the offset of the new worker slot, or -1 if all slots are used
+     */
+    synchronized int addWorker(String name) {
+        int index = (int) INT.getAcquire(buffer, WORKER_COUNT);
+        if (index >= maxWorkers)
+            return -1;
+        int offset = HEADER_SIZE + index * WORKER_SIZE;
+        putAscii(offset + WORKER_NAME, WORKER_NAME_SIZE, name);
+        INT.setRelease(buffer, WORKER_COUNT, index + 1);
+        return offset;
+    }
+
+    /**
+     * Called by the single writer of the worker slot
+     */
+    void updateWorker(int offset, long hashes, long busyNanos, long activeNanos) {
+        LONG.setRelease(buffer, offset + WORKER_HASHES, hashes);
+        LONG.setRelease(buffer, offset + WORKER_BUSY, busyNanos);
+        LONG.setRelease(buffer, offset + WORKER_ACTIVE, activeNanos);
+    }
+
+    /**
+     * Write the totals and rates, called by a single thread at a time
+     */
+    synchronized void publish(MinerStats stats) {
+        MinerStats.Snapshot snapshot = stats.snapshot();
+        HashRate hashRate = stats.hashRate();
+        long cumulativeHashes = stats.cumulativeHashes();
+        long noncesFound = stats.noncesFound();
+        double rate1s = hashRate.rate1s(), rate10s = hashRate.rate10s(), rate60s = hashRate.rate60s();
+        String engine = stats.engine();
+
+        beginWrite();
+        LONG.set(buffer, UPDATE_TIME, System.currentTimeMillis());
+        LONG.set(buffer, JOB_HASHES, snapshot.totalHashes());
+        LONG.set(buffer, EARLY_REJECTED, snapshot.earlyRejected());
+        LONG.set(buffer, CUMULATIVE_HASHES, cumulativeHashes);
+        LONG.set(buffer, NONCES_FOUND, noncesFound);
+        putDouble(JOB_RATE, snapshot.mhps() * 1E6);
+        putDouble(RATE_1S, rate1s);
+        putDouble(RATE_10S, rate10s);
+        putDouble(RATE_60S, rate60s);
+        putAscii(ENGINE, ENGINE_SIZE, engine == null ? "" : engine);
+        endWrite();
+    }
+
+    // sequence lock : odd while writing, the reader retries
+    private void beginWrite() {
+        LONG.setRelease(buffer, SEQUENCE, (long) LONG.get(buffer, SEQUENCE) + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    private void endWrite() {
+        LONG.setRelease(buffer, SEQUENCE, (long) LONG.get(buffer, SEQUENCE) + 1);
+    }
+
+    private void putDouble(int offset, double value) {
+        LONG.set(buffer, offset, Double.doubleToRawLongBits(value));
+    }
+
+    private void putAscii(int offset, int size, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < size; i++)
+            buffer.put(offset + i, i < bytes.length && i < size - 1 ? bytes[i] : 0);
+    }
+
+    /**
+     * Delete the file, or at the JVM exit if it can not be deleted while mapped (Windows). The mapping stays valid
+     * until garbage collected.
+     */
+    @Override
+    public void close() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // deleted at the JVM exit
+        }
+    }
+
+}
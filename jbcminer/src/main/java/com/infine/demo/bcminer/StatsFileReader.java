@@ -0,0 +1,131 @@
+package com.infine.demo.bcminer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.infine.demo.bcminer.StatsFile.*;
+
+/**
+ * Reader of a {@link StatsFile}, maps the file read only and never touches the miner JVM.<br/>
+ * Usage : <code>StatsFileReader &lt;stats file&gt; [interval ms, 1000] [samples, 0 for ever]</code>, print a line per
+ * sample.
+ */
+public final class StatsFileReader {
+
+    public record Worker(String name, long hashes, long busyNanos, long activeNanos) {
+        /**
+         * @return hashes per second since the job start
+         */
+        public double rate() {
+            return activeNanos > 0 ? hashes * 1E9 / activeNanos : 0;
+        }
+    }
+
+    public record Snapshot(long pid, long jobId, long updateTime, long jobHashes, long earlyRejected, long cumulativeHashes,
+                           long noncesFound, double jobRate, double rate1s, double rate10s, double rate60s, String engine,
+                           List<Worker> workers) {
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("pid %d job %d : %.1f million hashes, %.2f/%.2f/%.2f million hash/s (1s/10s/60s), %d nonces found [%s]",
+                    pid, jobId, jobHashes * 1E-6, rate1s * 1E-6, rate10s * 1E-6, rate60s * 1E-6, noncesFound, engine));
+            for (Worker worker : workers)
+                sb.append(String.format("%n  %s : %.1f million hashes, %.2f million hash/s", worker.name(), worker.hashes() * 1E-6, worker.rate() * 1E-6));
+            return sb.toString();
+        }
+    }
+
+    private static final int MAX_RETRIES = 1000;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final ByteBuffer buffer;
+
+    public StatsFileReader(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IllegalArgumentException(file + " is not a stats file");
+        if (buffer.getInt(LAYOUT_VERSION) != VERSION)
+            throw new IllegalArgumentException("Unsupported stats file version " + buffer.getInt(LAYOUT_VERSION));
+    }
+
+    /**
+     * @throws IllegalStateException if the totals are being written on each retry
+     */
+    public Snapshot read() {
+        for (int retry = 0; retry < MAX_RETRIES; retry++) {
+            long sequence = (long) LONG.getAcquire(buffer, SEQUENCE);
+            if ((sequence & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            long jobId = buffer.getLong(JOB_ID);
+            long updateTime = buffer.getLong(UPDATE_TIME);
+            long jobHashes = buffer.getLong(JOB_HASHES);
+            long earlyRejected = buffer.getLong(EARLY_REJECTED);
+            long cumulativeHashes = buffer.getLong(CUMULATIVE_HASHES);
+            long noncesFound = buffer.getLong(NONCES_FOUND);
+            double jobRate = buffer.getDouble(JOB_RATE);
+            double rate1s = buffer.getDouble(RATE_1S);
+            double rate10s = buffer.getDouble(RATE_10S);
+            double rate60s = buffer.getDouble(RATE_60S);
+            String engine = ascii(ENGINE, ENGINE_SIZE);
+            VarHandle.loadLoadFence();
+            if ((long) LONG.getVolatile(buffer, SEQUENCE) != sequence)
+                continue;
+            return new Snapshot(buffer.getLong(PID), jobId, updateTime, jobHashes, earlyRejected, cumulativeHashes, noncesFound,
+                    jobRate, rate1s, rate10s, rate60s, engine, workers());
+        }
+        throw new IllegalStateException("Stats file continuously updated");
+    }
+
+    // each slot has a single writer, its values are read independently
+    private List<Worker> workers() {
+        int count = Math.min(buffer.getInt(WORKER_COUNT), buffer.getInt(MAX_WORKERS));
+        List<Worker> workers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int offset = HEADER_SIZE + i * WORKER_SIZE;
+            workers.add(new Worker(ascii(offset + WORKER_NAME, WORKER_NAME_SIZE), buffer.getLong(offset + WORKER_HASHES),
+                    buffer.getLong(offset + WORKER_BUSY), buffer.getLong(offset + WORKER_ACTIVE)));
+        }
+        return workers;
+    }
+
+    private String ascii(int offset, int size) {
+        byte[] bytes = new byte[size];
+        buffer.get(offset, bytes);
+        int length = 0;
+        while (length < size && bytes[length] != 0)
+            length++;
+        return new String(bytes, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length == 0) {
+            System.err.println("Usage : StatsFileReader <stats file> [interval ms] [samples]");
+            System.exit(1);
+        }
+        long interval = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+        long samples = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        StatsFileReader reader = new StatsFileReader(Path.of(args[0]));
+        for (long i = 0; samples == 0 || i < samples; i++) {
+            if (i > 0)
+                Thread.sleep(interval);
+            System.out.println(reader.read());
+        }
+    }
+
+}
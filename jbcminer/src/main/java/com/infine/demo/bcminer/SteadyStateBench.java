@@ -0,0 +1,225 @@
+package com.infine.demo.bcminer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.infine.demo.bcminer.jfr.FlightRecording;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Steady state measurement of a miner hash rate, {@link Bench} <code>-steady</code> mode.<br/>
+ * Each fork mines an unsolvable header for warmup iterations, then measured iterations, each one bounded by a duration
+ * or a number of hashes. Warmup iterations absorb the JIT compilation, and the miner creation (GPU program build) is
+ * never measured. Forks are separate JVMs, so JIT decisions and memory layout vary between forks like in JMH.<br/>
+ * Every iteration, and the final summary (mean, 95% confidence interval and coefficient of variation of the measured
+ * iterations), is printed as a JSON line.
+ */
+public final class SteadyStateBench {
+
+    public static final String STEADY_FLAG = "-steady";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * @param hashes iteration hash count, 0 to use the duration
+     */
+    public record Options(int warmup, int iterations, double seconds, long hashes, int forks) {
+        public static Options parse(String[] args) {
+            int warmup = 3, iterations = 5, forks = 1;
+            double seconds = 5;
+            long hashes = 0;
+            for (int i = 0; i + 1 < args.length; i++) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "-warmup" -> warmup = Integer.parseInt(value);
+                    case "-iterations" -> iterations = Integer.parseInt(value);
+                    case "-time" -> seconds = Double.parseDouble(value);
+                    case "-hashes" -> hashes = Long.parseLong(value);
+                    case "-forks" -> forks = Integer.parseInt(value);
+                    default -> {
+                        continue;
+                    }
+                }
+                i++;
+            }
+            if (iterations < 1)
+                throw new IllegalArgumentException("At least one measured iteration is required");
+            return new Options(warmup, iterations, seconds, hashes, forks);
+        }
+    }
+
+    public record Iteration(String type, int fork, int iteration, boolean warmup, long hashes, double seconds, double mhps) {
+        public Iteration(int fork, int iteration, boolean warmup, long hashes, double seconds) {
+            this("iteration", fork, iteration, warmup, hashes, seconds, seconds > 0 ? hashes * 1E-6 / seconds : 0);
+        }
+    }
+
+    public record Summary(String type, int forks, int samples, double mean, double ci95Low, double ci95High, double stddev,
+                          double cv) {
+    }
+
+    private SteadyStateBench() {
+    }
+
+    public static boolean isSteady(String[] args) {
+        return List.of(args).contains(STEADY_FLAG);
+    }
+
+    /**
+     * Run the forks, or the iterations in this JVM if forks is 0
+     *
+     * @param args the command line, forwarded to the forks
+     */
+    public static Summary run(Supplier<IMiner> supplier, String[] args) {
+        Options options = Options.parse(args);
+        List<Iteration> iterations = new ArrayList<>();
+        if (options.forks() == 0) {
+            try (IMiner miner = supplier.get()) {
+                iterations.addAll(iterate(miner, options, 0));
+            }
+        } else {
+            for (int fork = 0; fork < options.forks(); fork++)
+                iterations.addAll(fork(args, fork));
+        }
+        Summary summary = summary(iterations, Math.max(1, options.forks()));
+        System.out.println(toJson(summary));
+        return summary;
+    }
+
+    public static List<Iteration> iterate(IMiner miner, Options options, int fork) {
+        BlockHeader header = unsolvable(BlockHeader.testHeader());
+        List<Iteration> iterations = new ArrayList<>();
+        for (int i = 0; i < options.warmup() + options.iterations(); i++) {
+            Iteration iteration = iterate(miner, header, options, fork, i, i < options.warmup());
+            System.out.println(toJson(iteration));
+            iterations.add(iteration);
+        }
+        return iterations;
+    }
+
+    private static Iteration iterate(IMiner miner, BlockHeader header, Options options, int fork, int index, boolean warmup) {
+        MinerStats stats = miner.getStats();
+        long previousJob = stats.jobs();
+        long start = System.nanoTime();
+        CompletableFuture<Integer> future = CompletableFuture.supplyAsync(() -> miner.mine(header, 0));
+        long end = start + (long) (options.seconds() * 1E9);
+        try {
+            while (!future.isDone()) {
+                // until the job started, the stats are the previous job ones, and a cancel could be lost
+                boolean started = stats.jobs() != previousJob;
+                if (started && (options.hashes() > 0 ? stats.totalHashes() >= options.hashes() : System.nanoTime() >= end)) {
+                    miner.cancel();
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(options.hashes() > 0 ? 1 : Math.max(1, Math.min(10, (end - System.nanoTime()) / 1_000_000)));
+            }
+            future.join();
+        } catch (InterruptedException e) {
+            miner.cancel();
+            Thread.currentThread().interrupt();
+        }
+        double seconds = (System.nanoTime() - start) * 1E-9;
+        return new Iteration(fork, index, warmup, stats.totalHashes(), seconds);
+    }
+
+    /**
+     * Statistics of the measured iterations mhps
+     */
+    public static Summary summary(List<Iteration> iterations, int forks) {
+        double[] values = iterations.stream().filter(i -> !i.warmup()).mapToDouble(Iteration::mhps).toArray();
+        int n = values.length;
+        double mean = 0;
+        for (double v : values)
+            mean += v / n;
+        double variance = 0;
+        for (double v : values)
+            variance += (v - mean) * (v - mean);
+        double stddev = n > 1 ? Math.sqrt(variance / (n - 1)) : 0;
+        double halfWidth = n > 1 ? studentT95(n - 1) * stddev / Math.sqrt(n) : 0;
+        return new Summary("summary", forks, n, mean, mean - halfWidth, mean + halfWidth, stddev, mean > 0 ? stddev / mean : 0);
+    }
+
+    // two sided 95% Student t quantiles, by degrees of freedom
+    private static final double[] T95 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+
+    static double studentT95(int degreesOfFreedom) {
+        return degreesOfFreedom <= T95.length ? T95[degreesOfFreedom - 1] : 1.96;
+    }
+
+    /**
+     * @return a copy of the header with the smallest target : no nonce can match
+     */
+    public static BlockHeader unsolvable(BlockHeader header) {
+        int[] data = header.data().clone();
+        data[BlockHeader.NBITS] = Utils.flipEndianess(0x03000001);
+        return new BlockHeader(data);
+    }
+
+    // run a fork JVM with the same command line, without forks, and read back its iterations
+    private static List<Iteration> fork(String[] args, int fork) {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Bench.class.getName());
+        List<String> forkArgs = new ArrayList<>(List.of(args));
+        int forksIndex = forkArgs.indexOf("-forks");
+        if (forksIndex >= 0)
+            forkArgs.subList(forksIndex, Math.min(forkArgs.size(), forksIndex + 2)).clear();
+        // one recording per fork
+        int jfrIndex = forkArgs.indexOf(FlightRecording.JFR_OPTION);
+        if (jfrIndex >= 0 && jfrIndex + 1 < forkArgs.size())
+            forkArgs.set(jfrIndex + 1, forkArgs.get(jfrIndex + 1).replaceFirst("(\\.jfr)?$", "-fork" + fork + ".jfr"));
+        command.addAll(forkArgs);
+        command.add("-forks");
+        command.add("0");
+
+        List<Iteration> iterations = new ArrayList<>();
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.startsWith("{") || !line.contains("\"type\":\"iteration\""))
+                        continue;
+                    Iteration read = OBJECT_MAPPER.readValue(line, Iteration.class);
+                    Iteration iteration = new Iteration(fork, read.iteration(), read.warmup(), read.hashes(), read.seconds());
+                    System.out.println(toJson(iteration));
+                    iterations.add(iteration);
+                }
+            }
+            int status = process.waitFor();
+            if (status != 0)
+                throw new IllegalStateException("Fork " + fork + " failed with status " + status);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for fork " + fork, e);
+        }
+        return iterations;
+    }
+
+    static String toJson(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -12,6 +12,7 @@ import static com.infine.demo.bcminer.BlockHeader.*;
 @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.PUBLIC_ONLY)
 public class BlockChainResponse {
     public String hash;
+    public int height;
     @JsonDeserialize(using = UnsignedIntDeserializer.class)
     public int ver;
     public String prev_block;
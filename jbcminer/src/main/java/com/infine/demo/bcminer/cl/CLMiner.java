@@ -1,20 +1,27 @@
 package com.infine.demo.bcminer.cl;
 
+import com.infine.demo.bcminer.Allocations;
 import com.infine.demo.bcminer.Bench;
 import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
 import com.infine.demo.bcminer.IMiner;
+import com.infine.demo.bcminer.LeadingZeros;
 import com.infine.demo.bcminer.MinerOptions;
 import com.infine.demo.bcminer.MinerStats;
+import com.infine.demo.bcminer.ShareRing;
 import com.infine.demo.bcminer.cl.clsupport.CLContext;
 import com.infine.demo.bcminer.cl.clsupport.CLDevice;
 import com.infine.demo.bcminer.cl.clsupport.CLException;
 import com.infine.demo.bcminer.cl.clsupport.CLKernel;
 import com.infine.demo.bcminer.cl.clsupport.CLProgram;
 import com.infine.demo.bcminer.cl.clsupport.CLUtil;
+import com.infine.demo.bcminer.jfr.JobEvent;
+import com.infine.demo.bcminer.jfr.PassEvent;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.system.MemoryStack;
 
+import javax.annotation.Nullable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -74,6 +81,13 @@ public class CLMiner implements IMiner {
     private static final int GROUP_NONCES = 2;
     private static final int RESULT = 3;
     private static final int LOCAL_MATCHES = 4;
+    private static final int ZEROS = 5;
+    private static final int SHARE_DATA = 6;
+    private static final int SHARES = 7;
+    private static final int SHARE_CAPACITY = 8;
+
+    // shares kept by the device per pass in share mode, the overflow is counted as dropped
+    private static final int DEVICE_SHARES = 1024;
 
     private final int groupCount;
     private final int groupThreads;
@@ -87,6 +101,11 @@ public class CLMiner implements IMiner {
 
     private final MinerStats stats = new MinerStats();
 
+    private volatile boolean cancelled;
+
+    // java heap allocated by the host loop per pass, in the last mine
+    private volatile double allocatedBytesPerPass;
+
     public CLMiner(CLDevice device, int groupCount, int groupThreads, int groupNonces) {
         this.device = Objects.requireNonNull(device, "device is null");
         if (groupCount <= 0) {
@@ -113,11 +132,26 @@ public class CLMiner implements IMiner {
 
     @Override
     public Integer mine(BlockHeader header, int startNonce) {
+        return mineJob(header, startNonce, null, null);
+    }
+
+    /**
+     * Share mode : the kernel appends the shares to a device buffer, read back and offered to the ring after each pass
+     */
+    @Override
+    public Integer mine(BlockHeader header, int startNonce, HashPredicate share, ShareRing shares) {
+        return mineJob(header, startNonce, Objects.requireNonNull(share, "share is null"), Objects.requireNonNull(shares, "shares is null"));
+    }
+
+    private Integer mineJob(BlockHeader header, int startNonce, @Nullable HashPredicate share, @Nullable ShareRing shares) {
+        long setupStart = System.nanoTime();
+        JobEvent jobEvent = JobEvent.begin(OPTIONS.id(), startNonce);
+        Integer matchedNonce = null;
         try (MemoryStack stack = stackPush()) {
             IntBuffer errorBuffer = stack.mallocInt(1);
             PointerBuffer ptr = stack.mallocPointer(1);
             // prepare block data
-            ByteBuffer hostBuffer = stack.malloc(13 * Integer.BYTES);
+            ByteBuffer hostBuffer = stack.malloc(BlockHeader.DATA_INTS * Integer.BYTES);
             header.copyData(hostBuffer);
             long clBlockData = clCreateBuffer(context.id(), CL_MEM_READ_ONLY, hostBuffer.capacity(), null);
             check(clEnqueueWriteBuffer(queue, clBlockData, false, 0, hostBuffer, null, null));
@@ -127,10 +161,36 @@ public class CLMiner implements IMiner {
                     2 * Integer.BYTES, errorBuffer);
             check(errorBuffer.get(0));
 
+            // leading zeros histogram of the computed hashes
+            IntBuffer zerosBuffer = stack.callocInt(LeadingZeros.BINS);
+            IntBuffer reportedZeros = stack.callocInt(LeadingZeros.BINS);
+            long clZeros = clCreateBuffer(context.id(), CL_MEM_READ_WRITE | CL_MEM_COPY_HOST_PTR, zerosBuffer, errorBuffer);
+            check(errorBuffer.get(0));
+
+            // share predicate, disabled by a negative offset, and shares append buffer : count then nonces
+            ByteBuffer shareData = stack.calloc(HashPredicate.DATA_INTS * Integer.BYTES);
+            if (share != null) {
+                share.copyData(shareData);
+                shareData.flip();
+            } else {
+                shareData.putInt(0, -1);
+            }
+            long clShareData = clCreateBuffer(context.id(), CL_MEM_READ_ONLY | CL_MEM_COPY_HOST_PTR, shareData, errorBuffer);
+            check(errorBuffer.get(0));
+            int shareCapacity = share != null ? DEVICE_SHARES : 0;
+            IntBuffer sharesBuffer = stack.callocInt(1 + shareCapacity);
+            IntBuffer noShares = stack.callocInt(1);
+            long clShares = clCreateBuffer(context.id(), CL_MEM_READ_WRITE | CL_MEM_COPY_HOST_PTR, sharesBuffer, errorBuffer);
+            check(errorBuffer.get(0));
+
             int passNonces = groupCount * groupNonces;
             clSetKernelArg(kernel, GLOBAL_DATA, ptr.put(0, clBlockData));
-            clSetKernelArg(kernel, GROUP_NONCES, new int[]{groupNonces}); // nonces per workgroup
+            clSetKernelArg(kernel, GROUP_NONCES, stack.ints(groupNonces)); // nonces per workgroup
             clSetKernelArg(kernel, RESULT, ptr.put(0, clResult)); // result
+            clSetKernelArg(kernel, ZEROS, ptr.put(0, clZeros)); // leading zeros
+            clSetKernelArg(kernel, SHARE_DATA, ptr.put(0, clShareData));
+            clSetKernelArg(kernel, SHARES, ptr.put(0, clShares));
+            clSetKernelArg(kernel, SHARE_CAPACITY, stack.ints(shareCapacity));
             long groupSize = groupThreads;
             if (groupSize <= 0) {
                 check(clGetKernelWorkGroupInfo(kernel, device.id(), CL_KERNEL_WORK_GROUP_SIZE, ptr, null));
@@ -153,30 +213,76 @@ public class CLMiner implements IMiner {
             PointerBuffer event = stack.mallocPointer(1);
 
             int nonce = startNonce;
+            cancelled = false;
             stats.start();
-            while (stats.totalHashes() < 0xFFFFFFFFL) {
+            MinerStats.Counter deviceStats = stats.counter(device.name());
+            long passes = 0;
+            long allocatedBytes = Allocations.currentThread();
+            stats.setupLatency().record(System.nanoTime() - setupStart);
+            while (deviceStats.totalHashes() < 0xFFFFFFFFL && !cancelled) {
+                passes++;
+                PassEvent passEvent = new PassEvent();
+                passEvent.begin();
+                long passStart = System.nanoTime();
                 baseNonceBuffer.put(0, nonce);
                 clSetKernelArg(kernel, BASE_NONCE, baseNonceBuffer); // baseNonce
                 check(clEnqueueNDRangeKernel(queue, kernel, work_dim, null, gws, lws, null, event));
-                // read result
+                // read the leading zeros, then the result (in order queue)
+                check(clEnqueueReadBuffer(queue, clZeros, false, 0, zerosBuffer, event, null));
+                if (shares != null) {
+                    // then clear the device count for the next pass
+                    check(clEnqueueReadBuffer(queue, clShares, false, 0, sharesBuffer, event, null));
+                    check(clEnqueueWriteBuffer(queue, clShares, false, 0, noShares, null, null));
+                }
                 check(clEnqueueReadBuffer(queue, clResult, true, 0, resultsBuffer, event, null));
+                // counted by the device, whatever the pass hashes computed by the host
+                deviceStats.leadingZeros().addNew(zerosBuffer, reportedZeros);
+                if (shares != null)
+                    shares.offerAppended(sharesBuffer, shareCapacity);
                 if (resultsBuffer.get(0) != 0) {
                     int matched = resultsBuffer.get(1);
-                    stats.update((int) (Integer.toUnsignedLong(matched) - Integer.toUnsignedLong(nonce)));
+                    int nonces = (int) (Integer.toUnsignedLong(matched) - Integer.toUnsignedLong(nonce));
+                    long passNanos = System.nanoTime() - passStart;
+                    deviceStats.update(nonces, 0, passNanos);
+                    stats.passLatency().record(passNanos);
+                    stats.nonceFound();
+                    passEvent.end(deviceStats.name(), passes, nonce, nonces, true);
                     break;
                 }
-                stats.update(passNonces);
+                long passNanos = System.nanoTime() - passStart;
+                deviceStats.update(passNonces, 0, passNanos);
+                stats.passLatency().record(passNanos);
+                passEvent.end(deviceStats.name(), passes, nonce, passNonces, false);
                 nonce += passNonces;
             }
+            allocatedBytesPerPass = passes > 0 ? (double) (Allocations.currentThread() - allocatedBytes) / passes : 0;
 
+            clReleaseMemObject(clShares);
+            clReleaseMemObject(clShareData);
+            clReleaseMemObject(clZeros);
             clReleaseMemObject(clResult);
             clReleaseMemObject(clBlockData);
 
             if (resultsBuffer.get(0) != 0)
-                return resultsBuffer.get(1);
+                matchedNonce = resultsBuffer.get(1);
         }
+        jobEvent.end(matchedNonce, stats);
+        return matchedNonce;
+    }
+
+    /**
+     * @return java heap bytes allocated by the host loop per pass in the last mine, should be 0
+     */
+    public double allocatedBytesPerPass() {
+        return allocatedBytesPerPass;
+    }
 
-        return null;
+    /**
+     * Stop the running mine after the current pass
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
     }
 
     @Override
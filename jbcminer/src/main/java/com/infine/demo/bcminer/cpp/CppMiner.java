@@ -2,45 +2,253 @@ package com.infine.demo.bcminer.cpp;
 
 import com.infine.demo.bcminer.Bench;
 import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
 import com.infine.demo.bcminer.IMiner;
+import com.infine.demo.bcminer.LeadingZeros;
+import com.infine.demo.bcminer.MinerOptions;
 import com.infine.demo.bcminer.MinerStats;
-import org.lwjgl.system.MemoryStack;
+import com.infine.demo.bcminer.ShareRing;
+import com.infine.demo.bcminer.jfr.JobEvent;
 
+import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.LongBuffer;
+import java.util.List;
+import java.util.Objects;
 
+/**
+ * Native miner (cppminer library) : a pool of native threads hashing nonces from the
+ * {@link BlockHeader#copyData(ByteBuffer)} layout.<br/>
+ * The native engine is selected from the CPU features detected at startup, by preference : the SHA extensions
+ * (SHA-NI on x86, SHA2 on ARMv8), 8 nonces at once with AVX2, or scalar code. The selected engine is reported in the
+ * {@link MinerStats}.<br/>
+ * {@link #mine(BlockHeader, int)} blocks until the native workers are done, the native per thread counters are read
+ * live by {@link #getStats()}, one worker stats per native thread. Mining can be stopped from another thread with
+ * {@link #cancel()}.<br/>
+ * In share mode the native workers offer their shares directly to the {@link ShareRing}, with the same lock free
+ * protocol as the java producers.
+ */
 public class CppMiner implements IMiner {
 
+    public static final MinerOptions OPTIONS = new CppMinerOptions();
+
+    // select the best engine supported by the CPU
+    public static final String AUTO_ENGINE = "auto";
+
+    private static final class CppMinerOptions extends MinerOptions {
+        public final Option<Integer> threads;
+        public final Option<String> engine;
+
+        public CppMinerOptions() {
+            super("cpp");
+            threads = addInt("threads", "number of native mining threads", Runtime.getRuntime().availableProcessors());
+            engine = addString("engine", "native engine : auto, sha-ni, armv8-sha2, avx2 or scalar", AUTO_ENGINE);
+        }
+
+        @Override
+        public IMiner createMiner(ParsedOptions options) {
+            return new CppMiner(options.get(threads), options.get(engine));
+        }
+    }
+
+    private static boolean libraryLoaded;
+
     private final MinerStats stats = new MinerStats();
 
+    // direct buffers read and written by the native mine, in native order
+    private final ByteBuffer dataBuffer = ByteBuffer.allocateDirect(BlockHeader.DATA_INTS * Integer.BYTES).order(ByteOrder.nativeOrder());
+    private final ByteBuffer shareBuffer = ByteBuffer.allocateDirect(HashPredicate.DATA_INTS * Integer.BYTES).order(ByteOrder.nativeOrder());
+    private final LongBuffer resultBuffer = ByteBuffer.allocateDirect(Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+
+    // native miner, read by the native methods, destroyed and reset under the stats lock
+    private volatile long handle;
+
+    private final int threads;
+    private final String engine;
+
+    // native worker counters, and values already reported to stats
+    private final long[] workerHashes;
+    private final long[] workerBusyNanos;
+    private final long[] reportedHashes;
+    private final long[] reportedBusyNanos;
+    // LeadingZeros.BINS counts per native thread
+    private final long[] workerZeros;
+    private final long[] reportedZeros;
+    private MinerStats.Counter[] workerStats;
+
+    public CppMiner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public CppMiner(int threads) {
+        this(threads, AUTO_ENGINE);
+    }
+
+    /**
+     * @param engine native engine name, or {@link #AUTO_ENGINE}
+     * @throws IllegalArgumentException if the engine is unknown or not supported by the CPU
+     */
+    public CppMiner(int threads, String engine) {
+        loadLibrary();
+        handle = create(threads, engine.toLowerCase());
+        if (handle == 0)
+            throw new IllegalArgumentException("Unsupported native engine " + engine + ", supported engines : " + supportedEngines());
+        this.threads = threadCount(handle);
+        this.workerHashes = new long[this.threads];
+        this.workerBusyNanos = new long[this.threads];
+        this.reportedHashes = new long[this.threads];
+        this.reportedBusyNanos = new long[this.threads];
+        this.workerZeros = new long[this.threads * LeadingZeros.BINS];
+        this.reportedZeros = new long[this.threads * LeadingZeros.BINS];
+        this.engine = engineName(handle);
+        stats.engine(this.engine);
+    }
+
+    /**
+     * @return the selected native engine name
+     */
+    public String engine() {
+        return engine;
+    }
+
+    /**
+     * @return the native engines supported by this CPU, by preference order
+     */
+    public static List<String> supportedEngines() {
+        loadLibrary();
+        return List.of(supportedEngines0());
+    }
+
     @Override
     public MinerStats getStats() {
+        updateStats();
         return stats;
     }
 
     @Override
     public Integer mine(BlockHeader header, int startNonce) {
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            ByteBuffer dataBuffer = stack.malloc(13 * Integer.BYTES);
-            header.copyData(dataBuffer);
-            LongBuffer resultBuffer = stack.mallocLong(1);
-            mine(dataBuffer, startNonce, resultBuffer);
-            long totalHashes = getTotalHashes();
-            System.out.println(totalHashes);
-            long result = resultBuffer.get(0);
-            if (result < 0)
-                return null;
-            return (int) result;
+        return mineJob(header, startNonce, null, null);
+    }
+
+    /**
+     * Share mode : the native workers hash with the share predicate and offer the shares directly to the ring buffer
+     */
+    @Override
+    public Integer mine(BlockHeader header, int startNonce, HashPredicate share, ShareRing shares) {
+        return mineJob(header, startNonce, Objects.requireNonNull(share, "share is null"), Objects.requireNonNull(shares, "shares is null"));
+    }
+
+    private synchronized Integer mineJob(BlockHeader header, int startNonce, @Nullable HashPredicate share, @Nullable ShareRing shares) {
+        if (handle == 0)
+            throw new IllegalStateException("CppMiner is closed");
+        long setupStart = System.nanoTime();
+        System.out.printf("Starting CppMiner with %d threads using %s engine%n", threads, engine);
+        JobEvent jobEvent = JobEvent.begin(OPTIONS.id(), startNonce);
+        dataBuffer.clear();
+        header.copyData(dataBuffer);
+        if (share != null) {
+            shareBuffer.clear();
+            share.copyData(shareBuffer);
+        }
+        synchronized (stats) {
+            getWorkerStats(reportedHashes, reportedBusyNanos);
+            getLeadingZeros(reportedZeros);
+            // under the lock of cancel : a cancel once the job stats started is never lost
+            startJob0();
+            stats.start();
+            workerStats = new MinerStats.Counter[threads];
+            for (int i = 0; i < threads; i++)
+                workerStats[i] = stats.counter("cppminer-" + i);
+        }
+        stats.setupLatency().record(System.nanoTime() - setupStart);
+        mine(dataBuffer, startNonce, share == null ? null : shareBuffer, shares == null ? null : shares.buffer(), resultBuffer);
+        updateStats();
+        long result = resultBuffer.get(0);
+        Integer matched = result < 0 ? null : (int) result;
+        if (matched != null)
+            stats.nonceFound();
+        jobEvent.end(matched, stats);
+        return matched;
+    }
+
+    /**
+     * Stop the running {@link #mine(BlockHeader, int)}, the native workers stop after their current chunk of nonces. A
+     * cancel issued once the job stats started stops the job, even before the native workers are woken up.
+     */
+    @Override
+    public void cancel() {
+        // not while close destroys the native miner
+        synchronized (stats) {
+            if (handle != 0)
+                cancel0();
         }
     }
 
-    native long getTotalHashes();
+    @Override
+    public void close() {
+        cancel();
+        synchronized (this) {
+            synchronized (stats) {
+                if (handle != 0) {
+                    destroy(handle);
+                    handle = 0;
+                }
+            }
+        }
+    }
+
+    private void updateStats() {
+        synchronized (stats) {
+            if (handle == 0 || workerStats == null)
+                return;
+            getWorkerStats(workerHashes, workerBusyNanos);
+            getLeadingZeros(workerZeros);
+            for (int i = 0; i < threads; i++) {
+                for (int bits = 0; bits < LeadingZeros.BINS; bits++) {
+                    int j = i * LeadingZeros.BINS + bits;
+                    workerStats[i].leadingZeros().add(bits, workerZeros[j] - reportedZeros[j]);
+                    reportedZeros[j] = workerZeros[j];
+                }
+                workerStats[i].update((int) (workerHashes[i] - reportedHashes[i]), 0, workerBusyNanos[i] - reportedBusyNanos[i]);
+                reportedHashes[i] = workerHashes[i];
+                reportedBusyNanos[i] = workerBusyNanos[i];
+            }
+        }
+    }
+
+    private static synchronized void loadLibrary() {
+        if (!libraryLoaded) {
+            System.loadLibrary("cppminer");
+            libraryLoaded = true;
+        }
+    }
+
+    private static native long create(int threads, String engine);
+
+    private static native String engineName(long handle);
+
+    private static native String[] supportedEngines0();
+
+    private static native int threadCount(long handle);
+
+    private static native void destroy(long handle);
+
+    // fill the hashes and busy time of each native thread
+    native void getWorkerStats(long[] hashes, long[] busyNanos);
+
+    // fill the leading zeros histograms of the native threads, LeadingZeros.BINS counts per thread
+    native void getLeadingZeros(long[] zeros);
+
+    // share and shares are null, or the HashPredicate.copyData of the share predicate and the ShareRing buffer
+    native void mine(ByteBuffer data, int startNonce, @Nullable ByteBuffer share, @Nullable ByteBuffer shares, LongBuffer result);
+
+    // clear the cancellation, before the native mine
+    private native void startJob0();
 
-    native void mine(ByteBuffer data, int startNonce, LongBuffer result);
+    private native void cancel0();
 
     public static void main(String[] args) throws InterruptedException {
-        Runtime runtime = Runtime.getRuntime();
-        runtime.loadLibrary("cppminer");
         Bench.start(CppMiner::new, -1);
     }
 }
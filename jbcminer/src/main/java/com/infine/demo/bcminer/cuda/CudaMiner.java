@@ -1,10 +1,16 @@
 package com.infine.demo.bcminer.cuda;
 
+import com.infine.demo.bcminer.Allocations;
 import com.infine.demo.bcminer.Bench;
 import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
 import com.infine.demo.bcminer.IMiner;
+import com.infine.demo.bcminer.LeadingZeros;
 import com.infine.demo.bcminer.MinerOptions;
 import com.infine.demo.bcminer.MinerStats;
+import com.infine.demo.bcminer.ShareRing;
+import com.infine.demo.bcminer.jfr.JobEvent;
+import com.infine.demo.bcminer.jfr.PassEvent;
 import org.lwjgl.PointerBuffer;
 import org.lwjgl.cuda.CU;
 import org.lwjgl.cuda.CUDA;
@@ -12,6 +18,7 @@ import org.lwjgl.system.Configuration;
 import org.lwjgl.system.MemoryStack;
 import org.lwjgl.system.MemoryUtil;
 
+import javax.annotation.Nullable;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -22,6 +29,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static org.lwjgl.cuda.CU.*;
@@ -62,8 +70,16 @@ public class CudaMiner implements IMiner {
 
     private static final boolean SHOW_PTX = false;
 
+    // shares kept by the device per pass in share mode, the overflow is counted as dropped
+    private static final int DEVICE_SHARES = 1024;
+
     private final Device device;
     private final MinerStats stats = new MinerStats();
+
+    private volatile boolean cancelled;
+
+    // java heap allocated by the host loop per pass, in the last mine
+    private volatile double allocatedBytesPerPass;
     private final Kernel kernel;
     private long ctx;
 
@@ -72,6 +88,10 @@ public class CudaMiner implements IMiner {
     private int groupNonces;
     private double maxSecs = Double.MAX_VALUE;
 
+    public CudaMiner(int deviceIndex, int gridSize, int blockSize, int groupNonces) {
+        this(deviceIndex, gridSize, blockSize, groupNonces, false);
+    }
+
     public CudaMiner(int deviceIndex, int gridSize, int blockSize, int groupNonces, boolean dumpInfo) {
         this.gridSize = gridSize;
         this.blockSize = blockSize;
@@ -90,13 +110,27 @@ public class CudaMiner implements IMiner {
 
     @Override
     public Integer mine(BlockHeader header, int startNonce) {
+        return mineJob(header, startNonce, null, null);
+    }
+
+    /**
+     * Share mode : the kernel appends the shares to a device buffer, read back and offered to the ring after each pass
+     */
+    @Override
+    public Integer mine(BlockHeader header, int startNonce, HashPredicate share, ShareRing shares) {
+        return mineJob(header, startNonce, Objects.requireNonNull(share, "share is null"), Objects.requireNonNull(shares, "shares is null"));
+    }
+
+    private Integer mineJob(BlockHeader header, int startNonce, @Nullable HashPredicate share, @Nullable ShareRing shares) {
         check(cuCtxSetCurrent(ctx));
+        long setupStart = System.nanoTime();
+        JobEvent jobEvent = JobEvent.begin(OPTIONS.id(), startNonce);
         try (MemoryStack stack = stackPush()) {
             PointerBuffer pp = stack.pointers(0);
             //noinspection ConstantValue
             if (dumpInfo) dumpKernelInfo(kernel.function());
 
-            ByteBuffer hostDataBuffer = stack.malloc(13 * Integer.BYTES);
+            ByteBuffer hostDataBuffer = stack.malloc(BlockHeader.DATA_INTS * Integer.BYTES);
             header.copyData(hostDataBuffer);
 
             check(cuMemAlloc(pp, hostDataBuffer.capacity()));
@@ -108,12 +142,39 @@ public class CudaMiner implements IMiner {
             IntBuffer nonceCount = stack.ints(groupNonces);
             check(cuMemAlloc(pp, 2 * Integer.BYTES));
             long deviceResult = pp.get(0);
+            // leading zeros histogram of the computed hashes
+            check(cuMemAlloc(pp, LeadingZeros.BINS * Integer.BYTES));
+            long deviceZeros = pp.get(0);
+            check(cuMemsetD32(deviceZeros, 0, LeadingZeros.BINS));
+            IntBuffer hostZeros = stack.callocInt(LeadingZeros.BINS);
+            IntBuffer reportedZeros = stack.callocInt(LeadingZeros.BINS);
+
+            // share predicate, disabled by a negative offset, and shares append buffer : count then nonces
+            ByteBuffer hostShareData = stack.calloc(HashPredicate.DATA_INTS * Integer.BYTES);
+            if (share != null) {
+                share.copyData(hostShareData);
+                hostShareData.flip();
+            } else {
+                hostShareData.putInt(0, -1);
+            }
+            check(cuMemAlloc(pp, hostShareData.capacity()));
+            long deviceShareData = pp.get(0);
+            check(cuMemcpyHtoD(deviceShareData, hostShareData));
+            int shareCapacity = share != null ? DEVICE_SHARES : 0;
+            check(cuMemAlloc(pp, (1 + shareCapacity) * Integer.BYTES));
+            long deviceShares = pp.get(0);
+            check(cuMemsetD32(deviceShares, 0, 1));
+            IntBuffer hostShares = stack.callocInt(1 + shareCapacity);
 
             PointerBuffer params = stack.pointers(
                     memAddress(stack.longs(deviceData)),
                     memAddress(baseNonce),
                     memAddress(nonceCount),
-                    memAddress(stack.longs(deviceResult))
+                    memAddress(stack.longs(deviceResult)),
+                    memAddress(stack.longs(deviceZeros)),
+                    memAddress(stack.longs(deviceShareData)),
+                    memAddress(stack.longs(deviceShares)),
+                    memAddress(stack.ints(shareCapacity))
             );
 
             System.out.println("Starting cuda miner");
@@ -121,8 +182,17 @@ public class CudaMiner implements IMiner {
 
             IntBuffer hostResult = stack.ints(0, 0);
             int nonce = startNonce;
+            cancelled = false;
             stats.start();
-            while (stats.totalHashes() < 0xFFFFFFFFL) {
+            MinerStats.Counter deviceStats = stats.counter("cuda:" + device.device());
+            long passes = 0;
+            long allocatedBytes = Allocations.currentThread();
+            stats.setupLatency().record(System.nanoTime() - setupStart);
+            while (deviceStats.totalHashes() < 0xFFFFFFFFL && !cancelled) {
+                passes++;
+                PassEvent passEvent = new PassEvent();
+                passEvent.begin();
+                long passStart = System.nanoTime();
                 baseNonce.put(0, nonce);
                 check(cuLaunchKernel(kernel.function, gridSize, 1, 1, // grid dim
                         blockSize, 1, 1, // block dim
@@ -131,24 +201,60 @@ public class CudaMiner implements IMiner {
                 cuCtxSynchronize();
                 // read result
                 check(cuMemcpyDtoH(hostResult, deviceResult));
+                // counted by the device, whatever the pass hashes computed by the host
+                check(cuMemcpyDtoH(hostZeros, deviceZeros));
+                deviceStats.leadingZeros().addNew(hostZeros, reportedZeros);
+                if (shares != null) {
+                    check(cuMemcpyDtoH(hostShares, deviceShares));
+                    check(cuMemsetD32(deviceShares, 0, 1));
+                    shares.offerAppended(hostShares, shareCapacity);
+                }
                 if (hostResult.get(0) != 0) {
                     int matched = hostResult.get(1);
-                    stats.update((int) (Integer.toUnsignedLong(matched) - Integer.toUnsignedLong(nonce)));
+                    int nonces = (int) (Integer.toUnsignedLong(matched) - Integer.toUnsignedLong(nonce));
+                    long passNanos = System.nanoTime() - passStart;
+                    deviceStats.update(nonces, 0, passNanos);
+                    stats.passLatency().record(passNanos);
+                    stats.nonceFound();
+                    passEvent.end(deviceStats.name(), passes, nonce, nonces, true);
                     break;
                 }
-                stats.update(passNonces);
+                long passNanos = System.nanoTime() - passStart;
+                deviceStats.update(passNonces, 0, passNanos);
+                stats.passLatency().record(passNanos);
+                passEvent.end(deviceStats.name(), passes, nonce, passNonces, false);
                 if (stats.totalTime() > maxSecs)
                     break;
                 nonce += passNonces;
             }
+            allocatedBytesPerPass = passes > 0 ? (double) (Allocations.currentThread() - allocatedBytes) / passes : 0;
 
             Integer matchedNonce = hostResult.get(0) != 0 ? hostResult.get(1) : null;
             cuMemFree(deviceData);
             cuMemFree(deviceResult);
+            cuMemFree(deviceZeros);
+            cuMemFree(deviceShareData);
+            cuMemFree(deviceShares);
+            jobEvent.end(matchedNonce, stats);
             return matchedNonce;
         }
     }
 
+    /**
+     * @return java heap bytes allocated by the host loop per pass in the last mine, should be 0
+     */
+    public double allocatedBytesPerPass() {
+        return allocatedBytesPerPass;
+    }
+
+    /**
+     * Stop the running mine after the current pass
+     */
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
     @Override
     public void close() {
         if (ctx != NULL) {
@@ -0,0 +1,325 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.LeadingZeros;
+
+import java.nio.ByteBuffer;
+
+import static com.infine.demo.bcminer.java.Sha256.BLOCK_INTS;
+import static com.infine.demo.bcminer.java.Sha256.BUFFER_INTS;
+import static com.infine.demo.bcminer.java.Sha256.DEFAULT_H;
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static com.infine.demo.bcminer.java.Sha256.K;
+
+/**
+ * Bit-sliced double sha-256 {@link NonceHasher}, hashing {@link #LANES} nonces at once.<br/>
+ * Every 32 bits word is stored as 32 longs, long j holding the bit j of the word for each of the 64 nonces : rotations
+ * and shifts are index renames, ch/maj/xor are plain long logic operations and additions are ripple carry adders.
+ * <br/>
+ * The hasher only needs the midstate and the header tail of the {@link BlockHeader#copyData(ByteBuffer)} layout used by
+ * the native and GPU miners, and use the same early reject on the last hash word as {@link UnrolledHasher} (all lanes
+ * must be rejected to skip the last rounds).
+ */
+final class BitslicedHasher implements NonceHasher {
+
+    static final int LANES = Long.SIZE;
+
+    private static final int BITS = Integer.SIZE;
+
+    private final int[] midstate = new int[H_INTS];
+    private final HashPredicate predicate;
+    private final int topMask;
+
+    // bit sliced message schedules and working variables, word i at i * BITS
+    private final long[] w1 = new long[BUFFER_INTS * BITS];
+    private final long[] w2 = new long[BUFFER_INTS * BITS];
+    private final long[] state = new long[H_INTS * BITS];
+    private final long[] lastWord = new long[BITS];
+
+    private final int[] hash = new int[H_INTS];
+
+    private long earlyRejected;
+    // leading zeros of the hashed nonces, including the lanes beyond the count of a scan
+    private final LeadingZeros leadingZeros = new LeadingZeros();
+
+    BitslicedHasher(BlockHeader header) {
+        this(header, header.hashPredicate());
+    }
+
+    /**
+     * @param predicate the hash predicate, the header one or a share predicate
+     */
+    BitslicedHasher(BlockHeader header, HashPredicate predicate) {
+        this(copyData(header, predicate));
+    }
+
+    /**
+     * @param data the {@link BlockHeader#copyData(ByteBuffer)} of the mined header
+     */
+    BitslicedHasher(ByteBuffer data) {
+        for (int i = 0; i < H_INTS; i++)
+            midstate[i] = data.getInt((3 + i) * Integer.BYTES);
+        int[] target = new int[H_INTS];
+        for (int i = 0; i < H_INTS; i++)
+            target[i] = data.getInt((BlockHeader.DATA_TARGET + i) * Integer.BYTES);
+        predicate = new HashPredicate(data.getInt(11 * Integer.BYTES), data.getInt(12 * Integer.BYTES), target);
+        topMask = predicate.wordMask(H_INTS - 1);
+
+        // header second chunk : merkle root last int, time, nbits, nonce and padding
+        fill(w1, 0, data.getInt(0));
+        fill(w1, 1, data.getInt(Integer.BYTES));
+        fill(w1, 2, data.getInt(2 * Integer.BYTES));
+        fill(w1, 4, 0x80000000);
+        fill(w1, BLOCK_INTS - 1, 640);
+        // W16 and W17 do not depend on the nonce
+        expand(w1, 16, 18);
+
+        // second hash padding
+        fill(w2, H_INTS, 0x80000000);
+        fill(w2, BLOCK_INTS - 1, 256);
+    }
+
+    private static ByteBuffer copyData(BlockHeader header, HashPredicate predicate) {
+        ByteBuffer data = ByteBuffer.allocate(BlockHeader.DATA_INTS * Integer.BYTES);
+        header.copyData(data);
+        // the predicate replaces the header one, from [11]
+        data.position(11 * Integer.BYTES);
+        predicate.copyData(data);
+        return data;
+    }
+
+    @Override
+    public boolean test(int nonce) {
+        return scan(nonce, 1, 1) == 0;
+    }
+
+    @Override
+    public int scan(int nonce, int stride, int count) {
+        for (int i = 0; i < count; i += LANES) {
+            int lanes = Math.min(LANES, count - i);
+            long inRange = lanes == LANES ? -1L : (1L << lanes) - 1;
+            long candidates = hash(nonce + i * stride, stride, topMask) & inRange;
+            earlyRejected += lanes - Long.bitCount(candidates);
+            while (candidates != 0) {
+                int lane = Long.numberOfTrailingZeros(candidates);
+                if (predicate.test(hash(lane)))
+                    return i + lane;
+                candidates &= candidates - 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long earlyRejected() {
+        return earlyRejected;
+    }
+
+    @Override
+    public LeadingZeros leadingZeros() {
+        return leadingZeros;
+    }
+
+    /**
+     * Compute the full double sha-256 of LANES nonces : nonce + lane * stride, see {@link #hash(int)}
+     */
+    void hash(int nonce, int stride) {
+        hash(nonce, stride, 0);
+    }
+
+    /**
+     * @return the last computed hash of a lane
+     */
+    int[] hash(int lane) {
+        for (int i = 0; i < H_INTS; i++)
+            hash[i] = DEFAULT_H[i] + extract(state, i, lane);
+        return hash;
+    }
+
+    /**
+     * Hash LANES nonces : nonce + lane * stride.
+     *
+     * @param topMask mask of the last hash word bits that must be 0
+     * @return the lanes bits not rejected early by the topMask, the state is fully computed only if any
+     */
+    private long hash(int nonce, int stride, int topMask) {
+        long[] w1 = this.w1, w2 = this.w2, state = this.state, lastWord = this.lastWord;
+
+        // transpose the nonces in W3
+        int offset = 3 * BITS;
+        for (int j = 0; j < BITS; j++)
+            w1[offset + j] = 0;
+        for (int lane = 0; lane < LANES; lane++) {
+            int word = Integer.reverseBytes(nonce + lane * stride);
+            for (int j = 0; j < BITS; j++)
+                w1[offset + j] |= (long) (word >>> j & 1) << lane;
+        }
+        expand(w1, 18, BUFFER_INTS);
+
+        // first hash
+        for (int i = 0; i < H_INTS; i++)
+            fill(state, i, midstate[i]);
+        for (int i = 0; i < BUFFER_INTS; i++)
+            round(state, i, w1);
+        for (int i = 0; i < H_INTS; i++)
+            add(w2, i, state, slot(i, BUFFER_INTS), midstate[i]);
+        expand(w2, BLOCK_INTS, BUFFER_INTS);
+
+        // second hash, up to round 60
+        for (int i = 0; i < H_INTS; i++)
+            fill(state, i, DEFAULT_H[i]);
+        for (int i = 0; i <= 60; i++)
+            round(state, i, w2);
+
+        // round 60 e is the final h : hash[7] = H7 + h
+        add(lastWord, 0, state, slot(4, 61), DEFAULT_H[7]);
+        long nonZero = 0;
+        for (int j = 0; j < LeadingZeros.MIN_BITS; j++)
+            nonZero |= lastWord[j];
+        for (long zeros = ~nonZero; zeros != 0; zeros &= zeros - 1)
+            leadingZeros.record(extract(lastWord, 0, Long.numberOfTrailingZeros(zeros)));
+        long rejected = 0;
+        for (int j = 0; j < BITS; j++) {
+            if ((topMask >>> j & 1) != 0)
+                rejected |= lastWord[j];
+        }
+        if (rejected == -1L)
+            return 0;
+
+        for (int i = 61; i < BUFFER_INTS; i++)
+            round(state, i, w2);
+        return ~rejected;
+    }
+
+    /**
+     * Offset in the state of the working variable index (0 for a, 7 for h) before round i : instead of shifting the
+     * variables, a round write the new a in the h slot and the new e in the d slot.
+     */
+    private static int slot(int index, int round) {
+        return ((index - round) & 7) * BITS;
+    }
+
+    /**
+     * Sha-256 round i, 7 additions sharing a single pass over the bits, one carry per addition.
+     */
+    private static void round(long[] s, int i, long[] w) {
+        int a = slot(0, i), b = slot(1, i), c = slot(2, i), d = slot(3, i);
+        int e = slot(4, i), f = slot(5, i), g = slot(6, i), h = slot(7, i);
+        int k = K[i], wo = i * BITS;
+        long c1 = 0, c2 = 0, c3 = 0, c4 = 0, c5 = 0, c6 = 0, c7 = 0;
+        long x, y, t;
+        for (int j = 0; j < BITS; j++) {
+            long ej = s[e + j], fj = s[f + j], gj = s[g + j];
+            long s1 = s[e + (j + 6 & 31)] ^ s[e + (j + 11 & 31)] ^ s[e + (j + 25 & 31)];
+            long aj = s[a + j], bj = s[b + j], cj = s[c + j];
+            long s0 = s[a + (j + 2 & 31)] ^ s[a + (j + 13 & 31)] ^ s[a + (j + 22 & 31)];
+
+            // T1 = h + S1(e) + ch(e, f, g) + K[i] + W[i]
+            x = s[h + j];
+            t = x ^ s1;
+            long t1 = t ^ c1;
+            c1 = x & s1 | c1 & t;
+            x = t1;
+            y = gj ^ ej & (fj ^ gj);
+            t = x ^ y;
+            t1 = t ^ c2;
+            c2 = x & y | c2 & t;
+            x = t1;
+            y = bit(k, j);
+            t = x ^ y;
+            t1 = t ^ c3;
+            c3 = x & y | c3 & t;
+            x = t1;
+            y = w[wo + j];
+            t = x ^ y;
+            t1 = t ^ c4;
+            c4 = x & y | c4 & t;
+
+            // T2 = S0(a) + maj(a, b, c)
+            y = aj & bj | cj & (aj | bj);
+            t = s0 ^ y;
+            long t2 = t ^ c5;
+            c5 = s0 & y | c5 & t;
+
+            // e = d + T1
+            x = s[d + j];
+            t = x ^ t1;
+            s[d + j] = t ^ c6;
+            c6 = x & t1 | c6 & t;
+
+            // a = T1 + T2
+            t = t1 ^ t2;
+            s[h + j] = t ^ c7;
+            c7 = t1 & t2 | c7 & t;
+        }
+    }
+
+    /**
+     * W[i] = gamma1(W[i - 2]) + W[i - 7] + gamma0(W[i - 15]) + W[i - 16] for i in [from, to[
+     */
+    private static void expand(long[] w, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int w2 = (i - 2) * BITS, w7 = (i - 7) * BITS, w15 = (i - 15) * BITS, w16 = (i - 16) * BITS, wo = i * BITS;
+            long c1 = 0, c2 = 0, c3 = 0;
+            long x, y, t;
+            for (int j = 0; j < BITS; j++) {
+                long g1 = w[w2 + (j + 17 & 31)] ^ w[w2 + (j + 19 & 31)] ^ (j + 10 < BITS ? w[w2 + j + 10] : 0);
+                long g0 = w[w15 + (j + 7 & 31)] ^ w[w15 + (j + 18 & 31)] ^ (j + 3 < BITS ? w[w15 + j + 3] : 0);
+                x = w[w7 + j];
+                t = g1 ^ x;
+                long sum = t ^ c1;
+                c1 = g1 & x | c1 & t;
+                t = sum ^ g0;
+                x = sum;
+                sum = t ^ c2;
+                c2 = x & g0 | c2 & t;
+                x = sum;
+                y = w[w16 + j];
+                t = x ^ y;
+                sum = t ^ c3;
+                c3 = x & y | c3 & t;
+                w[wo + j] = sum;
+            }
+        }
+    }
+
+    /**
+     * dst word = src word + value
+     */
+    private static void add(long[] dst, int dstIndex, long[] src, int srcOffset, int value) {
+        int dstOffset = dstIndex * BITS;
+        long carry = 0;
+        for (int j = 0; j < BITS; j++) {
+            long x = src[srcOffset + j], y = bit(value, j), t = x ^ y;
+            dst[dstOffset + j] = t ^ carry;
+            carry = x & y | carry & t;
+        }
+    }
+
+    /**
+     * @return the word value of a lane
+     */
+    private static int extract(long[] words, int index, int lane) {
+        int offset = index * BITS, word = 0;
+        for (int j = 0; j < BITS; j++)
+            word |= (int) (words[offset + j] >>> lane & 1) << j;
+        return word;
+    }
+
+    /**
+     * Broadcast a constant word to all lanes
+     */
+    private static void fill(long[] words, int index, int value) {
+        int offset = index * BITS;
+        for (int j = 0; j < BITS; j++)
+            words[offset + j] = bit(value, j);
+    }
+
+    /**
+     * @return the bit j of value broadcast to all lanes
+     */
+    private static long bit(int value, int j) {
+        return -(long) (value >>> j & 1);
+    }
+}
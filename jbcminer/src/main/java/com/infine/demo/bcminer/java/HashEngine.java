@@ -0,0 +1,67 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+
+import java.util.List;
+
+/**
+ * Double sha-256 implementation used by {@link JavaMiner} workers.<br/>
+ * The engine create one {@link NonceHasher} per worker for each mined header.
+ */
+public interface HashEngine {
+
+    String SCALAR = "scalar";
+    String UNROLLED = "unrolled";
+    String VECTOR = "vector";
+    String BITSLICED = "bitsliced";
+    String INTERLEAVED = "interleaved";
+    String SPECIALIZED = "specialized";
+
+    int DEFAULT_INTERLEAVE = 2;
+
+    List<String> NAMES = List.of(SCALAR, UNROLLED, VECTOR, BITSLICED, INTERLEAVED, SPECIALIZED);
+
+    /**
+     * @param header      the mined header
+     * @param precomputed the header {@link Sha256#precompute(int[], BlockHeader) precomputed} values, starting with
+     *                    the midstate. Shared by all workers, must not be modified
+     * @param predicate   the header hash predicate
+     */
+    NonceHasher createHasher(BlockHeader header, int[] precomputed, HashPredicate predicate);
+
+    static HashEngine forName(String name) {
+        return forName(name, DEFAULT_INTERLEAVE);
+    }
+
+    /**
+     * @param interleave the number of nonces hashed together by the {@link #INTERLEAVED} engine, ignored by others
+     */
+    static HashEngine forName(String name, int interleave) {
+        return switch (name.toLowerCase()) {
+            case SCALAR -> ScalarHasher::new;
+            case UNROLLED -> UnrolledHasher::new;
+            case VECTOR -> vector();
+            case BITSLICED -> (header, precomputed, predicate) -> new BitslicedHasher(header, predicate);
+            case INTERLEAVED -> InterleavedHasher.engine(interleave);
+            case SPECIALIZED -> new SpecializedEngine();
+            default -> throw new IllegalArgumentException("Unknown hash engine " + name + ", must be one of " + NAMES);
+        };
+    }
+
+    /**
+     * {@link VectorHasher} if the vector module is available with a wide enough species, {@link UnrolledHasher} otherwise
+     */
+    private static HashEngine vector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            System.err.println("jdk.incubator.vector module not available (run with --add-modules jdk.incubator.vector), using " + UNROLLED + " engine");
+            return UnrolledHasher::new;
+        }
+        if (VectorHasher.LANES < VectorHasher.MIN_LANES) {
+            System.err.printf("Only %d int lanes available, using %s engine%n", VectorHasher.LANES, UNROLLED);
+            return UnrolledHasher::new;
+        }
+        return VectorHasher::new;
+    }
+
+}
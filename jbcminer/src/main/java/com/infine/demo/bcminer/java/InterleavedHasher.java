@@ -0,0 +1,926 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.LeadingZeros;
+
+import static com.infine.demo.bcminer.java.Sha256.BUFFER_INTS;
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static com.infine.demo.bcminer.java.Sha256.K;
+import static com.infine.demo.bcminer.java.Sha256.PRE_MIDSTATE;
+import static com.infine.demo.bcminer.java.Sha256.PRE_STATE;
+import static com.infine.demo.bcminer.java.Sha256.PRE_T1;
+import static com.infine.demo.bcminer.java.Sha256.PRE_T2;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W16;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W17;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W18;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W19;
+import static java.lang.Integer.rotateRight;
+
+/**
+ * Double sha-256 {@link NonceHasher} hashing 2 to 4 nonces in the same loop body.<br/>
+ * The sha-256 rounds are a single dependency chain, each interleaved nonce has its own set of local working
+ * variables, giving an out of order core independent instructions to overlap. Unlike {@link VectorHasher}, this only
+ * relies on plain scalar code.<br/>
+ * Message schedules are stored nonce major (word i of nonce l at i * factor + l), the rounds start from the
+ * {@link Sha256#precompute(int[], BlockHeader) precomputed} state and use the same early reject on the last hash word
+ * as {@link UnrolledHasher} (all interleaved nonces must be rejected to skip the last rounds).<br/>
+ * The factor specific classes are generated, with the sigma, ch and maj functions written inline.
+ */
+abstract class InterleavedHasher implements NonceHasher {
+
+    static final int MIN_FACTOR = 2, MAX_FACTOR = 4;
+
+    private static final int H0 = 0x6A09E667, H1 = 0xBB67AE85, H2 = 0x3C6EF372, H3 = 0xA54FF53A,
+            H4 = 0x510E527F, H5 = 0x9B05688C, H6 = 0x1F83D9AB, H7 = 0x5BE0CD19;
+
+    static HashEngine engine(int factor) {
+        return switch (factor) {
+            case 2 -> Interleave2::new;
+            case 3 -> Interleave3::new;
+            case 4 -> Interleave4::new;
+            default -> throw new IllegalArgumentException("Invalid interleave factor " + factor + ", must be in [" + MIN_FACTOR + ", " + MAX_FACTOR + "]");
+        };
+    }
+
+    final int factor;
+    final int[] precomputed;
+    final int[] w1, w2;
+    // hashes of the last interleaved nonces, nonce major
+    final int[] hash;
+    // leading zeros of the hashed nonces, including the lanes beyond the count of a scan
+    final LeadingZeros leadingZeros = new LeadingZeros();
+
+    private final HashPredicate predicate;
+    private final int topMask;
+    private final int[] laneHash = new int[H_INTS];
+
+    private long earlyRejected;
+
+    InterleavedHasher(int factor, BlockHeader header, int[] precomputed, HashPredicate predicate) {
+        this.factor = factor;
+        this.precomputed = precomputed;
+        this.predicate = predicate;
+        topMask = predicate.wordMask(H_INTS - 1);
+        w1 = new int[BUFFER_INTS * factor];
+        w2 = new int[BUFFER_INTS * factor];
+        hash = new int[H_INTS * factor];
+
+        int[] data = header.data();
+        for (int l = 0; l < factor; l++) {
+            w1[l] = data[BlockHeader.TIME - 1];
+            w1[factor + l] = data[BlockHeader.TIME];
+            w1[2 * factor + l] = data[BlockHeader.NBITS];
+            w1[4 * factor + l] = 0x80000000;
+            w1[15 * factor + l] = 640;
+            w1[16 * factor + l] = precomputed[PRE_W16];
+            w1[17 * factor + l] = precomputed[PRE_W17];
+            w2[H_INTS * factor + l] = 0x80000000;
+            w2[15 * factor + l] = 256;
+        }
+    }
+
+    @Override
+    public boolean test(int nonce) {
+        return scan(nonce, 1, 1) == 0;
+    }
+
+    @Override
+    public int scan(int nonce, int stride, int count) {
+        for (int i = 0; i < count; i += factor) {
+            int lanes = Math.min(factor, count - i);
+            int candidates = hash(nonce + i * stride, stride, topMask) & (1 << lanes) - 1;
+            earlyRejected += lanes - Integer.bitCount(candidates);
+            while (candidates != 0) {
+                int lane = Integer.numberOfTrailingZeros(candidates);
+                if (predicate.test(hash(lane)))
+                    return i + lane;
+                candidates &= candidates - 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long earlyRejected() {
+        return earlyRejected;
+    }
+
+    @Override
+    public LeadingZeros leadingZeros() {
+        return leadingZeros;
+    }
+
+    /**
+     * Compute the full double sha-256 of factor nonces : nonce + lane * stride, see {@link #hash(int)}
+     */
+    void hash(int nonce, int stride) {
+        hash(nonce, stride, 0);
+    }
+
+    /**
+     * @return the last computed hash of an interleaved nonce
+     */
+    int[] hash(int lane) {
+        for (int i = 0; i < H_INTS; i++)
+            laneHash[i] = hash[i * factor + lane];
+        return laneHash;
+    }
+
+    /**
+     * Hash factor nonces : nonce + lane * stride.
+     *
+     * @param topMask mask of the last hash word bits that must be 0
+     * @return the lanes bits not rejected early by the topMask, {@link #hash} is computed only if any
+     */
+    abstract int hash(int nonce, int stride, int topMask);
+
+    private static final class Interleave2 extends InterleavedHasher {
+
+        Interleave2(BlockHeader header, int[] precomputed, HashPredicate predicate) {
+            super(2, header, precomputed, predicate);
+        }
+
+        @Override
+        int hash(int nonce, int stride, int topMask) {
+            int[] w1 = this.w1, w2 = this.w2, pre = precomputed;
+            int n0 = Integer.reverseBytes(nonce);
+            int n1 = Integer.reverseBytes(nonce + stride);
+            w1[6] = n0;
+            w1[36] = pre[PRE_W18] + (rotateRight(n0, 7) ^ rotateRight(n0, 18) ^ n0 >>> 3);
+            w1[38] = pre[PRE_W19] + n0;
+            w1[7] = n1;
+            w1[37] = pre[PRE_W18] + (rotateRight(n1, 7) ^ rotateRight(n1, 18) ^ n1 >>> 3);
+            w1[39] = pre[PRE_W19] + n1;
+            for (int i = 20; i < BUFFER_INTS; i++) {
+                int o = i * 2;
+                int x0 = w1[o - 4], y0 = w1[o - 30];
+                int x1 = w1[o - 3], y1 = w1[o - 29];
+                w1[o] = (rotateRight(x0, 17) ^ rotateRight(x0, 19) ^ x0 >>> 10) + w1[o - 14] + (rotateRight(y0, 7) ^ rotateRight(y0, 18) ^ y0 >>> 3) + w1[o - 32];
+                w1[o + 1] = (rotateRight(x1, 17) ^ rotateRight(x1, 19) ^ x1 >>> 10) + w1[o - 13] + (rotateRight(y1, 7) ^ rotateRight(y1, 18) ^ y1 >>> 3) + w1[o - 31];
+            }
+
+            // first hash, from round 3 of the precomputed state
+            int a0 = pre[PRE_STATE], a1 = pre[PRE_STATE];
+            int b0 = pre[PRE_STATE + 1], b1 = pre[PRE_STATE + 1];
+            int c0 = pre[PRE_STATE + 2], c1 = pre[PRE_STATE + 2];
+            int d0 = pre[PRE_STATE + 3], d1 = pre[PRE_STATE + 3];
+            int e0 = pre[PRE_STATE + 4], e1 = pre[PRE_STATE + 4];
+            int f0 = pre[PRE_STATE + 5], f1 = pre[PRE_STATE + 5];
+            int g0 = pre[PRE_STATE + 6], g1 = pre[PRE_STATE + 6];
+            int h0 = pre[PRE_STATE + 7], h1 = pre[PRE_STATE + 7];
+            int k = 0;
+            int t10 = pre[PRE_T1] + n0;
+            int t11 = pre[PRE_T1] + n1;
+            h0 = g0;
+            g0 = f0;
+            f0 = e0;
+            e0 = d0 + t10;
+            d0 = c0;
+            c0 = b0;
+            b0 = a0;
+            a0 = t10 + pre[PRE_T2];
+            h1 = g1;
+            g1 = f1;
+            f1 = e1;
+            e1 = d1 + t11;
+            d1 = c1;
+            c1 = b1;
+            b1 = a1;
+            a1 = t11 + pre[PRE_T2];
+            for (int i = 4; i < BUFFER_INTS; i++) {
+                k = K[i];
+                int o = i * 2;
+                t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w1[o];
+                int t20 = (rotateRight(a0, 2) ^ rotateRight(a0, 13) ^ rotateRight(a0, 22)) + (a0 & b0 | c0 & (a0 | b0));
+                t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w1[o + 1];
+                int t21 = (rotateRight(a1, 2) ^ rotateRight(a1, 13) ^ rotateRight(a1, 22)) + (a1 & b1 | c1 & (a1 | b1));
+                h0 = g0;
+                g0 = f0;
+                f0 = e0;
+                e0 = d0 + t10;
+                d0 = c0;
+                c0 = b0;
+                b0 = a0;
+                a0 = t10 + t20;
+                h1 = g1;
+                g1 = f1;
+                f1 = e1;
+                e1 = d1 + t11;
+                d1 = c1;
+                c1 = b1;
+                b1 = a1;
+                a1 = t11 + t21;
+            }
+            w2[0] = pre[PRE_MIDSTATE] + a0;
+            w2[1] = pre[PRE_MIDSTATE] + a1;
+            w2[2] = pre[PRE_MIDSTATE + 1] + b0;
+            w2[3] = pre[PRE_MIDSTATE + 1] + b1;
+            w2[4] = pre[PRE_MIDSTATE + 2] + c0;
+            w2[5] = pre[PRE_MIDSTATE + 2] + c1;
+            w2[6] = pre[PRE_MIDSTATE + 3] + d0;
+            w2[7] = pre[PRE_MIDSTATE + 3] + d1;
+            w2[8] = pre[PRE_MIDSTATE + 4] + e0;
+            w2[9] = pre[PRE_MIDSTATE + 4] + e1;
+            w2[10] = pre[PRE_MIDSTATE + 5] + f0;
+            w2[11] = pre[PRE_MIDSTATE + 5] + f1;
+            w2[12] = pre[PRE_MIDSTATE + 6] + g0;
+            w2[13] = pre[PRE_MIDSTATE + 6] + g1;
+            w2[14] = pre[PRE_MIDSTATE + 7] + h0;
+            w2[15] = pre[PRE_MIDSTATE + 7] + h1;
+            for (int i = 16; i < BUFFER_INTS; i++) {
+                int o = i * 2;
+                int x0 = w2[o - 4], y0 = w2[o - 30];
+                int x1 = w2[o - 3], y1 = w2[o - 29];
+                w2[o] = (rotateRight(x0, 17) ^ rotateRight(x0, 19) ^ x0 >>> 10) + w2[o - 14] + (rotateRight(y0, 7) ^ rotateRight(y0, 18) ^ y0 >>> 3) + w2[o - 32];
+                w2[o + 1] = (rotateRight(x1, 17) ^ rotateRight(x1, 19) ^ x1 >>> 10) + w2[o - 13] + (rotateRight(y1, 7) ^ rotateRight(y1, 18) ^ y1 >>> 3) + w2[o - 31];
+            }
+
+            // second hash, up to round 60
+            a0 = a1 = H0;
+            b0 = b1 = H1;
+            c0 = c1 = H2;
+            d0 = d1 = H3;
+            e0 = e1 = H4;
+            f0 = f1 = H5;
+            g0 = g1 = H6;
+            h0 = h1 = H7;
+            for (int i = 0; i < 60; i++) {
+                k = K[i];
+                int o = i * 2;
+                t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w2[o];
+                int t20 = (rotateRight(a0, 2) ^ rotateRight(a0, 13) ^ rotateRight(a0, 22)) + (a0 & b0 | c0 & (a0 | b0));
+                t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w2[o + 1];
+                int t21 = (rotateRight(a1, 2) ^ rotateRight(a1, 13) ^ rotateRight(a1, 22)) + (a1 & b1 | c1 & (a1 | b1));
+                h0 = g0;
+                g0 = f0;
+                f0 = e0;
+                e0 = d0 + t10;
+                d0 = c0;
+                c0 = b0;
+                b0 = a0;
+                a0 = t10 + t20;
+                h1 = g1;
+                g1 = f1;
+                f1 = e1;
+                e1 = d1 + t11;
+                d1 = c1;
+                c1 = b1;
+                b1 = a1;
+                a1 = t11 + t21;
+            }
+
+            // round 60 e is the final h : hash[7] = H7 + h
+            k = K[60];
+            int survivors = 0;
+            t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w2[120];
+            int h70 = d0 + t10 + H7;
+            leadingZeros.record(h70);
+            if ((h70 & topMask) == 0) survivors |= 1;
+            t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w2[121];
+            int h71 = d1 + t11 + H7;
+            leadingZeros.record(h71);
+            if ((h71 & topMask) == 0) survivors |= 2;
+            if (survivors == 0)
+                return 0;
+
+            for (int i = 60; i < BUFFER_INTS; i++) {
+                k = K[i];
+                int o = i * 2;
+                if (i > 60) {
+                    t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w2[o];
+                    t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w2[o + 1];
+                }
+                int t20 = (rotateRight(a0, 2) ^ rotateRight(a0, 13) ^ rotateRight(a0, 22)) + (a0 & b0 | c0 & (a0 | b0));
+                int t21 = (rotateRight(a1, 2) ^ rotateRight(a1, 13) ^ rotateRight(a1, 22)) + (a1 & b1 | c1 & (a1 | b1));
+                h0 = g0;
+                g0 = f0;
+                f0 = e0;
+                e0 = d0 + t10;
+                d0 = c0;
+                c0 = b0;
+                b0 = a0;
+                a0 = t10 + t20;
+                h1 = g1;
+                g1 = f1;
+                f1 = e1;
+                e1 = d1 + t11;
+                d1 = c1;
+                c1 = b1;
+                b1 = a1;
+                a1 = t11 + t21;
+            }
+            int[] hash = this.hash;
+            hash[0] = H0 + a0;
+            hash[1] = H0 + a1;
+            hash[2] = H1 + b0;
+            hash[3] = H1 + b1;
+            hash[4] = H2 + c0;
+            hash[5] = H2 + c1;
+            hash[6] = H3 + d0;
+            hash[7] = H3 + d1;
+            hash[8] = H4 + e0;
+            hash[9] = H4 + e1;
+            hash[10] = H5 + f0;
+            hash[11] = H5 + f1;
+            hash[12] = H6 + g0;
+            hash[13] = H6 + g1;
+            hash[14] = H7 + h0;
+            hash[15] = H7 + h1;
+            return survivors;
+        }
+    }
+
+    private static final class Interleave3 extends InterleavedHasher {
+
+        Interleave3(BlockHeader header, int[] precomputed, HashPredicate predicate) {
+            super(3, header, precomputed, predicate);
+        }
+
+        @Override
+        int hash(int nonce, int stride, int topMask) {
+            int[] w1 = this.w1, w2 = this.w2, pre = precomputed;
+            int n0 = Integer.reverseBytes(nonce);
+            int n1 = Integer.reverseBytes(nonce + stride);
+            int n2 = Integer.reverseBytes(nonce + 2 * stride);
+            w1[9] = n0;
+            w1[54] = pre[PRE_W18] + (rotateRight(n0, 7) ^ rotateRight(n0, 18) ^ n0 >>> 3);
+            w1[57] = pre[PRE_W19] + n0;
+            w1[10] = n1;
+            w1[55] = pre[PRE_W18] + (rotateRight(n1, 7) ^ rotateRight(n1, 18) ^ n1 >>> 3);
+            w1[58] = pre[PRE_W19] + n1;
+            w1[11] = n2;
+            w1[56] = pre[PRE_W18] + (rotateRight(n2, 7) ^ rotateRight(n2, 18) ^ n2 >>> 3);
+            w1[59] = pre[PRE_W19] + n2;
+            for (int i = 20; i < BUFFER_INTS; i++) {
+                int o = i * 3;
+                int x0 = w1[o - 6], y0 = w1[o - 45];
+                int x1 = w1[o - 5], y1 = w1[o - 44];
+                int x2 = w1[o - 4], y2 = w1[o - 43];
+                w1[o] = (rotateRight(x0, 17) ^ rotateRight(x0, 19) ^ x0 >>> 10) + w1[o - 21] + (rotateRight(y0, 7) ^ rotateRight(y0, 18) ^ y0 >>> 3) + w1[o - 48];
+                w1[o + 1] = (rotateRight(x1, 17) ^ rotateRight(x1, 19) ^ x1 >>> 10) + w1[o - 20] + (rotateRight(y1, 7) ^ rotateRight(y1, 18) ^ y1 >>> 3) + w1[o - 47];
+                w1[o + 2] = (rotateRight(x2, 17) ^ rotateRight(x2, 19) ^ x2 >>> 10) + w1[o - 19] + (rotateRight(y2, 7) ^ rotateRight(y2, 18) ^ y2 >>> 3) + w1[o - 46];
+            }
+
+            // first hash, from round 3 of the precomputed state
+            int a0 = pre[PRE_STATE], a1 = pre[PRE_STATE], a2 = pre[PRE_STATE];
+            int b0 = pre[PRE_STATE + 1], b1 = pre[PRE_STATE + 1], b2 = pre[PRE_STATE + 1];
+            int c0 = pre[PRE_STATE + 2], c1 = pre[PRE_STATE + 2], c2 = pre[PRE_STATE + 2];
+            int d0 = pre[PRE_STATE + 3], d1 = pre[PRE_STATE + 3], d2 = pre[PRE_STATE + 3];
+            int e0 = pre[PRE_STATE + 4], e1 = pre[PRE_STATE + 4], e2 = pre[PRE_STATE + 4];
+            int f0 = pre[PRE_STATE + 5], f1 = pre[PRE_STATE + 5], f2 = pre[PRE_STATE + 5];
+            int g0 = pre[PRE_STATE + 6], g1 = pre[PRE_STATE + 6], g2 = pre[PRE_STATE + 6];
+            int h0 = pre[PRE_STATE + 7], h1 = pre[PRE_STATE + 7], h2 = pre[PRE_STATE + 7];
+            int k = 0;
+            int t10 = pre[PRE_T1] + n0;
+            int t11 = pre[PRE_T1] + n1;
+            int t12 = pre[PRE_T1] + n2;
+            h0 = g0;
+            g0 = f0;
+            f0 = e0;
+            e0 = d0 + t10;
+            d0 = c0;
+            c0 = b0;
+            b0 = a0;
+            a0 = t10 + pre[PRE_T2];
+            h1 = g1;
+            g1 = f1;
+            f1 = e1;
+            e1 = d1 + t11;
+            d1 = c1;
+            c1 = b1;
+            b1 = a1;
+            a1 = t11 + pre[PRE_T2];
+            h2 = g2;
+            g2 = f2;
+            f2 = e2;
+            e2 = d2 + t12;
+            d2 = c2;
+            c2 = b2;
+            b2 = a2;
+            a2 = t12 + pre[PRE_T2];
+            for (int i = 4; i < BUFFER_INTS; i++) {
+                k = K[i];
+                int o = i * 3;
+                t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w1[o];
+                int t20 = (rotateRight(a0, 2) ^ rotateRight(a0, 13) ^ rotateRight(a0, 22)) + (a0 & b0 | c0 & (a0 | b0));
+                t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w1[o + 1];
+                int t21 = (rotateRight(a1, 2) ^ rotateRight(a1, 13) ^ rotateRight(a1, 22)) + (a1 & b1 | c1 & (a1 | b1));
+                t12 = h2 + (rotateRight(e2, 6) ^ rotateRight(e2, 11) ^ rotateRight(e2, 25)) + (g2 ^ e2 & (f2 ^ g2)) + k + w1[o + 2];
+                int t22 = (rotateRight(a2, 2) ^ rotateRight(a2, 13) ^ rotateRight(a2, 22)) + (a2 & b2 | c2 & (a2 | b2));
+                h0 = g0;
+                g0 = f0;
+                f0 = e0;
+                e0 = d0 + t10;
+                d0 = c0;
+                c0 = b0;
+                b0 = a0;
+                a0 = t10 + t20;
+                h1 = g1;
+                g1 = f1;
+                f1 = e1;
+                e1 = d1 + t11;
+                d1 = c1;
+                c1 = b1;
+                b1 = a1;
+                a1 = t11 + t21;
+                h2 = g2;
+                g2 = f2;
+                f2 = e2;
+                e2 = d2 + t12;
+                d2 = c2;
+                c2 = b2;
+                b2 = a2;
+                a2 = t12 + t22;
+            }
+            w2[0] = pre[PRE_MIDSTATE] + a0;
+            w2[1] = pre[PRE_MIDSTATE] + a1;
+            w2[2] = pre[PRE_MIDSTATE] + a2;
+            w2[3] = pre[PRE_MIDSTATE + 1] + b0;
+            w2[4] = pre[PRE_MIDSTATE + 1] + b1;
+            w2[5] = pre[PRE_MIDSTATE + 1] + b2;
+            w2[6] = pre[PRE_MIDSTATE + 2] + c0;
+            w2[7] = pre[PRE_MIDSTATE + 2] + c1;
+            w2[8] = pre[PRE_MIDSTATE + 2] + c2;
+            w2[9] = pre[PRE_MIDSTATE + 3] + d0;
+            w2[10] = pre[PRE_MIDSTATE + 3] + d1;
+            w2[11] = pre[PRE_MIDSTATE + 3] + d2;
+            w2[12] = pre[PRE_MIDSTATE + 4] + e0;
+            w2[13] = pre[PRE_MIDSTATE + 4] + e1;
+            w2[14] = pre[PRE_MIDSTATE + 4] + e2;
+            w2[15] = pre[PRE_MIDSTATE + 5] + f0;
+            w2[16] = pre[PRE_MIDSTATE + 5] + f1;
+            w2[17] = pre[PRE_MIDSTATE + 5] + f2;
+            w2[18] = pre[PRE_MIDSTATE + 6] + g0;
+            w2[19] = pre[PRE_MIDSTATE + 6] + g1;
+            w2[20] = pre[PRE_MIDSTATE + 6] + g2;
+            w2[21] = pre[PRE_MIDSTATE + 7] + h0;
+            w2[22] = pre[PRE_MIDSTATE + 7] + h1;
+            w2[23] = pre[PRE_MIDSTATE + 7] + h2;
+            for (int i = 16; i < BUFFER_INTS; i++) {
+                int o = i * 3;
+                int x0 = w2[o - 6], y0 = w2[o - 45];
+                int x1 = w2[o - 5], y1 = w2[o - 44];
+                int x2 = w2[o - 4], y2 = w2[o - 43];
+                w2[o] = (rotateRight(x0, 17) ^ rotateRight(x0, 19) ^ x0 >>> 10) + w2[o - 21] + (rotateRight(y0, 7) ^ rotateRight(y0, 18) ^ y0 >>> 3) + w2[o - 48];
+                w2[o + 1] = (rotateRight(x1, 17) ^ rotateRight(x1, 19) ^ x1 >>> 10) + w2[o - 20] + (rotateRight(y1, 7) ^ rotateRight(y1, 18) ^ y1 >>> 3) + w2[o - 47];
+                w2[o + 2] = (rotateRight(x2, 17) ^ rotateRight(x2, 19) ^ x2 >>> 10) + w2[o - 19] + (rotateRight(y2, 7) ^ rotateRight(y2, 18) ^ y2 >>> 3) + w2[o - 46];
+            }
+
+            // second hash, up to round 60
+            a0 = a1 = a2 = H0;
+            b0 = b1 = b2 = H1;
+            c0 = c1 = c2 = H2;
+            d0 = d1 = d2 = H3;
+            e0 = e1 = e2 = H4;
+            f0 = f1 = f2 = H5;
+            g0 = g1 = g2 = H6;
+            h0 = h1 = h2 = H7;
+            for (int i = 0; i < 60; i++) {
+                k = K[i];
+                int o = i * 3;
+                t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w2[o];
+                int t20 = (rotateRight(a0, 2) ^ rotateRight(a0, 13) ^ rotateRight(a0, 22)) + (a0 & b0 | c0 & (a0 | b0));
+                t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w2[o + 1];
+                int t21 = (rotateRight(a1, 2) ^ rotateRight(a1, 13) ^ rotateRight(a1, 22)) + (a1 & b1 | c1 & (a1 | b1));
+                t12 = h2 + (rotateRight(e2, 6) ^ rotateRight(e2, 11) ^ rotateRight(e2, 25)) + (g2 ^ e2 & (f2 ^ g2)) + k + w2[o + 2];
+                int t22 = (rotateRight(a2, 2) ^ rotateRight(a2, 13) ^ rotateRight(a2, 22)) + (a2 & b2 | c2 & (a2 | b2));
+                h0 = g0;
+                g0 = f0;
+                f0 = e0;
+                e0 = d0 + t10;
+                d0 = c0;
+                c0 = b0;
+                b0 = a0;
+                a0 = t10 + t20;
+                h1 = g1;
+                g1 = f1;
+                f1 = e1;
+                e1 = d1 + t11;
+                d1 = c1;
+                c1 = b1;
+                b1 = a1;
+                a1 = t11 + t21;
+                h2 = g2;
+                g2 = f2;
+                f2 = e2;
+                e2 = d2 + t12;
+                d2 = c2;
+                c2 = b2;
+                b2 = a2;
+                a2 = t12 + t22;
+            }
+
+            // round 60 e is the final h : hash[7] = H7 + h
+            k = K[60];
+            int survivors = 0;
+            t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w2[180];
+            int h70 = d0 + t10 + H7;
+            leadingZeros.record(h70);
+            if ((h70 & topMask) == 0) survivors |= 1;
+            t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w2[181];
+            int h71 = d1 + t11 + H7;
+            leadingZeros.record(h71);
+            if ((h71 & topMask) == 0) survivors |= 2;
+            t12 = h2 + (rotateRight(e2, 6) ^ rotateRight(e2, 11) ^ rotateRight(e2, 25)) + (g2 ^ e2 & (f2 ^ g2)) + k + w2[182];
+            int h72 = d2 + t12 + H7;
+            leadingZeros.record(h72);
+            if ((h72 & topMask) == 0) survivors |= 4;
+            if (survivors == 0)
+                return 0;
+
+            for (int i = 60; i < BUFFER_INTS; i++) {
+                k = K[i];
+                int o = i * 3;
+                if (i > 60) {
+                    t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w2[o];
+                    t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w2[o + 1];
+                    t12 = h2 + (rotateRight(e2, 6) ^ rotateRight(e2, 11) ^ rotateRight(e2, 25)) + (g2 ^ e2 & (f2 ^ g2)) + k + w2[o + 2];
+                }
+                int t20 = (rotateRight(a0, 2) ^ rotateRight(a0, 13) ^ rotateRight(a0, 22)) + (a0 & b0 | c0 & (a0 | b0));
+                int t21 = (rotateRight(a1, 2) ^ rotateRight(a1, 13) ^ rotateRight(a1, 22)) + (a1 & b1 | c1 & (a1 | b1));
+                int t22 = (rotateRight(a2, 2) ^ rotateRight(a2, 13) ^ rotateRight(a2, 22)) + (a2 & b2 | c2 & (a2 | b2));
+                h0 = g0;
+                g0 = f0;
+                f0 = e0;
+                e0 = d0 + t10;
+                d0 = c0;
+                c0 = b0;
+                b0 = a0;
+                a0 = t10 + t20;
+                h1 = g1;
+                g1 = f1;
+                f1 = e1;
+                e1 = d1 + t11;
+                d1 = c1;
+                c1 = b1;
+                b1 = a1;
+                a1 = t11 + t21;
+                h2 = g2;
+                g2 = f2;
+                f2 = e2;
+                e2 = d2 + t12;
+                d2 = c2;
+                c2 = b2;
+                b2 = a2;
+                a2 = t12 + t22;
+            }
+            int[] hash = this.hash;
+            hash[0] = H0 + a0;
+            hash[1] = H0 + a1;
+            hash[2] = H0 + a2;
+            hash[3] = H1 + b0;
+            hash[4] = H1 + b1;
+            hash[5] = H1 + b2;
+            hash[6] = H2 + c0;
+            hash[7] = H2 + c1;
+            hash[8] = H2 + c2;
+            hash[9] = H3 + d0;
+            hash[10] = H3 + d1;
+            hash[11] = H3 + d2;
+            hash[12] = H4 + e0;
+            hash[13] = H4 + e1;
+            hash[14] = H4 + e2;
+            hash[15] = H5 + f0;
+            hash[16] = H5 + f1;
+            hash[17] = H5 + f2;
+            hash[18] = H6 + g0;
+            hash[19] = H6 + g1;
+            hash[20] = H6 + g2;
+            hash[21] = H7 + h0;
+            hash[22] = H7 + h1;
+            hash[23] = H7 + h2;
+            return survivors;
+        }
+    }
+
+    private static final class Interleave4 extends InterleavedHasher {
+
+        Interleave4(BlockHeader header, int[] precomputed, HashPredicate predicate) {
+            super(4, header, precomputed, predicate);
+        }
+
+        @Override
+        int hash(int nonce, int stride, int topMask) {
+            int[] w1 = this.w1, w2 = this.w2, pre = precomputed;
+            int n0 = Integer.reverseBytes(nonce);
+            int n1 = Integer.reverseBytes(nonce + stride);
+            int n2 = Integer.reverseBytes(nonce + 2 * stride);
+            int n3 = Integer.reverseBytes(nonce + 3 * stride);
+            w1[12] = n0;
+            w1[72] = pre[PRE_W18] + (rotateRight(n0, 7) ^ rotateRight(n0, 18) ^ n0 >>> 3);
+            w1[76] = pre[PRE_W19] + n0;
+            w1[13] = n1;
+            w1[73] = pre[PRE_W18] + (rotateRight(n1, 7) ^ rotateRight(n1, 18) ^ n1 >>> 3);
+            w1[77] = pre[PRE_W19] + n1;
+            w1[14] = n2;
+            w1[74] = pre[PRE_W18] + (rotateRight(n2, 7) ^ rotateRight(n2, 18) ^ n2 >>> 3);
+            w1[78] = pre[PRE_W19] + n2;
+            w1[15] = n3;
+            w1[75] = pre[PRE_W18] + (rotateRight(n3, 7) ^ rotateRight(n3, 18) ^ n3 >>> 3);
+            w1[79] = pre[PRE_W19] + n3;
+            for (int i = 20; i < BUFFER_INTS; i++) {
+                int o = i * 4;
+                int x0 = w1[o - 8], y0 = w1[o - 60];
+                int x1 = w1[o - 7], y1 = w1[o - 59];
+                int x2 = w1[o - 6], y2 = w1[o - 58];
+                int x3 = w1[o - 5], y3 = w1[o - 57];
+                w1[o] = (rotateRight(x0, 17) ^ rotateRight(x0, 19) ^ x0 >>> 10) + w1[o - 28] + (rotateRight(y0, 7) ^ rotateRight(y0, 18) ^ y0 >>> 3) + w1[o - 64];
+                w1[o + 1] = (rotateRight(x1, 17) ^ rotateRight(x1, 19) ^ x1 >>> 10) + w1[o - 27] + (rotateRight(y1, 7) ^ rotateRight(y1, 18) ^ y1 >>> 3) + w1[o - 63];
+                w1[o + 2] = (rotateRight(x2, 17) ^ rotateRight(x2, 19) ^ x2 >>> 10) + w1[o - 26] + (rotateRight(y2, 7) ^ rotateRight(y2, 18) ^ y2 >>> 3) + w1[o - 62];
+                w1[o + 3] = (rotateRight(x3, 17) ^ rotateRight(x3, 19) ^ x3 >>> 10) + w1[o - 25] + (rotateRight(y3, 7) ^ rotateRight(y3, 18) ^ y3 >>> 3) + w1[o - 61];
+            }
+
+            // first hash, from round 3 of the precomputed state
+            int a0 = pre[PRE_STATE], a1 = pre[PRE_STATE], a2 = pre[PRE_STATE], a3 = pre[PRE_STATE];
+            int b0 = pre[PRE_STATE + 1], b1 = pre[PRE_STATE + 1], b2 = pre[PRE_STATE + 1], b3 = pre[PRE_STATE + 1];
+            int c0 = pre[PRE_STATE + 2], c1 = pre[PRE_STATE + 2], c2 = pre[PRE_STATE + 2], c3 = pre[PRE_STATE + 2];
+            int d0 = pre[PRE_STATE + 3], d1 = pre[PRE_STATE + 3], d2 = pre[PRE_STATE + 3], d3 = pre[PRE_STATE + 3];
+            int e0 = pre[PRE_STATE + 4], e1 = pre[PRE_STATE + 4], e2 = pre[PRE_STATE + 4], e3 = pre[PRE_STATE + 4];
+            int f0 = pre[PRE_STATE + 5], f1 = pre[PRE_STATE + 5], f2 = pre[PRE_STATE + 5], f3 = pre[PRE_STATE + 5];
+            int g0 = pre[PRE_STATE + 6], g1 = pre[PRE_STATE + 6], g2 = pre[PRE_STATE + 6], g3 = pre[PRE_STATE + 6];
+            int h0 = pre[PRE_STATE + 7], h1 = pre[PRE_STATE + 7], h2 = pre[PRE_STATE + 7], h3 = pre[PRE_STATE + 7];
+            int k = 0;
+            int t10 = pre[PRE_T1] + n0;
+            int t11 = pre[PRE_T1] + n1;
+            int t12 = pre[PRE_T1] + n2;
+            int t13 = pre[PRE_T1] + n3;
+            h0 = g0;
+            g0 = f0;
+            f0 = e0;
+            e0 = d0 + t10;
+            d0 = c0;
+            c0 = b0;
+            b0 = a0;
+            a0 = t10 + pre[PRE_T2];
+            h1 = g1;
+            g1 = f1;
+            f1 = e1;
+            e1 = d1 + t11;
+            d1 = c1;
+            c1 = b1;
+            b1 = a1;
+            a1 = t11 + pre[PRE_T2];
+            h2 = g2;
+            g2 = f2;
+            f2 = e2;
+            e2 = d2 + t12;
+            d2 = c2;
+            c2 = b2;
+            b2 = a2;
+            a2 = t12 + pre[PRE_T2];
+            h3 = g3;
+            g3 = f3;
+            f3 = e3;
+            e3 = d3 + t13;
+            d3 = c3;
+            c3 = b3;
+            b3 = a3;
+            a3 = t13 + pre[PRE_T2];
+            for (int i = 4; i < BUFFER_INTS; i++) {
+                k = K[i];
+                int o = i * 4;
+                t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w1[o];
+                int t20 = (rotateRight(a0, 2) ^ rotateRight(a0, 13) ^ rotateRight(a0, 22)) + (a0 & b0 | c0 & (a0 | b0));
+                t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w1[o + 1];
+                int t21 = (rotateRight(a1, 2) ^ rotateRight(a1, 13) ^ rotateRight(a1, 22)) + (a1 & b1 | c1 & (a1 | b1));
+                t12 = h2 + (rotateRight(e2, 6) ^ rotateRight(e2, 11) ^ rotateRight(e2, 25)) + (g2 ^ e2 & (f2 ^ g2)) + k + w1[o + 2];
+                int t22 = (rotateRight(a2, 2) ^ rotateRight(a2, 13) ^ rotateRight(a2, 22)) + (a2 & b2 | c2 & (a2 | b2));
+                t13 = h3 + (rotateRight(e3, 6) ^ rotateRight(e3, 11) ^ rotateRight(e3, 25)) + (g3 ^ e3 & (f3 ^ g3)) + k + w1[o + 3];
+                int t23 = (rotateRight(a3, 2) ^ rotateRight(a3, 13) ^ rotateRight(a3, 22)) + (a3 & b3 | c3 & (a3 | b3));
+                h0 = g0;
+                g0 = f0;
+                f0 = e0;
+                e0 = d0 + t10;
+                d0 = c0;
+                c0 = b0;
+                b0 = a0;
+                a0 = t10 + t20;
+                h1 = g1;
+                g1 = f1;
+                f1 = e1;
+                e1 = d1 + t11;
+                d1 = c1;
+                c1 = b1;
+                b1 = a1;
+                a1 = t11 + t21;
+                h2 = g2;
+                g2 = f2;
+                f2 = e2;
+                e2 = d2 + t12;
+                d2 = c2;
+                c2 = b2;
+                b2 = a2;
+                a2 = t12 + t22;
+                h3 = g3;
+                g3 = f3;
+                f3 = e3;
+                e3 = d3 + t13;
+                d3 = c3;
+                c3 = b3;
+                b3 = a3;
+                a3 = t13 + t23;
+            }
+            w2[0] = pre[PRE_MIDSTATE] + a0;
+            w2[1] = pre[PRE_MIDSTATE] + a1;
+            w2[2] = pre[PRE_MIDSTATE] + a2;
+            w2[3] = pre[PRE_MIDSTATE] + a3;
+            w2[4] = pre[PRE_MIDSTATE + 1] + b0;
+            w2[5] = pre[PRE_MIDSTATE + 1] + b1;
+            w2[6] = pre[PRE_MIDSTATE + 1] + b2;
+            w2[7] = pre[PRE_MIDSTATE + 1] + b3;
+            w2[8] = pre[PRE_MIDSTATE + 2] + c0;
+            w2[9] = pre[PRE_MIDSTATE + 2] + c1;
+            w2[10] = pre[PRE_MIDSTATE + 2] + c2;
+            w2[11] = pre[PRE_MIDSTATE + 2] + c3;
+            w2[12] = pre[PRE_MIDSTATE + 3] + d0;
+            w2[13] = pre[PRE_MIDSTATE + 3] + d1;
+            w2[14] = pre[PRE_MIDSTATE + 3] + d2;
+            w2[15] = pre[PRE_MIDSTATE + 3] + d3;
+            w2[16] = pre[PRE_MIDSTATE + 4] + e0;
+            w2[17] = pre[PRE_MIDSTATE + 4] + e1;
+            w2[18] = pre[PRE_MIDSTATE + 4] + e2;
+            w2[19] = pre[PRE_MIDSTATE + 4] + e3;
+            w2[20] = pre[PRE_MIDSTATE + 5] + f0;
+            w2[21] = pre[PRE_MIDSTATE + 5] + f1;
+            w2[22] = pre[PRE_MIDSTATE + 5] + f2;
+            w2[23] = pre[PRE_MIDSTATE + 5] + f3;
+            w2[24] = pre[PRE_MIDSTATE + 6] + g0;
+            w2[25] = pre[PRE_MIDSTATE + 6] + g1;
+            w2[26] = pre[PRE_MIDSTATE + 6] + g2;
+            w2[27] = pre[PRE_MIDSTATE + 6] + g3;
+            w2[28] = pre[PRE_MIDSTATE + 7] + h0;
+            w2[29] = pre[PRE_MIDSTATE + 7] + h1;
+            w2[30] = pre[PRE_MIDSTATE + 7] + h2;
+            w2[31] = pre[PRE_MIDSTATE + 7] + h3;
+            for (int i = 16; i < BUFFER_INTS; i++) {
+                int o = i * 4;
+                int x0 = w2[o - 8], y0 = w2[o - 60];
+                int x1 = w2[o - 7], y1 = w2[o - 59];
+                int x2 = w2[o - 6], y2 = w2[o - 58];
+                int x3 = w2[o - 5], y3 = w2[o - 57];
+                w2[o] = (rotateRight(x0, 17) ^ rotateRight(x0, 19) ^ x0 >>> 10) + w2[o - 28] + (rotateRight(y0, 7) ^ rotateRight(y0, 18) ^ y0 >>> 3) + w2[o - 64];
+                w2[o + 1] = (rotateRight(x1, 17) ^ rotateRight(x1, 19) ^ x1 >>> 10) + w2[o - 27] + (rotateRight(y1, 7) ^ rotateRight(y1, 18) ^ y1 >>> 3) + w2[o - 63];
+                w2[o + 2] = (rotateRight(x2, 17) ^ rotateRight(x2, 19) ^ x2 >>> 10) + w2[o - 26] + (rotateRight(y2, 7) ^ rotateRight(y2, 18) ^ y2 >>> 3) + w2[o - 62];
+                w2[o + 3] = (rotateRight(x3, 17) ^ rotateRight(x3, 19) ^ x3 >>> 10) + w2[o - 25] + (rotateRight(y3, 7) ^ rotateRight(y3, 18) ^ y3 >>> 3) + w2[o - 61];
+            }
+
+            // second hash, up to round 60
+            a0 = a1 = a2 = a3 = H0;
+            b0 = b1 = b2 = b3 = H1;
+            c0 = c1 = c2 = c3 = H2;
+            d0 = d1 = d2 = d3 = H3;
+            e0 = e1 = e2 = e3 = H4;
+            f0 = f1 = f2 = f3 = H5;
+            g0 = g1 = g2 = g3 = H6;
+            h0 = h1 = h2 = h3 = H7;
+            for (int i = 0; i < 60; i++) {
+                k = K[i];
+                int o = i * 4;
+                t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w2[o];
+                int t20 = (rotateRight(a0, 2) ^ rotateRight(a0, 13) ^ rotateRight(a0, 22)) + (a0 & b0 | c0 & (a0 | b0));
+                t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w2[o + 1];
+                int t21 = (rotateRight(a1, 2) ^ rotateRight(a1, 13) ^ rotateRight(a1, 22)) + (a1 & b1 | c1 & (a1 | b1));
+                t12 = h2 + (rotateRight(e2, 6) ^ rotateRight(e2, 11) ^ rotateRight(e2, 25)) + (g2 ^ e2 & (f2 ^ g2)) + k + w2[o + 2];
+                int t22 = (rotateRight(a2, 2) ^ rotateRight(a2, 13) ^ rotateRight(a2, 22)) + (a2 & b2 | c2 & (a2 | b2));
+                t13 = h3 + (rotateRight(e3, 6) ^ rotateRight(e3, 11) ^ rotateRight(e3, 25)) + (g3 ^ e3 & (f3 ^ g3)) + k + w2[o + 3];
+                int t23 = (rotateRight(a3, 2) ^ rotateRight(a3, 13) ^ rotateRight(a3, 22)) + (a3 & b3 | c3 & (a3 | b3));
+                h0 = g0;
+                g0 = f0;
+                f0 = e0;
+                e0 = d0 + t10;
+                d0 = c0;
+                c0 = b0;
+                b0 = a0;
+                a0 = t10 + t20;
+                h1 = g1;
+                g1 = f1;
+                f1 = e1;
+                e1 = d1 + t11;
+                d1 = c1;
+                c1 = b1;
+                b1 = a1;
+                a1 = t11 + t21;
+                h2 = g2;
+                g2 = f2;
+                f2 = e2;
+                e2 = d2 + t12;
+                d2 = c2;
+                c2 = b2;
+                b2 = a2;
+                a2 = t12 + t22;
+                h3 = g3;
+                g3 = f3;
+                f3 = e3;
+                e3 = d3 + t13;
+                d3 = c3;
+                c3 = b3;
+                b3 = a3;
+                a3 = t13 + t23;
+            }
+
+            // round 60 e is the final h : hash[7] = H7 + h
+            k = K[60];
+            int survivors = 0;
+            t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w2[240];
+            int h70 = d0 + t10 + H7;
+            leadingZeros.record(h70);
+            if ((h70 & topMask) == 0) survivors |= 1;
+            t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w2[241];
+            int h71 = d1 + t11 + H7;
+            leadingZeros.record(h71);
+            if ((h71 & topMask) == 0) survivors |= 2;
+            t12 = h2 + (rotateRight(e2, 6) ^ rotateRight(e2, 11) ^ rotateRight(e2, 25)) + (g2 ^ e2 & (f2 ^ g2)) + k + w2[242];
+            int h72 = d2 + t12 + H7;
+            leadingZeros.record(h72);
+            if ((h72 & topMask) == 0) survivors |= 4;
+            t13 = h3 + (rotateRight(e3, 6) ^ rotateRight(e3, 11) ^ rotateRight(e3, 25)) + (g3 ^ e3 & (f3 ^ g3)) + k + w2[243];
+            int h73 = d3 + t13 + H7;
+            leadingZeros.record(h73);
+            if ((h73 & topMask) == 0) survivors |= 8;
+            if (survivors == 0)
+                return 0;
+
+            for (int i = 60; i < BUFFER_INTS; i++) {
+                k = K[i];
+                int o = i * 4;
+                if (i > 60) {
+                    t10 = h0 + (rotateRight(e0, 6) ^ rotateRight(e0, 11) ^ rotateRight(e0, 25)) + (g0 ^ e0 & (f0 ^ g0)) + k + w2[o];
+                    t11 = h1 + (rotateRight(e1, 6) ^ rotateRight(e1, 11) ^ rotateRight(e1, 25)) + (g1 ^ e1 & (f1 ^ g1)) + k + w2[o + 1];
+                    t12 = h2 + (rotateRight(e2, 6) ^ rotateRight(e2, 11) ^ rotateRight(e2, 25)) + (g2 ^ e2 & (f2 ^ g2)) + k + w2[o + 2];
+                    t13 = h3 + (rotateRight(e3, 6) ^ rotateRight(e3, 11) ^ rotateRight(e3, 25)) + (g3 ^ e3 & (f3 ^ g3)) + k + w2[o + 3];
+                }
+                int t20 = (rotateRight(a0, 2) ^ rotateRight(a0, 13) ^ rotateRight(a0, 22)) + (a0 & b0 | c0 & (a0 | b0));
+                int t21 = (rotateRight(a1, 2) ^ rotateRight(a1, 13) ^ rotateRight(a1, 22)) + (a1 & b1 | c1 & (a1 | b1));
+                int t22 = (rotateRight(a2, 2) ^ rotateRight(a2, 13) ^ rotateRight(a2, 22)) + (a2 & b2 | c2 & (a2 | b2));
+                int t23 = (rotateRight(a3, 2) ^ rotateRight(a3, 13) ^ rotateRight(a3, 22)) + (a3 & b3 | c3 & (a3 | b3));
+                h0 = g0;
+                g0 = f0;
+                f0 = e0;
+                e0 = d0 + t10;
+                d0 = c0;
+                c0 = b0;
+                b0 = a0;
+                a0 = t10 + t20;
+                h1 = g1;
+                g1 = f1;
+                f1 = e1;
+                e1 = d1 + t11;
+                d1 = c1;
+                c1 = b1;
+                b1 = a1;
+                a1 = t11 + t21;
+                h2 = g2;
+                g2 = f2;
+                f2 = e2;
+                e2 = d2 + t12;
+                d2 = c2;
+                c2 = b2;
+                b2 = a2;
+                a2 = t12 + t22;
+                h3 = g3;
+                g3 = f3;
+                f3 = e3;
+                e3 = d3 + t13;
+                d3 = c3;
+                c3 = b3;
+                b3 = a3;
+                a3 = t13 + t23;
+            }
+            int[] hash = this.hash;
+            hash[0] = H0 + a0;
+            hash[1] = H0 + a1;
+            hash[2] = H0 + a2;
+            hash[3] = H0 + a3;
+            hash[4] = H1 + b0;
+            hash[5] = H1 + b1;
+            hash[6] = H1 + b2;
+            hash[7] = H1 + b3;
+            hash[8] = H2 + c0;
+            hash[9] = H2 + c1;
+            hash[10] = H2 + c2;
+            hash[11] = H2 + c3;
+            hash[12] = H3 + d0;
+            hash[13] = H3 + d1;
+            hash[14] = H3 + d2;
+            hash[15] = H3 + d3;
+            hash[16] = H4 + e0;
+            hash[17] = H4 + e1;
+            hash[18] = H4 + e2;
+            hash[19] = H4 + e3;
+            hash[20] = H5 + f0;
+            hash[21] = H5 + f1;
+            hash[22] = H5 + f2;
+            hash[23] = H5 + f3;
+            hash[24] = H6 + g0;
+            hash[25] = H6 + g1;
+            hash[26] = H6 + g2;
+            hash[27] = H6 + g3;
+            hash[28] = H7 + h0;
+            hash[29] = H7 + h1;
+            hash[30] = H7 + h2;
+            hash[31] = H7 + h3;
+            return survivors;
+        }
+    }
+}
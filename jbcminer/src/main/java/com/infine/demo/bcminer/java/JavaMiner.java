@@ -2,52 +2,124 @@ package com.infine.demo.bcminer.java;
 
 import com.infine.demo.bcminer.Bench;
 import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
 import com.infine.demo.bcminer.IMiner;
 import com.infine.demo.bcminer.MinerOptions;
 import com.infine.demo.bcminer.MinerStats;
+import com.infine.demo.bcminer.ShareRing;
+import com.infine.demo.bcminer.jfr.JobEvent;
+import com.infine.demo.bcminer.jfr.JobSwitchEvent;
 
+import javax.annotation.Nullable;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.function.Predicate;
-
-import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import java.util.function.Supplier;
 
 /**
  * For a given {@link BlockHeader}, iterate over all nonce to find one matching the header target nBits.<br/>
- * Multithread implementation, each threads handle nonce per thread index<br/>
- * Use the midstate optimization by sharing the precomputed midstate across all workers.<br/>
+ * Multithread implementation, the nonce range is recursively split in halves by {@link ForkJoinPool} tasks down to
+ * contiguous chunks of {@link #CHUNK_NONCES} nonces : idle workers steal the oldest, hence largest, pending range of a
+ * busy worker, a slow or descheduled worker only delays its current chunk. The matched nonce and cancellation are
+ * checked once per chunk, and the searched chunks are reported in {@link #searchedRanges()}.<br/>
+ * The worker pool lives as long as the miner. Each {@link #mine(BlockHeader, int)} publishes a new job epoch : the
+ * workers of a previous job, or of a cancelled one, see the epoch change and stop after their current chunk. A mine
+ * only returns once all its workers are done, and the delay from a mine call to its first hashed chunk is reported by
+ * {@link #jobSwitchNanos()}.<br/>
+ * Use the midstate optimization by sharing the precomputed midstate across all workers, along with the other nonce
+ * independent values of {@link Sha256#precompute(int[], BlockHeader)}.<br/>
+ * Nonces are hashed by the configured {@link HashEngine}, with one hasher per worker thread.<br/>
+ * In share mode the workers offer the shares of their chunks directly to the {@link ShareRing} and go on, only a nonce
+ * matching the header target stops the job.
  */
 public class JavaMiner implements IMiner {
 
     public static final MinerOptions OPTIONS = new JavaMinerOptions();
 
+    // nonces scanned by a worker between two matched nonce checks and stats updates
+    private static final int CHUNK_NONCES = 1 << 16;
+
+    // excluded end of the nonce range
+    private static final long END_NONCE = 0xFFFFFFFFL;
+
     private static final class JavaMinerOptions extends MinerOptions {
-        public final Option<Integer> concurrency;
+        public final Option<String> concurrency;
+        public final Option<String> engine;
+        public final Option<Integer> interleave;
 
         public JavaMinerOptions() {
             super("java");
-            concurrency = addInt("threads", "number of mining threads", Runtime.getRuntime().availableProcessors());
+            concurrency = addString("threads", "number of mining threads, or " + ThreadScaling.AUTO + " for the best measured on this host",
+                    Integer.toString(Runtime.getRuntime().availableProcessors()));
+            engine = addString("engine", "hash engine, one of " + HashEngine.NAMES, HashEngine.SCALAR);
+            interleave = addInt("interleave", "nonces hashed together by the " + HashEngine.INTERLEAVED + " engine (2 to 4)", HashEngine.DEFAULT_INTERLEAVE);
         }
 
         @Override
         public IMiner createMiner(ParsedOptions options) {
-            return new JavaMiner(options.get(concurrency));
+            String engineName = options.get(engine);
+            int threads = ThreadScaling.parseThreads(options.get(concurrency), engineName, options.get(interleave));
+            return new JavaMiner(threads, HashEngine.forName(engineName, options.get(interleave)));
         }
     }
 
     private final int concurrency;
+    private final HashEngine engine;
 
-    // shared midstate
-    private final int[] midstate = new int[H_INTS];
+    // shared midstate and nonce independent values
+    private final int[] precomputed = new int[Sha256.PRECOMPUTED_INTS];
 
     // shared hash predicate
-    private Predicate<int[]> hashPredicate;
+    private HashPredicate hashPredicate;
 
     private final AtomicReference<Integer> matchedNonce = new AtomicReference<>(null);
 
+    private final ForkJoinPool pool;
+
+    // current job, incremented by each mine and cancel
+    private final AtomicInteger epoch = new AtomicInteger();
+
+    // nanoTime of the current job mine call
+    private long jobPublished;
+
+    // delay from the current job mine call to its first chunk, negative until started
+    private final AtomicLong jobSwitchNanos = new AtomicLong(-1);
+
+    private final NonceRanges searchedRanges = new NonceRanges();
+
+    // share mode : shares of the current job
+    @Nullable
+    private ShareRing shares;
+
+    // state of each worker thread for the current job, cleared at the job end : the persistent pool threads keep no
+    // hasher of a previous header (and no specialized hasher class) reachable
+    private final Map<Thread, Worker> workers = new ConcurrentHashMap<>();
+    private Supplier<Worker> workerFactory;
+
+    /**
+     * @param hasher      hasher of the current header, testing the share predicate in share mode
+     * @param blockHasher share mode : hasher testing the header target of the shares, null otherwise
+     * @param counter     stats counter of the worker thread for the current job
+     */
+    private record Worker(NonceHasher hasher, @Nullable NonceHasher blockHasher, MinerStats.Counter counter) {
+    }
+
     private final MinerStats stats = new MinerStats();
 
     public JavaMiner(int concurrency) {
+        this(concurrency, HashEngine.forName(HashEngine.SCALAR));
+    }
+
+    public JavaMiner(int concurrency, HashEngine engine) {
         this.concurrency = concurrency;
+        this.engine = engine;
+        this.pool = new ForkJoinPool(concurrency);
     }
 
     @Override
@@ -55,47 +127,194 @@ public class JavaMiner implements IMiner {
         return stats;
     }
 
+    /**
+     * Mine the header, the running mine is cancelled.
+     *
+     * @return the matched nonce, or null if not found, cancelled or replaced by another mine
+     */
     @Override
     public Integer mine(BlockHeader header, int startNonce) {
-        hashPredicate = header.hashPredicate();
-        Sha256.createMidstate(midstate, header);
-        ThreadGroup threadGroup = new ThreadGroup("BCMiner");
-        System.out.printf("Starting JavaMiner with %d threads%n", concurrency);
-        stats.start();
-        for (int i = 0; i < concurrency - 1; i++) {
-            final int threadIndex = i;
-            new Thread(threadGroup, () -> miningTask(header, startNonce, threadIndex), "BCMiner[" + i + "]").start();
+        return mineJob(header, startNonce, null, null);
+    }
+
+    /**
+     * Share mode : the workers hash with the share predicate, each share found is offered to the ring then tested
+     * against the header target.
+     *
+     * @return the nonce matching the header target, or null if not found, cancelled or replaced by another mine
+     */
+    @Override
+    public Integer mine(BlockHeader header, int startNonce, HashPredicate share, ShareRing shares) {
+        return mineJob(header, startNonce, Objects.requireNonNull(share, "share is null"), Objects.requireNonNull(shares, "shares is null"));
+    }
+
+    private Integer mineJob(BlockHeader header, int startNonce, @Nullable HashPredicate share, @Nullable ShareRing shares) {
+        long published = System.nanoTime();
+        // stop the workers of the previous job
+        int jobEpoch = epoch.incrementAndGet();
+        synchronized (this) {
+            if (pool.isShutdown())
+                throw new IllegalStateException("JavaMiner is closed");
+            if (epoch.get() != jobEpoch)
+                return null;
+            hashPredicate = header.hashPredicate();
+            Sha256.precompute(precomputed, header);
+            HashPredicate scanPredicate = share != null ? share : hashPredicate;
+            this.shares = shares;
+            matchedNonce.set(null);
+            searchedRanges.clear();
+            jobPublished = published;
+            jobSwitchNanos.set(-1);
+            System.out.printf("Starting JavaMiner with %d threads%n", concurrency);
+            JobEvent jobEvent = JobEvent.begin(OPTIONS.id(), startNonce);
+            stats.start();
+            workerFactory = () -> {
+                NonceHasher hasher = engine.createHasher(header, precomputed, scanPredicate);
+                NonceHasher blockHasher = share != null ? new ScalarHasher(header, precomputed, hashPredicate) : null;
+                // the worker counter reports the leading zeros recorded by the worker hasher
+                return new Worker(hasher, blockHasher, stats.counter(Thread.currentThread().getName(), hasher.leadingZeros()));
+            };
+            stats.setupLatency().record(System.nanoTime() - published);
+            try {
+                pool.invoke(new RangeTask(jobEpoch, startNonce, END_NONCE));
+            } finally {
+                workers.clear();
+                workerFactory = null;
+            }
+            Integer matched = matchedNonce.get();
+            if (matched != null)
+                stats.nonceFound();
+            jobEvent.end(matched, stats);
+            return matched;
         }
-        mine(header, startNonce, concurrency - 1);
-        return matchedNonce.get();
     }
 
-    private void miningTask(BlockHeader header, int startNonce, int threadIndex) {
+    /**
+     * Stop the running {@link #mine(BlockHeader, int)}, workers stop after their current chunk, and the mine calls
+     * already made and waiting for it : each mine takes its epoch when called, and returns null if the epoch changed
+     * once it holds the miner. A mine called after the cancel is not cancelled.
+     */
+    @Override
+    public void cancel() {
+        epoch.incrementAndGet();
+    }
+
+    /**
+     * @return nanoseconds from the last {@link #mine(BlockHeader, int)} call to its first hashed chunk, including the
+     * wait for the workers of the previous job, or -1 if not started yet
+     */
+    public long jobSwitchNanos() {
+        return jobSwitchNanos.get();
+    }
+
+    /**
+     * Cancel the running mine and stop the worker pool
+     */
+    @Override
+    public void close() {
+        cancel();
+        synchronized (this) {
+            pool.shutdown();
+        }
         try {
-            mine(header, startNonce, threadIndex);
-        } catch (Exception e) {
-            e.printStackTrace();
+            if (!pool.awaitTermination(1, TimeUnit.MINUTES))
+                throw new IllegalStateException("JavaMiner workers still running");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the nonces searched by the last {@link #mine(BlockHeader, int)}, up to the matched nonce included in its
+     * chunk
+     */
+    public NonceRanges searchedRanges() {
+        return searchedRanges;
+    }
+
+    private boolean stopped(int jobEpoch) {
+        return epoch.get() != jobEpoch || matchedNonce.get() != null;
+    }
+
+    // state of the current thread, only this thread adds it
+    private Worker worker() {
+        Thread thread = Thread.currentThread();
+        Worker worker = workers.get(thread);
+        if (worker == null) {
+            worker = workerFactory.get();
+            workers.put(thread, worker);
         }
+        return worker;
     }
 
-    private void mine(BlockHeader header, int startNonce, int threadIndex) {
-        int[] data = header.data(), hash = new int[H_INTS], workBuffer = new int[Sha256.BUFFER_INTS];
+    /**
+     * Search the nonces in [from, to[, split in halves until a chunk size is reached
+     */
+    private final class RangeTask extends RecursiveAction {
+        private final int jobEpoch;
+        private final long from;
+        private final long to;
+
+        private RangeTask(int jobEpoch, long from, long to) {
+            this.jobEpoch = jobEpoch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (stopped(jobEpoch))
+                return;
+            if (to - from > CHUNK_NONCES) {
+                long middle = from + (to - from) / 2;
+                invokeAll(new RangeTask(jobEpoch, from, middle), new RangeTask(jobEpoch, middle, to));
+            } else {
+                scan();
+            }
+        }
+
+        private void scan() {
+            if (jobSwitchNanos.get() < 0) {
+                long latency = System.nanoTime() - jobPublished;
+                if (jobSwitchNanos.compareAndSet(-1, latency)) {
+                    stats.jobSwitchLatency().record(latency);
+                    JobSwitchEvent.commit(OPTIONS.id(), latency);
+                }
+            }
+            long start = System.nanoTime();
+            Worker worker = worker();
+            NonceHasher hasher = worker.hasher();
+            long rejected = hasher.earlyRejected();
+            int count = (int) (to - from);
+            int matched = shares == null ? hasher.scan((int) from, 1, count) : scanShares(worker, shares, (int) from, count);
+            if (matched >= 0) {
+                matchedNonce.compareAndSet(null, (int) (from + matched));
+                count = matched + 1;
+            }
+            searchedRanges.addNonces((int) from, count);
+            worker.counter().update(count, (int) (hasher.earlyRejected() - rejected), System.nanoTime() - start);
+        }
 
-        long nonce = startNonce + threadIndex;
-        int chunk = 0;
-        while (matchedNonce.get() == null && nonce < 0xFFFFFFFFL) {
-            Sha256.updateHash(hash, data, midstate, workBuffer, (int) nonce);
-            if (hashPredicate.test(hash))
-                matchedNonce.set((int) nonce);
-            chunk++;
-            if (chunk == 1000) {
-                stats.update(chunk);
-                chunk = 0;
+        /**
+         * Offer the shares of the chunk, until a share matches the header target
+         *
+         * @return the index of the nonce matching the header target, or -1
+         */
+        private int scanShares(Worker worker, ShareRing shares, int from, int count) {
+            int scanned = 0;
+            while (scanned < count) {
+                int matched = worker.hasher().scan(from + scanned, 1, count - scanned);
+                if (matched < 0)
+                    return -1;
+                int nonce = from + scanned + matched;
+                shares.offer(nonce);
+                // rare, once per share
+                if (worker.blockHasher().test(nonce))
+                    return scanned + matched;
+                scanned += matched + 1;
             }
-            nonce = nonce + concurrency;
+            return -1;
         }
-        if (chunk > 0)
-            stats.update(chunk);
     }
 
     public static void main(String[] args) throws InterruptedException {
@@ -0,0 +1,38 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.LeadingZeros;
+
+/**
+ * Hash a nonce of a {@link com.infine.demo.bcminer.BlockHeader} and test the resulting hash against the header target.<br/>
+ * A hasher owns its work state and must only be used by a single mining thread.
+ */
+public interface NonceHasher {
+
+    boolean test(int nonce);
+
+    /**
+     * Test count nonces : nonce, nonce + stride, nonce + 2 * stride ...
+     *
+     * @return the index of the first matching nonce, or -1 if none matched
+     */
+    default int scan(int nonce, int stride, int count) {
+        for (int i = 0; i < count; i++) {
+            if (test(nonce + i * stride))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of nonces rejected before the hash was fully computed
+     */
+    default long earlyRejected() {
+        return 0;
+    }
+
+    /**
+     * @return the histogram of the hashes computed by this hasher, early rejected ones included
+     */
+    LeadingZeros leadingZeros();
+
+}
@@ -0,0 +1,93 @@
+package com.infine.demo.bcminer.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Set of searched nonce ranges, adjacent and overlapping ranges are merged.<br/>
+ * Nonces are unsigned, ranges bounds are long in [0, 2^32].
+ */
+public final class NonceRanges {
+
+    /**
+     * @param from first nonce
+     * @param to   last nonce excluded
+     */
+    public record Range(long from, long to) {
+        public long size() {
+            return to - from;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + from + ", " + to + "[";
+        }
+    }
+
+    private static final long NONCES = 1L << 32;
+
+    // from -> to
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+
+    /**
+     * Add count nonces from nonce, wrapping to 0 after 0xFFFFFFFF
+     */
+    public void addNonces(int nonce, int count) {
+        long from = Integer.toUnsignedLong(nonce), to = from + Integer.toUnsignedLong(count);
+        if (to > NONCES) {
+            add(from, NONCES);
+            add(0, to - NONCES);
+        } else {
+            add(from, to);
+        }
+    }
+
+    public synchronized void add(long from, long to) {
+        if (to <= from)
+            return;
+        Map.Entry<Long, Long> floor = ranges.floorEntry(from);
+        if (floor != null && floor.getValue() >= from) {
+            from = floor.getKey();
+            to = Math.max(to, floor.getValue());
+        }
+        Map.Entry<Long, Long> next = ranges.ceilingEntry(from);
+        while (next != null && next.getKey() <= to) {
+            to = Math.max(to, next.getValue());
+            ranges.remove(next.getKey());
+            next = ranges.higherEntry(next.getKey());
+        }
+        ranges.put(from, to);
+    }
+
+    public synchronized boolean contains(long nonce) {
+        Map.Entry<Long, Long> floor = ranges.floorEntry(nonce);
+        return floor != null && nonce < floor.getValue();
+    }
+
+    /**
+     * @return the number of searched nonces
+     */
+    public synchronized long size() {
+        long size = 0;
+        for (Map.Entry<Long, Long> entry : ranges.entrySet())
+            size += entry.getValue() - entry.getKey();
+        return size;
+    }
+
+    public synchronized List<Range> ranges() {
+        List<Range> result = new ArrayList<>(ranges.size());
+        ranges.forEach((from, to) -> result.add(new Range(from, to)));
+        return result;
+    }
+
+    public synchronized void clear() {
+        ranges.clear();
+    }
+
+    @Override
+    public String toString() {
+        return ranges().toString();
+    }
+}
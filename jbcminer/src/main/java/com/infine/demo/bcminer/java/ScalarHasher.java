@@ -0,0 +1,41 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.LeadingZeros;
+
+import static com.infine.demo.bcminer.java.Sha256.BUFFER_INTS;
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+
+/**
+ * Reference {@link NonceHasher} using {@link Sha256#updateHash(int[], int[], int[], int[], int)}.
+ */
+final class ScalarHasher implements NonceHasher {
+
+    private final int[] data;
+    private final int[] midstate;
+    private final HashPredicate predicate;
+
+    private final int[] hash = new int[H_INTS];
+    private final int[] workBuffer = new int[BUFFER_INTS];
+    private final LeadingZeros leadingZeros = new LeadingZeros();
+
+    ScalarHasher(BlockHeader header, int[] precomputed, HashPredicate predicate) {
+        this.data = header.data();
+        // the precomputed values start with the midstate
+        this.midstate = precomputed;
+        this.predicate = predicate;
+    }
+
+    @Override
+    public boolean test(int nonce) {
+        Sha256.updateHash(hash, data, midstate, workBuffer, nonce);
+        leadingZeros.record(hash[H_INTS - 1]);
+        return predicate.test(hash);
+    }
+
+    @Override
+    public LeadingZeros leadingZeros() {
+        return leadingZeros;
+    }
+}
@@ -22,9 +22,24 @@ public class Sha256 {
     public static final int BLOCK_INTS = 16;
     public static final int BUFFER_INTS = 64;
 
+    /**
+     * int count in the per header precomputed values, see {@link #precompute(int[], BlockHeader)}
+     */
+    public static final int PRECOMPUTED_INTS = 22;
+
+    // index in precomputed
+    public static final int PRE_MIDSTATE = 0; // 8 ints
+    public static final int PRE_STATE = 8; // 8 ints : a..h after the 3 first rounds of the header second chunk
+    public static final int PRE_T1 = 16; // round 3 T1 without the nonce word
+    public static final int PRE_T2 = 17; // round 3 T2
+    public static final int PRE_W16 = 18;
+    public static final int PRE_W17 = 19;
+    public static final int PRE_W18 = 20; // W18 without gamma0(nonce)
+    public static final int PRE_W19 = 21; // W19 without nonce
+
     public static final int[] DEFAULT_H = {0x6A09E667, 0xBB67AE85, 0x3C6EF372, 0xA54FF53A, 0x510E527F, 0x9B05688C, 0x1F83D9AB, 0x5BE0CD19};
 
-    private static final int[] K = {
+    static final int[] K = {
             0x428A2F98, 0x71374491, 0xB5C0FBCF, 0xE9B5DBA5,
             0x3956C25B, 0x59F111F1, 0x923F82A4, 0xAB1C5ED5,
             0xD807AA98, 0x12835B01, 0x243185BE, 0x550C7DC3,
@@ -54,6 +69,64 @@ public class Sha256 {
         Sha256.hash(header.data(), midstate);
     }
 
+    public static int[] precompute(BlockHeader header) {
+        int[] precomputed = new int[PRECOMPUTED_INTS];
+        precompute(precomputed, header);
+        return precomputed;
+    }
+
+    /**
+     * Compute the nonce independent part of the header second chunk hash.<br/>
+     * Only the nonce (word 3) changes in this chunk : the 3 first rounds, the round 3 T2, and W16 to W19 (partially
+     * for W18 and W19) are the same for every nonce.
+     */
+    public static void precompute(int[] precomputed, BlockHeader header) {
+        createMidstate(precomputed, header);
+        int[] data = header.data();
+        int merkle = data[BlockHeader.TIME - 1], time = data[BlockHeader.TIME], nbits = data[BlockHeader.NBITS];
+        int[] w = {merkle, time, nbits};
+        int a = precomputed[0];
+        int b = precomputed[1];
+        int c = precomputed[2];
+        int d = precomputed[3];
+        int e = precomputed[4];
+        int f = precomputed[5];
+        int g = precomputed[6];
+        int h = precomputed[7];
+        int T1, T2;
+        for (int i = 0; i < w.length; i++) {
+            T1 = h + sigma1256(e) + ch(e, f, g) + K[i] + w[i];
+            T2 = sigma0256(a) + maj(a, b, c);
+
+            h = g;
+            g = f;
+            f = e;
+            e = d + T1;
+            d = c;
+            c = b;
+            b = a;
+            a = T1 + T2;
+        }
+        precomputed[PRE_STATE] = a;
+        precomputed[PRE_STATE + 1] = b;
+        precomputed[PRE_STATE + 2] = c;
+        precomputed[PRE_STATE + 3] = d;
+        precomputed[PRE_STATE + 4] = e;
+        precomputed[PRE_STATE + 5] = f;
+        precomputed[PRE_STATE + 6] = g;
+        precomputed[PRE_STATE + 7] = h;
+        precomputed[PRE_T1] = h + sigma1256(e) + ch(e, f, g) + K[3];
+        precomputed[PRE_T2] = sigma0256(a) + maj(a, b, c);
+
+        // W[i] = gamma1256(W[i - 2]) + W[i - 7] + gamma0256(W[i - 15]) + W[i - 16], W[4] = 0x80000000, W[5..14] = 0, W[15] = 640
+        int w16 = gamma0256(time) + merkle;
+        int w17 = gamma1256(640) + gamma0256(nbits) + time;
+        precomputed[PRE_W16] = w16;
+        precomputed[PRE_W17] = w17;
+        precomputed[PRE_W18] = gamma1256(w16) + nbits;
+        precomputed[PRE_W19] = gamma1256(w17) + gamma0256(0x80000000);
+    }
+
     public static void hash(int[] data, @Nullable int[] hash) {
         if (hash == null)
             hash = new int[H_INTS];
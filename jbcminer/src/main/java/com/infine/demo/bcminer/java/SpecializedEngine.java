@@ -0,0 +1,115 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link HashEngine} defining a {@link SpecializedHasher} hidden class per mined header, see {@link SpecializedHasher}.
+ * <br/>
+ * Classes are cached by header values, all the workers of a job share the same class. Only the last
+ * {@link #CACHE_SIZE} headers are kept : hidden classes are not strongly bound to their class loader, an evicted
+ * class is unloaded once its hashers are collected, so a long-running miner does not leak metaspace.
+ */
+final class SpecializedEngine implements HashEngine {
+
+    static final int CACHE_SIZE = 2;
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class);
+
+    private static byte[] templateBytes;
+
+    private final Map<ClassData, MethodHandle> constructors = new LinkedHashMap<>(CACHE_SIZE * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ClassData, MethodHandle> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private long definedClasses;
+
+    @Override
+    public NonceHasher createHasher(BlockHeader header, int[] precomputed, HashPredicate predicate) {
+        MethodHandle constructor = constructor(new ClassData(precomputed, predicate));
+        try {
+            return (NonceHasher) constructor.invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Error creating specialized hasher", e);
+        }
+    }
+
+    /**
+     * @return the number of hidden classes defined by this engine
+     */
+    synchronized long definedClasses() {
+        return definedClasses;
+    }
+
+    /**
+     * @return the currently cached hidden classes
+     */
+    synchronized int cachedClasses() {
+        return constructors.size();
+    }
+
+    private synchronized MethodHandle constructor(ClassData classData) {
+        MethodHandle constructor = constructors.get(classData);
+        if (constructor == null) {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClassWithClassData(templateBytes(), classData.data, true);
+                constructor = lookup.findConstructor(lookup.lookupClass(), CONSTRUCTOR_TYPE);
+            } catch (IllegalAccessException | NoSuchMethodException e) {
+                throw new IllegalStateException("Error defining specialized hasher", e);
+            }
+            constructors.put(classData, constructor);
+            definedClasses++;
+        }
+        return constructor;
+    }
+
+    private static synchronized byte[] templateBytes() {
+        if (templateBytes == null) {
+            try (InputStream is = SpecializedHasher.class.getResourceAsStream(SpecializedHasher.class.getSimpleName() + ".class")) {
+                if (is == null)
+                    throw new IllegalStateException("SpecializedHasher class file not found");
+                templateBytes = is.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return templateBytes;
+    }
+
+    /**
+     * {@link SpecializedHasher} class data, compared by value
+     */
+    private static final class ClassData {
+        private final int[] data = new int[SpecializedHasher.CLASS_DATA_INTS];
+
+        private ClassData(int[] precomputed, HashPredicate predicate) {
+            System.arraycopy(precomputed, 0, data, 0, Sha256.PRECOMPUTED_INTS);
+            data[Sha256.PRECOMPUTED_INTS] = predicate.hOffset();
+            data[Sha256.PRECOMPUTED_INTS + 1] = predicate.mask();
+            System.arraycopy(predicate.target(), 0, data, Sha256.PRECOMPUTED_INTS + 2, Sha256.H_INTS);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ClassData other && Arrays.equals(data, other.data);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(data);
+        }
+    }
+}
@@ -0,0 +1,667 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.LeadingZeros;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static com.infine.demo.bcminer.java.Sha256.PRECOMPUTED_INTS;
+import static com.infine.demo.bcminer.java.Sha256.PRE_MIDSTATE;
+import static com.infine.demo.bcminer.java.Sha256.PRE_STATE;
+import static com.infine.demo.bcminer.java.Sha256.PRE_T1;
+import static com.infine.demo.bcminer.java.Sha256.PRE_T2;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W16;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W17;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W18;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W19;
+import static java.lang.Integer.rotateRight;
+
+/**
+ * Template of the header specialized {@link NonceHasher} defined by {@link SpecializedEngine}.<br/>
+ * Every mined header gets its own hidden class of this template. The header values are static finals initialized from
+ * the hidden class data, which the JIT trusts as constants : the precomputed state, the nonce independent message
+ * words and the predicate offset and mask are folded in the compiled code instead of being loaded from fields.<br/>
+ * The rounds are the generated ones of {@link UnrolledHasher}. The template itself has no class data and can not be
+ * initialized.
+ */
+final class SpecializedHasher implements NonceHasher {
+
+    private static final int H0 = 0x6A09E667, H1 = 0xBB67AE85, H2 = 0x3C6EF372, H3 = 0xA54FF53A,
+            H4 = 0x510E527F, H5 = 0x9B05688C, H6 = 0x1F83D9AB, H7 = 0x5BE0CD19;
+
+    // class data : precomputed values followed by the predicate offset, mask and target
+    static final int CLASS_DATA_INTS = PRECOMPUTED_INTS + 2 + H_INTS;
+
+    // midstate
+    private static final int M0, M1, M2, M3, M4, M5, M6, M7;
+    // working variables after the 3 first rounds of the header second chunk
+    private static final int P0, P1, P2, P3, P4, P5, P6, P7;
+    // nonce independent parts of round 3 and of the message expansion
+    private static final int T1_PART, T2, W16, W17, W18_PART, W19_PART;
+    // predicate
+    private static final int H_OFFSET, MASK, TOP_MASK;
+    // compared only once the mask matched, not worth constant words
+    private static final int[] TARGET;
+
+    static {
+        int[] data;
+        try {
+            data = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, int[].class);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        if (data == null)
+            throw new IllegalStateException("SpecializedHasher must be defined as a hidden class");
+        M0 = data[PRE_MIDSTATE];
+        M1 = data[PRE_MIDSTATE + 1];
+        M2 = data[PRE_MIDSTATE + 2];
+        M3 = data[PRE_MIDSTATE + 3];
+        M4 = data[PRE_MIDSTATE + 4];
+        M5 = data[PRE_MIDSTATE + 5];
+        M6 = data[PRE_MIDSTATE + 6];
+        M7 = data[PRE_MIDSTATE + 7];
+        P0 = data[PRE_STATE];
+        P1 = data[PRE_STATE + 1];
+        P2 = data[PRE_STATE + 2];
+        P3 = data[PRE_STATE + 3];
+        P4 = data[PRE_STATE + 4];
+        P5 = data[PRE_STATE + 5];
+        P6 = data[PRE_STATE + 6];
+        P7 = data[PRE_STATE + 7];
+        T1_PART = data[PRE_T1];
+        T2 = data[PRE_T2];
+        W16 = data[PRE_W16];
+        W17 = data[PRE_W17];
+        W18_PART = data[PRE_W18];
+        W19_PART = data[PRE_W19];
+        H_OFFSET = data[PRECOMPUTED_INTS];
+        MASK = data[PRECOMPUTED_INTS + 1];
+        TOP_MASK = H_OFFSET == H_INTS - 1 ? MASK : H_OFFSET < H_INTS - 1 ? 0xFFFFFFFF : 0;
+        TARGET = Arrays.copyOfRange(data, PRECOMPUTED_INTS + 2, PRECOMPUTED_INTS + 2 + H_INTS);
+    }
+
+    private final int[] hash = new int[H_INTS];
+    private final LeadingZeros leadingZeros = new LeadingZeros();
+
+    private long earlyRejected;
+
+    // last compression result (without feed forward)
+    private int s0, s1, s2, s3, s4, s5, s6, s7;
+
+    @Override
+    public boolean test(int nonce) {
+        firstHash(nonce);
+        if (!secondHash(TOP_MASK, M0 + s0, M1 + s1, M2 + s2, M3 + s3, M4 + s4, M5 + s5, M6 + s6, M7 + s7)) {
+            earlyRejected++;
+            return false;
+        }
+        updateHash();
+        return matches();
+    }
+
+    @Override
+    public long earlyRejected() {
+        return earlyRejected;
+    }
+
+    @Override
+    public LeadingZeros leadingZeros() {
+        return leadingZeros;
+    }
+
+    /**
+     * {@link HashPredicate#test(int[])} with the header offset, mask and target
+     */
+    private boolean matches() {
+        int[] hash = this.hash;
+        int sum = hash[H_OFFSET] & MASK;
+        for (int i = H_OFFSET + 1; i < H_INTS; i++)
+            sum |= hash[i];
+        return sum == 0 && HashPredicate.atMostTarget(hash, TARGET, H_INTS - 1 - H_OFFSET);
+    }
+
+    private void updateHash() {
+        int[] hash = this.hash;
+        hash[0] = H0 + s0;
+        hash[1] = H1 + s1;
+        hash[2] = H2 + s2;
+        hash[3] = H3 + s3;
+        hash[4] = H4 + s4;
+        hash[5] = H5 + s5;
+        hash[6] = H6 + s6;
+        hash[7] = H7 + s7;
+    }
+
+    /**
+     * second chunk of the header, from the precomputed state
+     */
+    private void firstHash(int nonce) {
+        int f = P0, g = P1, h = P2, a = P3, b = P4, c = P5, d = P6, e = P7;
+        int w0, w1, w2, w3 = Integer.reverseBytes(nonce), w4, w5, w6, w7, w8, w9, w10, w11, w12, w13, w14, w15;
+        int t1;
+        t1 = T1_PART + w3;
+        a += t1;
+        e = t1 + T2;
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0xB956C25B;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x59F111F1;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x923F82A4;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xAB1C5ED5;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0xD807AA98;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x12835B01;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x243185BE;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x550C7DC3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x72BE5D74;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x80DEB1FE;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x9BDC06A7;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xC19BF3F4;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w0 = W16;
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0xE49B69C1 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 = W17;
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xEFBE4786 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 = W18_PART + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x0FC19DC6 + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += W19_PART;
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x240CA1CC + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 = (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + 0x80000000;
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x2DE92C6F + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 = (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x4A7484AA + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 = (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + 0x00000280;
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x5CB0A9DC + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 = (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0;
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x76F988DA + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 = (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1;
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x983E5152 + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 = (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2;
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xA831C66D + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 = (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3;
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0xB00327C8 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 = (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4;
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0xBF597FC7 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 = (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5;
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0xC6E00BF3 + w12;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 = (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6;
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xD5A79147 + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 = (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + 0x00A00055;
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x06CA6351 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 = (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3) + 0x00000280;
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x14292967 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        rounds32(a, b, c, d, e, f, g, h,
+                w0, w1, w2, w3, w4, w5, w6, w7, w8, w9, w10, w11, w12, w13, w14, w15);
+    }
+
+    /**
+     * hash of the first hash
+     *
+     * @param topMask mask of the last hash word bits that must be 0
+     * @return false if rejected early by the topMask
+     */
+    private boolean secondHash(int topMask, int w0, int w1, int w2, int w3, int w4, int w5, int w6, int w7) {
+        int a = H0, b = H1, c = H2, d = H3, e = H4, f = H5, g = H6, h = H7;
+        int w8, w9, w10, w11, w12, w13, w14, w15;
+        int t1;
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x428A2F98 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x71374491 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0xB5C0FBCF + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0xE9B5DBA5 + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x3956C25B + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x59F111F1 + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x923F82A4 + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xAB1C5ED5 + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x5807AA98;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x12835B01;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x243185BE;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x550C7DC3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x72BE5D74;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x80DEB1FE;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x9BDC06A7;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xC19BF274;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w0 += (rotateRight(w1, 7) ^ rotateRight(w1, 18) ^ w1 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0xE49B69C1 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 += (rotateRight(w2, 7) ^ rotateRight(w2, 18) ^ w2 >>> 3) + 0x00A00000;
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xEFBE4786 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 += (rotateRight(w0, 17) ^ rotateRight(w0, 19) ^ w0 >>> 10) + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x0FC19DC6 + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += (rotateRight(w1, 17) ^ rotateRight(w1, 19) ^ w1 >>> 10) + (rotateRight(w4, 7) ^ rotateRight(w4, 18) ^ w4 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x240CA1CC + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 += (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + (rotateRight(w5, 7) ^ rotateRight(w5, 18) ^ w5 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x2DE92C6F + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 += (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10) + (rotateRight(w6, 7) ^ rotateRight(w6, 18) ^ w6 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x4A7484AA + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 += (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + (rotateRight(w7, 7) ^ rotateRight(w7, 18) ^ w7 >>> 3) + 0x00000100;
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x5CB0A9DC + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 += (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0 + 0x11002000;
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x76F988DA + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 = (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1 + 0x80000000;
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x983E5152 + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 = (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2;
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xA831C66D + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 = (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3;
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0xB00327C8 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 = (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4;
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0xBF597FC7 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 = (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5;
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0xC6E00BF3 + w12;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 = (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6;
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xD5A79147 + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 = (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + 0x00400022;
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x06CA6351 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 = (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3) + 0x00000100;
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x14292967 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        return secondRounds32(topMask, a, b, c, d, e, f, g, h,
+                w0, w1, w2, w3, w4, w5, w6, w7, w8, w9, w10, w11, w12, w13, w14, w15);
+    }
+
+    private void rounds32(int a, int b, int c, int d, int e, int f, int g, int h,
+                            int w0, int w1, int w2, int w3, int w4, int w5, int w6, int w7,
+                            int w8, int w9, int w10, int w11, int w12, int w13, int w14, int w15) {
+        int t1;
+        w0 += (rotateRight(w14, 17) ^ rotateRight(w14, 19) ^ w14 >>> 10) + w9 + (rotateRight(w1, 7) ^ rotateRight(w1, 18) ^ w1 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x27B70A85 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 += (rotateRight(w15, 17) ^ rotateRight(w15, 19) ^ w15 >>> 10) + w10 + (rotateRight(w2, 7) ^ rotateRight(w2, 18) ^ w2 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x2E1B2138 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 += (rotateRight(w0, 17) ^ rotateRight(w0, 19) ^ w0 >>> 10) + w11 + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x4D2C6DFC + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += (rotateRight(w1, 17) ^ rotateRight(w1, 19) ^ w1 >>> 10) + w12 + (rotateRight(w4, 7) ^ rotateRight(w4, 18) ^ w4 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x53380D13 + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 += (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + w13 + (rotateRight(w5, 7) ^ rotateRight(w5, 18) ^ w5 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x650A7354 + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 += (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10) + w14 + (rotateRight(w6, 7) ^ rotateRight(w6, 18) ^ w6 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x766A0ABB + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 += (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + w15 + (rotateRight(w7, 7) ^ rotateRight(w7, 18) ^ w7 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x81C2C92E + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 += (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0 + (rotateRight(w8, 7) ^ rotateRight(w8, 18) ^ w8 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x92722C85 + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 += (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1 + (rotateRight(w9, 7) ^ rotateRight(w9, 18) ^ w9 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0xA2BFE8A1 + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 += (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2 + (rotateRight(w10, 7) ^ rotateRight(w10, 18) ^ w10 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xA81A664B + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 += (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3 + (rotateRight(w11, 7) ^ rotateRight(w11, 18) ^ w11 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0xC24B8B70 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 += (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4 + (rotateRight(w12, 7) ^ rotateRight(w12, 18) ^ w12 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0xC76C51A3 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 += (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5 + (rotateRight(w13, 7) ^ rotateRight(w13, 18) ^ w13 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0xD192E819 + w12;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 += (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6 + (rotateRight(w14, 7) ^ rotateRight(w14, 18) ^ w14 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xD6990624 + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 += (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + (rotateRight(w15, 7) ^ rotateRight(w15, 18) ^ w15 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0xF40E3585 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 += (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x106AA070 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w0 += (rotateRight(w14, 17) ^ rotateRight(w14, 19) ^ w14 >>> 10) + w9 + (rotateRight(w1, 7) ^ rotateRight(w1, 18) ^ w1 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x19A4C116 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 += (rotateRight(w15, 17) ^ rotateRight(w15, 19) ^ w15 >>> 10) + w10 + (rotateRight(w2, 7) ^ rotateRight(w2, 18) ^ w2 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x1E376C08 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 += (rotateRight(w0, 17) ^ rotateRight(w0, 19) ^ w0 >>> 10) + w11 + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x2748774C + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += (rotateRight(w1, 17) ^ rotateRight(w1, 19) ^ w1 >>> 10) + w12 + (rotateRight(w4, 7) ^ rotateRight(w4, 18) ^ w4 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x34B0BCB5 + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 += (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + w13 + (rotateRight(w5, 7) ^ rotateRight(w5, 18) ^ w5 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x391C0CB3 + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 += (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10) + w14 + (rotateRight(w6, 7) ^ rotateRight(w6, 18) ^ w6 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x4ED8AA4A + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 += (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + w15 + (rotateRight(w7, 7) ^ rotateRight(w7, 18) ^ w7 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x5B9CCA4F + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 += (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0 + (rotateRight(w8, 7) ^ rotateRight(w8, 18) ^ w8 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x682E6FF3 + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 += (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1 + (rotateRight(w9, 7) ^ rotateRight(w9, 18) ^ w9 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x748F82EE + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 += (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2 + (rotateRight(w10, 7) ^ rotateRight(w10, 18) ^ w10 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x78A5636F + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 += (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3 + (rotateRight(w11, 7) ^ rotateRight(w11, 18) ^ w11 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x84C87814 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 += (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4 + (rotateRight(w12, 7) ^ rotateRight(w12, 18) ^ w12 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x8CC70208 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 += (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5 + (rotateRight(w13, 7) ^ rotateRight(w13, 18) ^ w13 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x90BEFFFA + w12;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 += (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6 + (rotateRight(w14, 7) ^ rotateRight(w14, 18) ^ w14 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xA4506CEB + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 += (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + (rotateRight(w15, 7) ^ rotateRight(w15, 18) ^ w15 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0xBEF9A3F7 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 += (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xC67178F2 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        s0 = a;
+        s1 = b;
+        s2 = c;
+        s3 = d;
+        s4 = e;
+        s5 = f;
+        s6 = g;
+        s7 = h;
+    }
+
+    private boolean secondRounds32(int topMask, int a, int b, int c, int d, int e, int f, int g, int h,
+                            int w0, int w1, int w2, int w3, int w4, int w5, int w6, int w7,
+                            int w8, int w9, int w10, int w11, int w12, int w13, int w14, int w15) {
+        int t1;
+        w0 += (rotateRight(w14, 17) ^ rotateRight(w14, 19) ^ w14 >>> 10) + w9 + (rotateRight(w1, 7) ^ rotateRight(w1, 18) ^ w1 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x27B70A85 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 += (rotateRight(w15, 17) ^ rotateRight(w15, 19) ^ w15 >>> 10) + w10 + (rotateRight(w2, 7) ^ rotateRight(w2, 18) ^ w2 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x2E1B2138 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 += (rotateRight(w0, 17) ^ rotateRight(w0, 19) ^ w0 >>> 10) + w11 + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x4D2C6DFC + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += (rotateRight(w1, 17) ^ rotateRight(w1, 19) ^ w1 >>> 10) + w12 + (rotateRight(w4, 7) ^ rotateRight(w4, 18) ^ w4 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x53380D13 + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 += (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + w13 + (rotateRight(w5, 7) ^ rotateRight(w5, 18) ^ w5 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x650A7354 + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 += (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10) + w14 + (rotateRight(w6, 7) ^ rotateRight(w6, 18) ^ w6 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x766A0ABB + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 += (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + w15 + (rotateRight(w7, 7) ^ rotateRight(w7, 18) ^ w7 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x81C2C92E + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 += (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0 + (rotateRight(w8, 7) ^ rotateRight(w8, 18) ^ w8 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x92722C85 + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 += (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1 + (rotateRight(w9, 7) ^ rotateRight(w9, 18) ^ w9 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0xA2BFE8A1 + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 += (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2 + (rotateRight(w10, 7) ^ rotateRight(w10, 18) ^ w10 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xA81A664B + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 += (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3 + (rotateRight(w11, 7) ^ rotateRight(w11, 18) ^ w11 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0xC24B8B70 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 += (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4 + (rotateRight(w12, 7) ^ rotateRight(w12, 18) ^ w12 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0xC76C51A3 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 += (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5 + (rotateRight(w13, 7) ^ rotateRight(w13, 18) ^ w13 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0xD192E819 + w12;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 += (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6 + (rotateRight(w14, 7) ^ rotateRight(w14, 18) ^ w14 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xD6990624 + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 += (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + (rotateRight(w15, 7) ^ rotateRight(w15, 18) ^ w15 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0xF40E3585 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 += (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x106AA070 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w0 += (rotateRight(w14, 17) ^ rotateRight(w14, 19) ^ w14 >>> 10) + w9 + (rotateRight(w1, 7) ^ rotateRight(w1, 18) ^ w1 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x19A4C116 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 += (rotateRight(w15, 17) ^ rotateRight(w15, 19) ^ w15 >>> 10) + w10 + (rotateRight(w2, 7) ^ rotateRight(w2, 18) ^ w2 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x1E376C08 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 += (rotateRight(w0, 17) ^ rotateRight(w0, 19) ^ w0 >>> 10) + w11 + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x2748774C + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += (rotateRight(w1, 17) ^ rotateRight(w1, 19) ^ w1 >>> 10) + w12 + (rotateRight(w4, 7) ^ rotateRight(w4, 18) ^ w4 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x34B0BCB5 + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 += (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + w13 + (rotateRight(w5, 7) ^ rotateRight(w5, 18) ^ w5 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x391C0CB3 + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 += (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10) + w14 + (rotateRight(w6, 7) ^ rotateRight(w6, 18) ^ w6 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x4ED8AA4A + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 += (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + w15 + (rotateRight(w7, 7) ^ rotateRight(w7, 18) ^ w7 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x5B9CCA4F + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 += (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0 + (rotateRight(w8, 7) ^ rotateRight(w8, 18) ^ w8 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x682E6FF3 + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 += (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1 + (rotateRight(w9, 7) ^ rotateRight(w9, 18) ^ w9 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x748F82EE + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 += (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2 + (rotateRight(w10, 7) ^ rotateRight(w10, 18) ^ w10 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x78A5636F + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 += (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3 + (rotateRight(w11, 7) ^ rotateRight(w11, 18) ^ w11 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x84C87814 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 += (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4 + (rotateRight(w12, 7) ^ rotateRight(w12, 18) ^ w12 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x8CC70208 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 += (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5 + (rotateRight(w13, 7) ^ rotateRight(w13, 18) ^ w13 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x90BEFFFA + w12;
+        h += t1;
+        // h is final, hash[7] = H7 + h
+        int h7 = H7 + h;
+        leadingZeros.record(h7);
+        if ((h7 & topMask) != 0)
+            return false;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 += (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6 + (rotateRight(w14, 7) ^ rotateRight(w14, 18) ^ w14 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xA4506CEB + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 += (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + (rotateRight(w15, 7) ^ rotateRight(w15, 18) ^ w15 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0xBEF9A3F7 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 += (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xC67178F2 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        s0 = a;
+        s1 = b;
+        s2 = c;
+        s3 = d;
+        s4 = e;
+        s5 = f;
+        s6 = g;
+        s7 = h;
+        return true;
+    }
+}
@@ -0,0 +1,161 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.SteadyStateBench;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * {@link JavaMiner} hash rate for 1 to N threads : speedup, per thread efficiency and the knee of the curve, where
+ * adding a thread gains less than half a single thread rate (usually past the physical cores on SMT hosts).<br/>
+ * The best thread count of a host can be selected with <code>-threads auto</code> : the sweep runs once, and its result
+ * is cached in <code>~/.bcminer/threads-&lt;host&gt;.properties</code>, by engine and available processors.<br/>
+ * Usage : <code>ThreadScaling [max threads] [seconds per point] [engine]</code>.
+ */
+public final class ThreadScaling {
+
+    public static final String AUTO = "auto";
+
+    // seconds per thread count of the auto selection sweep
+    public static final double AUTO_SECONDS = 1;
+
+    // marginal gain of an added thread below which the curve is past its knee, relative to the single thread rate
+    public static final double KNEE_GAIN = 0.5;
+
+    public record Point(int threads, double mhps) {
+    }
+
+    /**
+     * @param points sweep points, from 1 thread
+     */
+    public record Sweep(List<Point> points) {
+        public double speedup(int index) {
+            return points.get(index).mhps() / points.get(0).mhps();
+        }
+
+        /**
+         * @return speedup per thread, 1 for a perfect scaling
+         */
+        public double efficiency(int index) {
+            return speedup(index) / points.get(index).threads();
+        }
+
+        /**
+         * @return the thread count after which an added thread gains less than {@link #KNEE_GAIN} single thread rate
+         */
+        public int knee() {
+            double single = points.get(0).mhps();
+            for (int i = 1; i < points.size(); i++) {
+                if (points.get(i).mhps() - points.get(i - 1).mhps() < KNEE_GAIN * single)
+                    return points.get(i - 1).threads();
+            }
+            return points.get(points.size() - 1).threads();
+        }
+
+        /**
+         * @return the thread count with the best hash rate
+         */
+        public int best() {
+            Point best = points.get(0);
+            for (Point point : points) {
+                if (point.mhps() > best.mhps())
+                    best = point;
+            }
+            return best.threads();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format("%8s %10s %8s %10s%n", "threads", "MH/s", "speedup", "efficiency"));
+            for (int i = 0; i < points.size(); i++)
+                sb.append(String.format("%8d %10.2f %8.2f %9.0f%%%n", points.get(i).threads(), points.get(i).mhps(), speedup(i), efficiency(i) * 100));
+            sb.append(String.format("knee at %d threads, best at %d threads%n", knee(), best()));
+            return sb.toString();
+        }
+    }
+
+    private ThreadScaling() {
+    }
+
+    /**
+     * Measure the hash rate of 1 to maxThreads threads, a warmup and a measured iteration of the given duration each
+     */
+    public static Sweep sweep(HashEngine engine, int maxThreads, double seconds) {
+        List<Point> points = new ArrayList<>();
+        SteadyStateBench.Options options = new SteadyStateBench.Options(1, 1, seconds, 0, 0);
+        for (int threads = 1; threads <= maxThreads; threads++) {
+            try (JavaMiner miner = new JavaMiner(threads, engine)) {
+                List<SteadyStateBench.Iteration> iterations = SteadyStateBench.iterate(miner, options, 0);
+                points.add(new Point(threads, iterations.get(iterations.size() - 1).mhps()));
+            }
+        }
+        return new Sweep(points);
+    }
+
+    /**
+     * @param threads a thread count, or {@link #AUTO}
+     */
+    public static int parseThreads(String threads, String engine, int interleave) {
+        if (threads.equalsIgnoreCase(AUTO))
+            return autoThreads(cacheFile(), engine, interleave);
+        return Integer.parseInt(threads);
+    }
+
+    /**
+     * @return the best thread count from the cache file, or from a sweep up to the available processors, then cached
+     */
+    public static int autoThreads(Path cacheFile, String engine, int interleave) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        String key = engine + (engine.equals(HashEngine.INTERLEAVED) ? "-" + interleave : "") + "." + processors;
+        Properties cache = new Properties();
+        try {
+            if (Files.exists(cacheFile)) {
+                try (Reader reader = Files.newBufferedReader(cacheFile)) {
+                    cache.load(reader);
+                }
+            }
+            String cached = cache.getProperty(key);
+            if (cached != null)
+                return Integer.parseInt(cached);
+
+            System.out.printf("Selecting the best thread count for the %s engine (1 to %d threads)%n", engine, processors);
+            Sweep sweep = sweep(HashEngine.forName(engine, interleave), processors, AUTO_SECONDS);
+            System.out.print(sweep);
+            cache.setProperty(key, Integer.toString(sweep.best()));
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(cacheFile)) {
+                cache.store(writer, "JavaMiner best thread count by engine.availableProcessors");
+            }
+            return sweep.best();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static Path cacheFile() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return Path.of(System.getProperty("user.home"), ".bcminer", "threads-" + host + ".properties");
+    }
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+        String engine = args.length > 2 ? args[2] : HashEngine.SCALAR;
+        System.out.print(sweep(HashEngine.forName(engine), maxThreads, seconds));
+    }
+
+}
@@ -0,0 +1,657 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.LeadingZeros;
+
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static com.infine.demo.bcminer.java.Sha256.PRE_MIDSTATE;
+import static com.infine.demo.bcminer.java.Sha256.PRE_STATE;
+import static com.infine.demo.bcminer.java.Sha256.PRE_T1;
+import static com.infine.demo.bcminer.java.Sha256.PRE_T2;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W16;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W17;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W18;
+import static com.infine.demo.bcminer.java.Sha256.PRE_W19;
+import static java.lang.Integer.rotateRight;
+
+/**
+ * Double sha-256 {@link NonceHasher} with fully unrolled message schedule and rounds.<br/>
+ * The 16 message words and the 8 working variables are held in locals, the working variables names are rotated every
+ * round instead of shifting the values, so the JIT can keep the whole compression state in registers. Only the
+ * compression result goes through fields.<br/>
+ * The header second chunk starts from the {@link Sha256#precompute(int[], BlockHeader) precomputed} state at round 3,
+ * only the nonce dependent work is done per nonce. The constant padding words of both blocks are folded at generation
+ * time in the K + W sums and in the message expansion.<br/>
+ * The last hash word, tested first by the {@link HashPredicate}, is final after round 60 of the second hash : nonces
+ * that can not match are rejected there, the last rounds and the feed forward are only computed for survivors.<br/>
+ * Rounds are split in two methods to stay below the JIT huge method limit (8000 bytes of bytecode), and the sigma,
+ * ch and maj functions are written inline since calls to the {@link Sha256} helpers would exceed the C2 inlining budget.
+ */
+final class UnrolledHasher implements NonceHasher {
+
+    private static final int H0 = 0x6A09E667, H1 = 0xBB67AE85, H2 = 0x3C6EF372, H3 = 0xA54FF53A,
+            H4 = 0x510E527F, H5 = 0x9B05688C, H6 = 0x1F83D9AB, H7 = 0x5BE0CD19;
+
+    // midstate
+    private final int m0, m1, m2, m3, m4, m5, m6, m7;
+    // working variables after the 3 first rounds of the header second chunk
+    private final int p0, p1, p2, p3, p4, p5, p6, p7;
+    // nonce independent parts of round 3 and of the message expansion
+    private final int t1Part, t2, w16, w17, w18Part, w19Part;
+
+    private final HashPredicate predicate;
+    // predicate mask of the last hash word
+    private final int topMask;
+    private final int[] hash = new int[H_INTS];
+    private final LeadingZeros leadingZeros = new LeadingZeros();
+
+    private long earlyRejected;
+
+    // last compression result (without feed forward)
+    private int s0, s1, s2, s3, s4, s5, s6, s7;
+
+    UnrolledHasher(BlockHeader header, int[] precomputed, HashPredicate predicate) {
+        m0 = precomputed[PRE_MIDSTATE];
+        m1 = precomputed[PRE_MIDSTATE + 1];
+        m2 = precomputed[PRE_MIDSTATE + 2];
+        m3 = precomputed[PRE_MIDSTATE + 3];
+        m4 = precomputed[PRE_MIDSTATE + 4];
+        m5 = precomputed[PRE_MIDSTATE + 5];
+        m6 = precomputed[PRE_MIDSTATE + 6];
+        m7 = precomputed[PRE_MIDSTATE + 7];
+        p0 = precomputed[PRE_STATE];
+        p1 = precomputed[PRE_STATE + 1];
+        p2 = precomputed[PRE_STATE + 2];
+        p3 = precomputed[PRE_STATE + 3];
+        p4 = precomputed[PRE_STATE + 4];
+        p5 = precomputed[PRE_STATE + 5];
+        p6 = precomputed[PRE_STATE + 6];
+        p7 = precomputed[PRE_STATE + 7];
+        t1Part = precomputed[PRE_T1];
+        t2 = precomputed[PRE_T2];
+        w16 = precomputed[PRE_W16];
+        w17 = precomputed[PRE_W17];
+        w18Part = precomputed[PRE_W18];
+        w19Part = precomputed[PRE_W19];
+        this.predicate = predicate;
+        this.topMask = predicate.wordMask(H_INTS - 1);
+    }
+
+    @Override
+    public boolean test(int nonce) {
+        firstHash(nonce);
+        if (!secondHash(topMask, m0 + s0, m1 + s1, m2 + s2, m3 + s3, m4 + s4, m5 + s5, m6 + s6, m7 + s7)) {
+            earlyRejected++;
+            return false;
+        }
+        updateHash();
+        return predicate.test(hash);
+    }
+
+    @Override
+    public long earlyRejected() {
+        return earlyRejected;
+    }
+
+    @Override
+    public LeadingZeros leadingZeros() {
+        return leadingZeros;
+    }
+
+    /**
+     * Compute the double sha-256 of the header with the given nonce, result is available in {@link #hash()}
+     */
+    void hash(int nonce) {
+        firstHash(nonce);
+        secondHash(0, m0 + s0, m1 + s1, m2 + s2, m3 + s3, m4 + s4, m5 + s5, m6 + s6, m7 + s7);
+        updateHash();
+    }
+
+    int[] hash() {
+        return hash;
+    }
+
+    private void updateHash() {
+        int[] hash = this.hash;
+        hash[0] = H0 + s0;
+        hash[1] = H1 + s1;
+        hash[2] = H2 + s2;
+        hash[3] = H3 + s3;
+        hash[4] = H4 + s4;
+        hash[5] = H5 + s5;
+        hash[6] = H6 + s6;
+        hash[7] = H7 + s7;
+    }
+
+    /**
+     * second chunk of the header, from the precomputed state
+     */
+    private void firstHash(int nonce) {
+        int f = p0, g = p1, h = p2, a = p3, b = p4, c = p5, d = p6, e = p7;
+        int w0, w1, w2, w3 = Integer.reverseBytes(nonce), w4, w5, w6, w7, w8, w9, w10, w11, w12, w13, w14, w15;
+        int t1;
+        t1 = t1Part + w3;
+        a += t1;
+        e = t1 + t2;
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0xB956C25B;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x59F111F1;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x923F82A4;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xAB1C5ED5;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0xD807AA98;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x12835B01;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x243185BE;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x550C7DC3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x72BE5D74;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x80DEB1FE;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x9BDC06A7;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xC19BF3F4;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w0 = w16;
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0xE49B69C1 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 = w17;
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xEFBE4786 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 = w18Part + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x0FC19DC6 + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += w19Part;
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x240CA1CC + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 = (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + 0x80000000;
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x2DE92C6F + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 = (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x4A7484AA + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 = (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + 0x00000280;
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x5CB0A9DC + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 = (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0;
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x76F988DA + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 = (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1;
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x983E5152 + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 = (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2;
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xA831C66D + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 = (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3;
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0xB00327C8 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 = (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4;
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0xBF597FC7 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 = (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5;
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0xC6E00BF3 + w12;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 = (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6;
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xD5A79147 + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 = (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + 0x00A00055;
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x06CA6351 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 = (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3) + 0x00000280;
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x14292967 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        rounds32(a, b, c, d, e, f, g, h,
+                w0, w1, w2, w3, w4, w5, w6, w7, w8, w9, w10, w11, w12, w13, w14, w15);
+    }
+
+    /**
+     * hash of the first hash
+     *
+     * @param topMask mask of the last hash word bits that must be 0
+     * @return false if rejected early by the topMask
+     */
+    private boolean secondHash(int topMask, int w0, int w1, int w2, int w3, int w4, int w5, int w6, int w7) {
+        int a = H0, b = H1, c = H2, d = H3, e = H4, f = H5, g = H6, h = H7;
+        int w8, w9, w10, w11, w12, w13, w14, w15;
+        int t1;
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x428A2F98 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x71374491 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0xB5C0FBCF + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0xE9B5DBA5 + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x3956C25B + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x59F111F1 + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x923F82A4 + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xAB1C5ED5 + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x5807AA98;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x12835B01;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x243185BE;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x550C7DC3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x72BE5D74;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x80DEB1FE;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x9BDC06A7;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xC19BF274;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w0 += (rotateRight(w1, 7) ^ rotateRight(w1, 18) ^ w1 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0xE49B69C1 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 += (rotateRight(w2, 7) ^ rotateRight(w2, 18) ^ w2 >>> 3) + 0x00A00000;
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xEFBE4786 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 += (rotateRight(w0, 17) ^ rotateRight(w0, 19) ^ w0 >>> 10) + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x0FC19DC6 + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += (rotateRight(w1, 17) ^ rotateRight(w1, 19) ^ w1 >>> 10) + (rotateRight(w4, 7) ^ rotateRight(w4, 18) ^ w4 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x240CA1CC + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 += (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + (rotateRight(w5, 7) ^ rotateRight(w5, 18) ^ w5 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x2DE92C6F + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 += (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10) + (rotateRight(w6, 7) ^ rotateRight(w6, 18) ^ w6 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x4A7484AA + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 += (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + (rotateRight(w7, 7) ^ rotateRight(w7, 18) ^ w7 >>> 3) + 0x00000100;
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x5CB0A9DC + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 += (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0 + 0x11002000;
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x76F988DA + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 = (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1 + 0x80000000;
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x983E5152 + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 = (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2;
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xA831C66D + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 = (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3;
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0xB00327C8 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 = (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4;
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0xBF597FC7 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 = (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5;
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0xC6E00BF3 + w12;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 = (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6;
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xD5A79147 + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 = (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + 0x00400022;
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x06CA6351 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 = (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3) + 0x00000100;
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x14292967 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        return secondRounds32(topMask, a, b, c, d, e, f, g, h,
+                w0, w1, w2, w3, w4, w5, w6, w7, w8, w9, w10, w11, w12, w13, w14, w15);
+    }
+
+    private void rounds32(int a, int b, int c, int d, int e, int f, int g, int h,
+                            int w0, int w1, int w2, int w3, int w4, int w5, int w6, int w7,
+                            int w8, int w9, int w10, int w11, int w12, int w13, int w14, int w15) {
+        int t1;
+        w0 += (rotateRight(w14, 17) ^ rotateRight(w14, 19) ^ w14 >>> 10) + w9 + (rotateRight(w1, 7) ^ rotateRight(w1, 18) ^ w1 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x27B70A85 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 += (rotateRight(w15, 17) ^ rotateRight(w15, 19) ^ w15 >>> 10) + w10 + (rotateRight(w2, 7) ^ rotateRight(w2, 18) ^ w2 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x2E1B2138 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 += (rotateRight(w0, 17) ^ rotateRight(w0, 19) ^ w0 >>> 10) + w11 + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x4D2C6DFC + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += (rotateRight(w1, 17) ^ rotateRight(w1, 19) ^ w1 >>> 10) + w12 + (rotateRight(w4, 7) ^ rotateRight(w4, 18) ^ w4 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x53380D13 + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 += (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + w13 + (rotateRight(w5, 7) ^ rotateRight(w5, 18) ^ w5 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x650A7354 + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 += (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10) + w14 + (rotateRight(w6, 7) ^ rotateRight(w6, 18) ^ w6 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x766A0ABB + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 += (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + w15 + (rotateRight(w7, 7) ^ rotateRight(w7, 18) ^ w7 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x81C2C92E + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 += (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0 + (rotateRight(w8, 7) ^ rotateRight(w8, 18) ^ w8 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x92722C85 + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 += (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1 + (rotateRight(w9, 7) ^ rotateRight(w9, 18) ^ w9 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0xA2BFE8A1 + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 += (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2 + (rotateRight(w10, 7) ^ rotateRight(w10, 18) ^ w10 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xA81A664B + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 += (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3 + (rotateRight(w11, 7) ^ rotateRight(w11, 18) ^ w11 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0xC24B8B70 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 += (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4 + (rotateRight(w12, 7) ^ rotateRight(w12, 18) ^ w12 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0xC76C51A3 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 += (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5 + (rotateRight(w13, 7) ^ rotateRight(w13, 18) ^ w13 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0xD192E819 + w12;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 += (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6 + (rotateRight(w14, 7) ^ rotateRight(w14, 18) ^ w14 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xD6990624 + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 += (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + (rotateRight(w15, 7) ^ rotateRight(w15, 18) ^ w15 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0xF40E3585 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 += (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x106AA070 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w0 += (rotateRight(w14, 17) ^ rotateRight(w14, 19) ^ w14 >>> 10) + w9 + (rotateRight(w1, 7) ^ rotateRight(w1, 18) ^ w1 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x19A4C116 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 += (rotateRight(w15, 17) ^ rotateRight(w15, 19) ^ w15 >>> 10) + w10 + (rotateRight(w2, 7) ^ rotateRight(w2, 18) ^ w2 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x1E376C08 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 += (rotateRight(w0, 17) ^ rotateRight(w0, 19) ^ w0 >>> 10) + w11 + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x2748774C + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += (rotateRight(w1, 17) ^ rotateRight(w1, 19) ^ w1 >>> 10) + w12 + (rotateRight(w4, 7) ^ rotateRight(w4, 18) ^ w4 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x34B0BCB5 + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 += (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + w13 + (rotateRight(w5, 7) ^ rotateRight(w5, 18) ^ w5 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x391C0CB3 + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 += (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10) + w14 + (rotateRight(w6, 7) ^ rotateRight(w6, 18) ^ w6 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x4ED8AA4A + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 += (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + w15 + (rotateRight(w7, 7) ^ rotateRight(w7, 18) ^ w7 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x5B9CCA4F + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 += (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0 + (rotateRight(w8, 7) ^ rotateRight(w8, 18) ^ w8 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x682E6FF3 + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 += (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1 + (rotateRight(w9, 7) ^ rotateRight(w9, 18) ^ w9 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x748F82EE + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 += (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2 + (rotateRight(w10, 7) ^ rotateRight(w10, 18) ^ w10 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x78A5636F + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 += (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3 + (rotateRight(w11, 7) ^ rotateRight(w11, 18) ^ w11 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x84C87814 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 += (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4 + (rotateRight(w12, 7) ^ rotateRight(w12, 18) ^ w12 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x8CC70208 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 += (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5 + (rotateRight(w13, 7) ^ rotateRight(w13, 18) ^ w13 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x90BEFFFA + w12;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 += (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6 + (rotateRight(w14, 7) ^ rotateRight(w14, 18) ^ w14 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xA4506CEB + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 += (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + (rotateRight(w15, 7) ^ rotateRight(w15, 18) ^ w15 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0xBEF9A3F7 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 += (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xC67178F2 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        s0 = a;
+        s1 = b;
+        s2 = c;
+        s3 = d;
+        s4 = e;
+        s5 = f;
+        s6 = g;
+        s7 = h;
+    }
+
+    private boolean secondRounds32(int topMask, int a, int b, int c, int d, int e, int f, int g, int h,
+                            int w0, int w1, int w2, int w3, int w4, int w5, int w6, int w7,
+                            int w8, int w9, int w10, int w11, int w12, int w13, int w14, int w15) {
+        int t1;
+        w0 += (rotateRight(w14, 17) ^ rotateRight(w14, 19) ^ w14 >>> 10) + w9 + (rotateRight(w1, 7) ^ rotateRight(w1, 18) ^ w1 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x27B70A85 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 += (rotateRight(w15, 17) ^ rotateRight(w15, 19) ^ w15 >>> 10) + w10 + (rotateRight(w2, 7) ^ rotateRight(w2, 18) ^ w2 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x2E1B2138 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 += (rotateRight(w0, 17) ^ rotateRight(w0, 19) ^ w0 >>> 10) + w11 + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x4D2C6DFC + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += (rotateRight(w1, 17) ^ rotateRight(w1, 19) ^ w1 >>> 10) + w12 + (rotateRight(w4, 7) ^ rotateRight(w4, 18) ^ w4 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x53380D13 + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 += (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + w13 + (rotateRight(w5, 7) ^ rotateRight(w5, 18) ^ w5 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x650A7354 + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 += (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10) + w14 + (rotateRight(w6, 7) ^ rotateRight(w6, 18) ^ w6 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x766A0ABB + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 += (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + w15 + (rotateRight(w7, 7) ^ rotateRight(w7, 18) ^ w7 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x81C2C92E + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 += (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0 + (rotateRight(w8, 7) ^ rotateRight(w8, 18) ^ w8 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x92722C85 + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 += (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1 + (rotateRight(w9, 7) ^ rotateRight(w9, 18) ^ w9 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0xA2BFE8A1 + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 += (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2 + (rotateRight(w10, 7) ^ rotateRight(w10, 18) ^ w10 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0xA81A664B + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 += (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3 + (rotateRight(w11, 7) ^ rotateRight(w11, 18) ^ w11 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0xC24B8B70 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 += (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4 + (rotateRight(w12, 7) ^ rotateRight(w12, 18) ^ w12 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0xC76C51A3 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 += (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5 + (rotateRight(w13, 7) ^ rotateRight(w13, 18) ^ w13 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0xD192E819 + w12;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 += (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6 + (rotateRight(w14, 7) ^ rotateRight(w14, 18) ^ w14 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xD6990624 + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 += (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + (rotateRight(w15, 7) ^ rotateRight(w15, 18) ^ w15 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0xF40E3585 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 += (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x106AA070 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w0 += (rotateRight(w14, 17) ^ rotateRight(w14, 19) ^ w14 >>> 10) + w9 + (rotateRight(w1, 7) ^ rotateRight(w1, 18) ^ w1 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x19A4C116 + w0;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w1 += (rotateRight(w15, 17) ^ rotateRight(w15, 19) ^ w15 >>> 10) + w10 + (rotateRight(w2, 7) ^ rotateRight(w2, 18) ^ w2 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x1E376C08 + w1;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w2 += (rotateRight(w0, 17) ^ rotateRight(w0, 19) ^ w0 >>> 10) + w11 + (rotateRight(w3, 7) ^ rotateRight(w3, 18) ^ w3 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x2748774C + w2;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w3 += (rotateRight(w1, 17) ^ rotateRight(w1, 19) ^ w1 >>> 10) + w12 + (rotateRight(w4, 7) ^ rotateRight(w4, 18) ^ w4 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x34B0BCB5 + w3;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w4 += (rotateRight(w2, 17) ^ rotateRight(w2, 19) ^ w2 >>> 10) + w13 + (rotateRight(w5, 7) ^ rotateRight(w5, 18) ^ w5 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x391C0CB3 + w4;
+        h += t1;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w5 += (rotateRight(w3, 17) ^ rotateRight(w3, 19) ^ w3 >>> 10) + w14 + (rotateRight(w6, 7) ^ rotateRight(w6, 18) ^ w6 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0x4ED8AA4A + w5;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w6 += (rotateRight(w4, 17) ^ rotateRight(w4, 19) ^ w4 >>> 10) + w15 + (rotateRight(w7, 7) ^ rotateRight(w7, 18) ^ w7 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0x5B9CCA4F + w6;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w7 += (rotateRight(w5, 17) ^ rotateRight(w5, 19) ^ w5 >>> 10) + w0 + (rotateRight(w8, 7) ^ rotateRight(w8, 18) ^ w8 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0x682E6FF3 + w7;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        w8 += (rotateRight(w6, 17) ^ rotateRight(w6, 19) ^ w6 >>> 10) + w1 + (rotateRight(w9, 7) ^ rotateRight(w9, 18) ^ w9 >>> 3);
+        t1 = h + (rotateRight(e, 6) ^ rotateRight(e, 11) ^ rotateRight(e, 25)) + (g ^ e & (f ^ g)) + 0x748F82EE + w8;
+        d += t1;
+        h = t1 + (rotateRight(a, 2) ^ rotateRight(a, 13) ^ rotateRight(a, 22)) + (a & b | c & (a | b));
+        w9 += (rotateRight(w7, 17) ^ rotateRight(w7, 19) ^ w7 >>> 10) + w2 + (rotateRight(w10, 7) ^ rotateRight(w10, 18) ^ w10 >>> 3);
+        t1 = g + (rotateRight(d, 6) ^ rotateRight(d, 11) ^ rotateRight(d, 25)) + (f ^ d & (e ^ f)) + 0x78A5636F + w9;
+        c += t1;
+        g = t1 + (rotateRight(h, 2) ^ rotateRight(h, 13) ^ rotateRight(h, 22)) + (h & a | b & (h | a));
+        w10 += (rotateRight(w8, 17) ^ rotateRight(w8, 19) ^ w8 >>> 10) + w3 + (rotateRight(w11, 7) ^ rotateRight(w11, 18) ^ w11 >>> 3);
+        t1 = f + (rotateRight(c, 6) ^ rotateRight(c, 11) ^ rotateRight(c, 25)) + (e ^ c & (d ^ e)) + 0x84C87814 + w10;
+        b += t1;
+        f = t1 + (rotateRight(g, 2) ^ rotateRight(g, 13) ^ rotateRight(g, 22)) + (g & h | a & (g | h));
+        w11 += (rotateRight(w9, 17) ^ rotateRight(w9, 19) ^ w9 >>> 10) + w4 + (rotateRight(w12, 7) ^ rotateRight(w12, 18) ^ w12 >>> 3);
+        t1 = e + (rotateRight(b, 6) ^ rotateRight(b, 11) ^ rotateRight(b, 25)) + (d ^ b & (c ^ d)) + 0x8CC70208 + w11;
+        a += t1;
+        e = t1 + (rotateRight(f, 2) ^ rotateRight(f, 13) ^ rotateRight(f, 22)) + (f & g | h & (f | g));
+        w12 += (rotateRight(w10, 17) ^ rotateRight(w10, 19) ^ w10 >>> 10) + w5 + (rotateRight(w13, 7) ^ rotateRight(w13, 18) ^ w13 >>> 3);
+        t1 = d + (rotateRight(a, 6) ^ rotateRight(a, 11) ^ rotateRight(a, 25)) + (c ^ a & (b ^ c)) + 0x90BEFFFA + w12;
+        h += t1;
+        // h is final, hash[7] = H7 + h
+        int h7 = H7 + h;
+        leadingZeros.record(h7);
+        if ((h7 & topMask) != 0)
+            return false;
+        d = t1 + (rotateRight(e, 2) ^ rotateRight(e, 13) ^ rotateRight(e, 22)) + (e & f | g & (e | f));
+        w13 += (rotateRight(w11, 17) ^ rotateRight(w11, 19) ^ w11 >>> 10) + w6 + (rotateRight(w14, 7) ^ rotateRight(w14, 18) ^ w14 >>> 3);
+        t1 = c + (rotateRight(h, 6) ^ rotateRight(h, 11) ^ rotateRight(h, 25)) + (b ^ h & (a ^ b)) + 0xA4506CEB + w13;
+        g += t1;
+        c = t1 + (rotateRight(d, 2) ^ rotateRight(d, 13) ^ rotateRight(d, 22)) + (d & e | f & (d | e));
+        w14 += (rotateRight(w12, 17) ^ rotateRight(w12, 19) ^ w12 >>> 10) + w7 + (rotateRight(w15, 7) ^ rotateRight(w15, 18) ^ w15 >>> 3);
+        t1 = b + (rotateRight(g, 6) ^ rotateRight(g, 11) ^ rotateRight(g, 25)) + (a ^ g & (h ^ a)) + 0xBEF9A3F7 + w14;
+        f += t1;
+        b = t1 + (rotateRight(c, 2) ^ rotateRight(c, 13) ^ rotateRight(c, 22)) + (c & d | e & (c | d));
+        w15 += (rotateRight(w13, 17) ^ rotateRight(w13, 19) ^ w13 >>> 10) + w8 + (rotateRight(w0, 7) ^ rotateRight(w0, 18) ^ w0 >>> 3);
+        t1 = a + (rotateRight(f, 6) ^ rotateRight(f, 11) ^ rotateRight(f, 25)) + (h ^ f & (g ^ h)) + 0xC67178F2 + w15;
+        e += t1;
+        a = t1 + (rotateRight(b, 2) ^ rotateRight(b, 13) ^ rotateRight(b, 22)) + (b & c | d & (b | c));
+        s0 = a;
+        s1 = b;
+        s2 = c;
+        s3 = d;
+        s4 = e;
+        s5 = f;
+        s6 = g;
+        s7 = h;
+        return true;
+    }
+
+}
@@ -0,0 +1,255 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.LeadingZeros;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static com.infine.demo.bcminer.java.Sha256.BLOCK_INTS;
+import static com.infine.demo.bcminer.java.Sha256.BUFFER_INTS;
+import static com.infine.demo.bcminer.java.Sha256.DEFAULT_H;
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static com.infine.demo.bcminer.java.Sha256.K;
+import static com.infine.demo.bcminer.java.Sha256.PRE_MIDSTATE;
+import static com.infine.demo.bcminer.java.Sha256.PRE_STATE;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+import static jdk.incubator.vector.VectorOperators.ROR;
+
+/**
+ * Double sha-256 {@link NonceHasher} hashing {@link #LANES} nonces per step, one nonce per lane of the preferred
+ * {@link IntVector} species (8 lanes with AVX2, 16 with AVX-512).<br/>
+ * Uses the {@link Sha256#precompute(int[], BlockHeader) precomputed} header values, rejects the lanes on the last hash
+ * word mask, then test the {@link HashPredicate} on the remaining lanes one by one.<br/>
+ * C2 keeps the vectors in registers only if every vector operation is inlined in the method using them, otherwise
+ * each vector is boxed (kilobytes per hash). The work is split in compilation units small enough for the inlining node
+ * budget, exchanging lane major arrays : the message schedule expansion, whose 16 words window stays in registers (each
+ * word stored once, none reloaded), and the round loops of each hash, reading one schedule word per round. The round
+ * loops have a single exit : leaving the second hash loop at round 60 when all the lanes are rejected, as
+ * {@link UnrolledHasher} does, boxes the state vectors as soon as both exits are taken, so the last 3 rounds are
+ * always computed.<br/>
+ * Requires <code>--add-modules jdk.incubator.vector</code>, {@link HashEngine#forName(String)} falls back to the
+ * unrolled engine when the module or a wide enough species is not available.
+ */
+final class VectorHasher implements NonceHasher {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    static final int LANES = SPECIES.length();
+
+    /**
+     * Narrower species do not beat the scalar engines
+     */
+    static final int MIN_LANES = 8;
+
+    private static final int LAST_WORD = (H_INTS - 1) * LANES;
+
+    private final int[] precomputed;
+    private final HashPredicate predicate;
+    private final int topMask;
+
+    // message schedules and hashes, lane major : word i of lane l at i * LANES + l
+    private final int[] w1 = new int[BUFFER_INTS * LANES];
+    private final int[] w2 = new int[BUFFER_INTS * LANES];
+    private final int[] hash = new int[H_INTS * LANES];
+    private final int[] laneHash = new int[H_INTS];
+
+    private long earlyRejected;
+    // leading zeros of the hashed nonces, including the lanes beyond the count of a scan
+    private final LeadingZeros leadingZeros = new LeadingZeros();
+
+    VectorHasher(BlockHeader header, int[] precomputed, HashPredicate predicate) {
+        this.precomputed = precomputed;
+        this.predicate = predicate;
+        this.topMask = predicate.wordMask(H_INTS - 1);
+
+        // nonce independent words of the header second chunk
+        int[] data = header.data();
+        fill(w1, 0, data[BlockHeader.TIME - 1]);
+        fill(w1, 1, data[BlockHeader.TIME]);
+        fill(w1, 2, data[BlockHeader.NBITS]);
+        fill(w1, 4, 0x80000000);
+        fill(w1, BLOCK_INTS - 1, 640);
+
+        // second hash padding
+        fill(w2, H_INTS, 0x80000000);
+        fill(w2, BLOCK_INTS - 1, 256);
+    }
+
+    @Override
+    public boolean test(int nonce) {
+        return scan(nonce, 1, 1) == 0;
+    }
+
+    @Override
+    public int scan(int nonce, int stride, int count) {
+        int[] hash = this.hash;
+        for (int i = 0; i < count; i += LANES) {
+            hash(nonce + i * stride, stride);
+            int lanes = Math.min(LANES, count - i), match = -1;
+            for (int lane = 0; lane < LANES; lane++) {
+                int h7 = hash[LAST_WORD + lane];
+                leadingZeros.record(h7);
+                if (lane >= lanes)
+                    continue;
+                if ((h7 & topMask) != 0)
+                    earlyRejected++;
+                else if (match < 0 && testLane(lane))
+                    match = lane;
+            }
+            if (match >= 0)
+                return i + match;
+        }
+        return -1;
+    }
+
+    @Override
+    public long earlyRejected() {
+        return earlyRejected;
+    }
+
+    @Override
+    public LeadingZeros leadingZeros() {
+        return leadingZeros;
+    }
+
+    // the predicate, word masks then the exact target
+    private boolean testLane(int lane) {
+        for (int i = 0; i < H_INTS; i++)
+            laneHash[i] = hash[i * LANES + lane];
+        return predicate.test(laneHash);
+    }
+
+    /**
+     * Compute the full double sha-256 of LANES nonces : nonce + lane * stride
+     *
+     * @return the hashes, lane major
+     */
+    int[] hash(int nonce, int stride) {
+        int[] w1 = this.w1;
+        for (int lane = 0; lane < LANES; lane++)
+            w1[3 * LANES + lane] = Integer.reverseBytes(nonce + lane * stride);
+        expand(w1);
+        firstHash();
+        expand(w2);
+        secondHash();
+        return hash;
+    }
+
+    /**
+     * Header second chunk rounds, from the state precomputed up to round 3, into the second hash message
+     */
+    private void firstHash() {
+        int[] pre = precomputed, w1 = this.w1;
+        IntVector a = broadcast(pre[PRE_STATE]), b = broadcast(pre[PRE_STATE + 1]), c = broadcast(pre[PRE_STATE + 2]),
+                d = broadcast(pre[PRE_STATE + 3]), e = broadcast(pre[PRE_STATE + 4]), f = broadcast(pre[PRE_STATE + 5]),
+                g = broadcast(pre[PRE_STATE + 6]), h = broadcast(pre[PRE_STATE + 7]);
+        for (int i = 3; i < BUFFER_INTS; i++) {
+            IntVector t1 = h.add(sigma1(e)).add(ch(e, f, g)).add(K[i]).add(IntVector.fromArray(SPECIES, w1, i * LANES));
+            IntVector t2 = sigma0(a).add(maj(a, b, c));
+            h = g;
+            g = f;
+            f = e;
+            e = d.add(t1);
+            d = c;
+            c = b;
+            b = a;
+            a = t1.add(t2);
+        }
+        int[] w2 = this.w2;
+        a.add(pre[PRE_MIDSTATE]).intoArray(w2, 0);
+        b.add(pre[PRE_MIDSTATE + 1]).intoArray(w2, LANES);
+        c.add(pre[PRE_MIDSTATE + 2]).intoArray(w2, 2 * LANES);
+        d.add(pre[PRE_MIDSTATE + 3]).intoArray(w2, 3 * LANES);
+        e.add(pre[PRE_MIDSTATE + 4]).intoArray(w2, 4 * LANES);
+        f.add(pre[PRE_MIDSTATE + 5]).intoArray(w2, 5 * LANES);
+        g.add(pre[PRE_MIDSTATE + 6]).intoArray(w2, 6 * LANES);
+        h.add(pre[PRE_MIDSTATE + 7]).intoArray(w2, 7 * LANES);
+    }
+
+    /**
+     * Hash of the first hash, into {@link #hash}
+     */
+    private void secondHash() {
+        int[] w2 = this.w2;
+        IntVector a = broadcast(DEFAULT_H[0]), b = broadcast(DEFAULT_H[1]), c = broadcast(DEFAULT_H[2]),
+                d = broadcast(DEFAULT_H[3]), e = broadcast(DEFAULT_H[4]), f = broadcast(DEFAULT_H[5]),
+                g = broadcast(DEFAULT_H[6]), h = broadcast(DEFAULT_H[7]);
+        for (int i = 0; i < BUFFER_INTS; i++) {
+            IntVector t1 = h.add(sigma1(e)).add(ch(e, f, g)).add(K[i]).add(IntVector.fromArray(SPECIES, w2, i * LANES));
+            IntVector t2 = sigma0(a).add(maj(a, b, c));
+            h = g;
+            g = f;
+            f = e;
+            e = d.add(t1);
+            d = c;
+            c = b;
+            b = a;
+            a = t1.add(t2);
+        }
+        int[] hash = this.hash;
+        a.add(DEFAULT_H[0]).intoArray(hash, 0);
+        b.add(DEFAULT_H[1]).intoArray(hash, LANES);
+        c.add(DEFAULT_H[2]).intoArray(hash, 2 * LANES);
+        d.add(DEFAULT_H[3]).intoArray(hash, 3 * LANES);
+        e.add(DEFAULT_H[4]).intoArray(hash, 4 * LANES);
+        f.add(DEFAULT_H[5]).intoArray(hash, 5 * LANES);
+        g.add(DEFAULT_H[6]).intoArray(hash, 6 * LANES);
+        h.add(DEFAULT_H[7]).intoArray(hash, 7 * LANES);
+    }
+
+    /**
+     * Message schedule W16..W63 of the message W0..W15, the 16 words window kept in registers : each word is stored
+     * once and never reloaded by the schedule
+     */
+    private static void expand(int[] w) {
+        IntVector w0 = IntVector.fromArray(SPECIES, w, 0), w1 = IntVector.fromArray(SPECIES, w, LANES),
+                w2 = IntVector.fromArray(SPECIES, w, 2 * LANES), w3 = IntVector.fromArray(SPECIES, w, 3 * LANES),
+                w4 = IntVector.fromArray(SPECIES, w, 4 * LANES), w5 = IntVector.fromArray(SPECIES, w, 5 * LANES),
+                w6 = IntVector.fromArray(SPECIES, w, 6 * LANES), w7 = IntVector.fromArray(SPECIES, w, 7 * LANES),
+                w8 = IntVector.fromArray(SPECIES, w, 8 * LANES), w9 = IntVector.fromArray(SPECIES, w, 9 * LANES),
+                w10 = IntVector.fromArray(SPECIES, w, 10 * LANES), w11 = IntVector.fromArray(SPECIES, w, 11 * LANES),
+                w12 = IntVector.fromArray(SPECIES, w, 12 * LANES), w13 = IntVector.fromArray(SPECIES, w, 13 * LANES),
+                w14 = IntVector.fromArray(SPECIES, w, 14 * LANES), w15 = IntVector.fromArray(SPECIES, w, 15 * LANES);
+        for (int i = BLOCK_INTS; i < BUFFER_INTS; i++) {
+            IntVector w16 = gamma1(w14).add(w9).add(gamma0(w1)).add(w0);
+            w16.intoArray(w, i * LANES);
+            w0 = w1; w1 = w2; w2 = w3; w3 = w4; w4 = w5; w5 = w6; w6 = w7; w7 = w8;
+            w8 = w9; w9 = w10; w10 = w11; w11 = w12; w12 = w13; w13 = w14; w14 = w15; w15 = w16;
+        }
+    }
+
+    private static void fill(int[] w, int index, int value) {
+        for (int lane = 0; lane < LANES; lane++)
+            w[index * LANES + lane] = value;
+    }
+
+    private static IntVector broadcast(int value) {
+        return IntVector.broadcast(SPECIES, value);
+    }
+
+    private static IntVector ch(IntVector x, IntVector y, IntVector z) {
+        return z.lanewise(VectorOperators.XOR, x.and(y.lanewise(VectorOperators.XOR, z)));
+    }
+
+    private static IntVector maj(IntVector x, IntVector y, IntVector z) {
+        return x.and(y).or(z.and(x.or(y)));
+    }
+
+    private static IntVector sigma0(IntVector x) {
+        return x.lanewise(ROR, 2).lanewise(VectorOperators.XOR, x.lanewise(ROR, 13)).lanewise(VectorOperators.XOR, x.lanewise(ROR, 22));
+    }
+
+    private static IntVector sigma1(IntVector x) {
+        return x.lanewise(ROR, 6).lanewise(VectorOperators.XOR, x.lanewise(ROR, 11)).lanewise(VectorOperators.XOR, x.lanewise(ROR, 25));
+    }
+
+    private static IntVector gamma0(IntVector x) {
+        return x.lanewise(ROR, 7).lanewise(VectorOperators.XOR, x.lanewise(ROR, 18)).lanewise(VectorOperators.XOR, x.lanewise(LSHR, 3));
+    }
+
+    private static IntVector gamma1(IntVector x) {
+        return x.lanewise(ROR, 17).lanewise(VectorOperators.XOR, x.lanewise(ROR, 19)).lanewise(VectorOperators.XOR, x.lanewise(LSHR, 10));
+    }
+}
@@ -0,0 +1,83 @@
+package com.infine.demo.bcminer.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Flight recording of the JVM and miner events to a <code>.jfr</code> file, {@link com.infine.demo.bcminer.Bench}
+ * <code>-jfr</code> option.<br/>
+ * Uses the JDK <code>profile</code> configuration (GC, safepoints, CPU load, method sampling...), with all the miner
+ * events enabled : open the file in JDK Mission Control, or <code>jfr print --categories "Bitcoin Miner"</code>.
+ */
+public final class FlightRecording implements AutoCloseable {
+
+    public static final String JFR_OPTION = "-jfr";
+
+    public static final String CONFIGURATION = "profile";
+
+    private static final String[] EVENTS = {JobEvent.NAME, PassEvent.NAME, HashRateEvent.NAME, NonceFoundEvent.NAME, JobSwitchEvent.NAME};
+
+    private final Recording recording;
+    private final Path file;
+
+    private FlightRecording(Recording recording, Path file) {
+        this.recording = recording;
+        this.file = file;
+    }
+
+    /**
+     * @return the started recording, dumped to the file when closed
+     */
+    public static FlightRecording start(Path file) {
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration(CONFIGURATION));
+            recording.setDestination(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JFR configuration " + CONFIGURATION, e);
+        }
+        recording.setName("bcminer");
+        recording.setToDisk(true);
+        for (String event : EVENTS)
+            recording.enable(event).withThreshold(Duration.ZERO);
+        recording.start();
+        System.out.printf("Recording JFR events to %s%n", file);
+        return new FlightRecording(recording, file);
+    }
+
+    /**
+     * @return the recording file of the <code>-jfr</code> command line option, or null if absent
+     */
+    @Nullable
+    public static Path parseFile(String[] args) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(JFR_OPTION))
+                return Path.of(args[i + 1]);
+        }
+        return null;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /**
+     * Stop the recording, and write it to its file
+     */
+    @Override
+    public void close() {
+        recording.stop();
+        recording.close();
+        System.out.printf("JFR recording written to %s%n", file);
+    }
+
+}
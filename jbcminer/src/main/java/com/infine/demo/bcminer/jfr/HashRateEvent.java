@@ -0,0 +1,50 @@
+package com.infine.demo.bcminer.jfr;
+
+import com.infine.demo.bcminer.HashRate;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link com.infine.demo.bcminer.MinerStats#sample()} of the hash rate, in hashes per second
+ */
+@Name(HashRateEvent.NAME)
+@Label("Hash Rate")
+@Category("Bitcoin Miner")
+@StackTrace(false)
+public class HashRateEvent extends Event {
+
+    public static final String NAME = "com.infine.bcminer.HashRate";
+
+    @Label("Engine")
+    public String engine;
+
+    @Label("Total Hashes")
+    public long totalHashes;
+
+    @Label("Last 1s")
+    public double rate1s;
+
+    @Label("Last 10s")
+    public double rate10s;
+
+    @Label("Last 60s")
+    public double rate60s;
+
+    public static void commit(@Nullable String engine, long totalHashes, HashRate hashRate) {
+        HashRateEvent event = new HashRateEvent();
+        if (event.shouldCommit()) {
+            event.engine = engine;
+            event.totalHashes = totalHashes;
+            event.rate1s = hashRate.rate1s();
+            event.rate10s = hashRate.rate10s();
+            event.rate60s = hashRate.rate60s();
+            event.commit();
+        }
+    }
+
+}
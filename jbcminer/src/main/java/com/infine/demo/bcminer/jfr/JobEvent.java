@@ -0,0 +1,73 @@
+package com.infine.demo.bcminer.jfr;
+
+import com.infine.demo.bcminer.MinerStats;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Unsigned;
+
+import javax.annotation.Nullable;
+
+/**
+ * A mine call, from its start to its return : matched, exhausted, cancelled or superseded by another job.
+ */
+@Name(JobEvent.NAME)
+@Label("Mining Job")
+@Category({"Bitcoin Miner", "Job"})
+public class JobEvent extends Event {
+
+    public static final String NAME = "com.infine.bcminer.Job";
+
+    @Label("Miner")
+    public String miner;
+
+    @Label("Start Nonce")
+    @Unsigned
+    public int startNonce;
+
+    @Label("Hashes")
+    public long hashes;
+
+    @Label("Hash Rate")
+    @Description("Million hashes per second")
+    public double mhps;
+
+    @Label("Matched")
+    public boolean matched;
+
+    @Label("Nonce")
+    @Description("Matched nonce")
+    @Unsigned
+    public int nonce;
+
+    /**
+     * @return the started event, to {@link #end(Integer, MinerStats)} when the mine returns
+     */
+    public static JobEvent begin(String miner, int startNonce) {
+        JobEvent event = new JobEvent();
+        event.begin();
+        event.miner = miner;
+        event.startNonce = startNonce;
+        return event;
+    }
+
+    /**
+     * Commit the job event, and a {@link NonceFoundEvent} if matched
+     */
+    public void end(@Nullable Integer matchedNonce, MinerStats stats) {
+        end();
+        if (shouldCommit()) {
+            MinerStats.Snapshot snapshot = stats.snapshot();
+            hashes = snapshot.totalHashes();
+            mhps = snapshot.mhps();
+            matched = matchedNonce != null;
+            nonce = matched ? matchedNonce : 0;
+            commit();
+        }
+        if (matchedNonce != null)
+            NonceFoundEvent.commit(miner, matchedNonce, stats.totalHashes());
+    }
+
+}
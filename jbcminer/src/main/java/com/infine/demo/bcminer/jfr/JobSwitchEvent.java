@@ -0,0 +1,35 @@
+package com.infine.demo.bcminer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Delay from a mine call to its first hashed nonces, including the wait for the workers of the previous job
+ */
+@Name(JobSwitchEvent.NAME)
+@Label("Job Switch")
+@Category({"Bitcoin Miner", "Job"})
+public class JobSwitchEvent extends Event {
+
+    public static final String NAME = "com.infine.bcminer.JobSwitch";
+
+    @Label("Miner")
+    public String miner;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    public long latency;
+
+    public static void commit(String miner, long latencyNanos) {
+        JobSwitchEvent event = new JobSwitchEvent();
+        if (event.shouldCommit()) {
+            event.miner = miner;
+            event.latency = latencyNanos;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.infine.demo.bcminer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Unsigned;
+
+/**
+ * A nonce matching the header target
+ */
+@Name(NonceFoundEvent.NAME)
+@Label("Nonce Found")
+@Category({"Bitcoin Miner", "Job"})
+public class NonceFoundEvent extends Event {
+
+    public static final String NAME = "com.infine.bcminer.NonceFound";
+
+    @Label("Miner")
+    public String miner;
+
+    @Label("Nonce")
+    @Unsigned
+    public int nonce;
+
+    @Label("Hashes")
+    public long hashes;
+
+    public static void commit(String miner, int nonce, long hashes) {
+        NonceFoundEvent event = new NonceFoundEvent();
+        if (event.shouldCommit()) {
+            event.miner = miner;
+            event.nonce = nonce;
+            event.hashes = hashes;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.infine.demo.bcminer.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Unsigned;
+
+/**
+ * A GPU kernel pass, from its launch to the read back of its result.<br/>
+ * Begin a new event for each pass : when the event is disabled, the JIT removes its allocation.
+ */
+@Name(PassEvent.NAME)
+@Label("Mining Pass")
+@Category({"Bitcoin Miner", "Device"})
+@StackTrace(false)
+public class PassEvent extends Event {
+
+    public static final String NAME = "com.infine.bcminer.Pass";
+
+    @Label("Device")
+    public String device;
+
+    @Label("Pass")
+    @Unsigned
+    public long pass;
+
+    @Label("Base Nonce")
+    @Unsigned
+    public int baseNonce;
+
+    @Label("Nonces")
+    @Unsigned
+    public int nonces;
+
+    @Label("Matched")
+    public boolean matched;
+
+    /**
+     * Commit the pass if enabled and above the duration threshold
+     *
+     * @param nonces hashed nonces, up to the matched one
+     */
+    public void end(String device, long pass, int baseNonce, int nonces, boolean matched) {
+        end();
+        if (shouldCommit()) {
+            this.device = device;
+            this.pass = pass;
+            this.baseNonce = baseNonce;
+            this.nonces = nonces;
+            this.matched = matched;
+            commit();
+        }
+    }
+
+}
@@ -1,11 +1,796 @@
 #include "com_infine_demo_bcminer_cpp_CppMiner.h"
 
-JNIEXPORT jlong JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_getTotalHashes (JNIEnv*, jobject) 
+#include <algorithm>
+#include <atomic>
+#include <chrono>
+#include <condition_variable>
+#include <cstdint>
+#include <cstring>
+#include <memory>
+#include <mutex>
+#include <thread>
+#include <vector>
+
+#if defined(__x86_64__) || defined(_M_X64)
+#include <immintrin.h>
+#if defined(__GNUC__)
+#include <cpuid.h>
+#define CPPMINER_AVX2 __attribute__((target("avx2")))
+#define CPPMINER_SHA __attribute__((target("sha,sse4.1")))
+#else
+#include <intrin.h>
+#define CPPMINER_AVX2
+#define CPPMINER_SHA
+#endif
+#define CPPMINER_X86
+#endif
+
+#if defined(__aarch64__) || defined(_M_ARM64)
+#include <arm_neon.h>
+#if defined(__linux__)
+#include <sys/auxv.h>
+#include <asm/hwcap.h>
+#endif
+#if defined(__clang__)
+#define CPPMINER_SHA2 __attribute__((target("sha2")))
+#elif defined(__GNUC__)
+#define CPPMINER_SHA2 __attribute__((target("+crypto")))
+#else
+#define CPPMINER_SHA2
+#endif
+#define CPPMINER_ARM
+#endif
+
+namespace {
+
+	constexpr uint32_t K[64] = {
+		0x428A2F98, 0x71374491, 0xB5C0FBCF, 0xE9B5DBA5, 0x3956C25B, 0x59F111F1, 0x923F82A4, 0xAB1C5ED5,
+		0xD807AA98, 0x12835B01, 0x243185BE, 0x550C7DC3, 0x72BE5D74, 0x80DEB1FE, 0x9BDC06A7, 0xC19BF174,
+		0xE49B69C1, 0xEFBE4786, 0x0FC19DC6, 0x240CA1CC, 0x2DE92C6F, 0x4A7484AA, 0x5CB0A9DC, 0x76F988DA,
+		0x983E5152, 0xA831C66D, 0xB00327C8, 0xBF597FC7, 0xC6E00BF3, 0xD5A79147, 0x06CA6351, 0x14292967,
+		0x27B70A85, 0x2E1B2138, 0x4D2C6DFC, 0x53380D13, 0x650A7354, 0x766A0ABB, 0x81C2C92E, 0x92722C85,
+		0xA2BFE8A1, 0xA81A664B, 0xC24B8B70, 0xC76C51A3, 0xD192E819, 0xD6990624, 0xF40E3585, 0x106AA070,
+		0x19A4C116, 0x1E376C08, 0x2748774C, 0x34B0BCB5, 0x391C0CB3, 0x4ED8AA4A, 0x5B9CCA4F, 0x682E6FF3,
+		0x748F82EE, 0x78A5636F, 0x84C87814, 0x8CC70208, 0x90BEFFFA, 0xA4506CEB, 0xBEF9A3F7, 0xC67178F2
+	};
+
+	constexpr uint32_t H[8] = { 0x6A09E667, 0xBB67AE85, 0x3C6EF372, 0xA54FF53A, 0x510E527F, 0x9B05688C, 0x1F83D9AB, 0x5BE0CD19 };
+
+	// nonces claimed at once by a worker, also the granularity of the hash counter and of the cancellation
+	constexpr int64_t CHUNK_NONCES = 1 << 16;
+
+	// LeadingZeros : hashes with at least MIN_BITS leading zero bits are counted by leading zero bits, 0 to 32
+	constexpr int ZERO_BINS = 33;
+	constexpr uint32_t MIN_BITS_MASK = 0xFF;
+
+	// BlockHeader.copyData layout
+	struct Job {
+		uint32_t merkle;
+		uint32_t time;
+		uint32_t nbits;
+		uint32_t midstate[8];
+		int32_t hOffset;
+		uint32_t mask;
+		// 256 bits target, most significant word first
+		uint32_t target[8];
+		// nonces in [start, end[
+		int64_t start;
+		int64_t end;
+	};
+
+	inline uint32_t rotr(uint32_t x, int n) {
+		return (x >> n) | (x << (32 - n));
+	}
+
+	inline uint32_t bswap(uint32_t x) {
+		return (x >> 24) | ((x >> 8) & 0xFF00) | ((x << 8) & 0xFF0000) | (x << 24);
+	}
+
+	/**
+	 * Count the hash in zeros if it has at least 8 leading zero bits, 1 hash in 256
+	 * @param h7 last word of the hash
+	 */
+	inline void recordZeros(uint32_t h7, uint64_t zeros[ZERO_BINS]) {
+		if ((h7 & MIN_BITS_MASK) != 0)
+			return;
+		uint32_t x = bswap(h7);
+		int bits = 0;
+		for (uint32_t bit = 0x80000000; bit != 0 && (x & bit) == 0; bit >>= 1)
+			bits++;
+		zeros[bits]++;
+	}
+
+	/**
+	 * HashPredicate.atMostTarget : the hash as a 256 bits number is lower or equal to the target, compared from the
+	 * first significant word of the target (the words before are tested by the mask)
+	 */
+	bool atMostTarget(const Job& job, const uint32_t hash[8]) {
+		for (int i = 7 - job.hOffset; i < 8; i++) {
+			uint32_t word = bswap(hash[7 - i]);
+			if (word != job.target[i])
+				return word < job.target[i];
+		}
+		return true;
+	}
+
+	bool matches(const Job& job, const uint32_t hash[8]) {
+		uint32_t sum = hash[job.hOffset] & job.mask;
+		for (int i = job.hOffset + 1; i < 8; i++)
+			sum |= hash[i];
+		return sum == 0 && atMostTarget(job, hash);
+	}
+
+	/**
+	 * sha-256 compression with feed forward
+	 */
+	void compress(uint32_t state[8], const uint32_t block[16]) {
+		uint32_t w[64];
+		std::memcpy(w, block, 16 * sizeof(uint32_t));
+		for (int i = 16; i < 64; i++) {
+			uint32_t s0 = rotr(w[i - 15], 7) ^ rotr(w[i - 15], 18) ^ (w[i - 15] >> 3);
+			uint32_t s1 = rotr(w[i - 2], 17) ^ rotr(w[i - 2], 19) ^ (w[i - 2] >> 10);
+			w[i] = s1 + w[i - 7] + s0 + w[i - 16];
+		}
+		uint32_t a = state[0], b = state[1], c = state[2], d = state[3], e = state[4], f = state[5], g = state[6], h = state[7];
+		for (int i = 0; i < 64; i++) {
+			uint32_t t1 = h + (rotr(e, 6) ^ rotr(e, 11) ^ rotr(e, 25)) + (g ^ (e & (f ^ g))) + K[i] + w[i];
+			uint32_t t2 = (rotr(a, 2) ^ rotr(a, 13) ^ rotr(a, 22)) + ((a & b) | (c & (a | b)));
+			h = g;
+			g = f;
+			f = e;
+			e = d + t1;
+			d = c;
+			c = b;
+			b = a;
+			a = t1 + t2;
+		}
+		state[0] += a;
+		state[1] += b;
+		state[2] += c;
+		state[3] += d;
+		state[4] += e;
+		state[5] += f;
+		state[6] += g;
+		state[7] += h;
+	}
+
+	typedef void (*CompressFunction)(uint32_t state[8], const uint32_t block[16]);
+
+	template <CompressFunction Compress>
+	void hashNonce(const Job& job, uint32_t nonce, uint32_t hash[8]) {
+		uint32_t block[16] = { job.merkle, job.time, job.nbits, bswap(nonce), 0x80000000, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 640 };
+		uint32_t state[8];
+		std::memcpy(state, job.midstate, sizeof(state));
+		Compress(state, block);
+
+		std::memcpy(block, state, sizeof(state));
+		block[8] = 0x80000000;
+		std::fill(block + 9, block + 15, 0);
+		block[15] = 256;
+		std::memcpy(hash, H, sizeof(H));
+		Compress(hash, block);
+	}
+
+	/**
+	 * @param zeros leading zeros of the hashed nonces, incremented
+	 * @return the index of the first matching nonce in [first, first + count[, or -1
+	 */
+	template <CompressFunction Compress>
+	int64_t scanNonces(const Job& job, uint32_t first, uint32_t count, uint64_t zeros[ZERO_BINS]) {
+		uint32_t hash[8];
+		for (uint32_t i = 0; i < count; i++) {
+			hashNonce<Compress>(job, first + i, hash);
+			recordZeros(hash[7], zeros);
+			if (matches(job, hash))
+				return i;
+		}
+		return -1;
+	}
+
+	int64_t scanScalar(const Job& job, uint32_t first, uint32_t count, uint64_t zeros[ZERO_BINS]) {
+		return scanNonces<compress>(job, first, count, zeros);
+	}
+
+#ifdef CPPMINER_X86
+
+	// 8 nonces per __m256i, one per 32 bits lane
+
+	CPPMINER_AVX2 inline __m256i vrotr(__m256i x, int n) {
+		return _mm256_or_si256(_mm256_srli_epi32(x, n), _mm256_slli_epi32(x, 32 - n));
+	}
+
+	CPPMINER_AVX2 inline __m256i vadd(__m256i a, __m256i b) {
+		return _mm256_add_epi32(a, b);
+	}
+
+	CPPMINER_AVX2 inline __m256i vxor(__m256i a, __m256i b) {
+		return _mm256_xor_si256(a, b);
+	}
+
+	CPPMINER_AVX2 inline __m256i vset(uint32_t value) {
+		return _mm256_set1_epi32(static_cast<int>(value));
+	}
+
+	CPPMINER_AVX2 void compress8(__m256i state[8], const __m256i block[16]) {
+		__m256i w[64];
+		for (int i = 0; i < 16; i++)
+			w[i] = block[i];
+		for (int i = 16; i < 64; i++) {
+			__m256i s0 = vxor(vxor(vrotr(w[i - 15], 7), vrotr(w[i - 15], 18)), _mm256_srli_epi32(w[i - 15], 3));
+			__m256i s1 = vxor(vxor(vrotr(w[i - 2], 17), vrotr(w[i - 2], 19)), _mm256_srli_epi32(w[i - 2], 10));
+			w[i] = vadd(vadd(s1, w[i - 7]), vadd(s0, w[i - 16]));
+		}
+		__m256i a = state[0], b = state[1], c = state[2], d = state[3], e = state[4], f = state[5], g = state[6], h = state[7];
+		for (int i = 0; i < 64; i++) {
+			__m256i s1 = vxor(vxor(vrotr(e, 6), vrotr(e, 11)), vrotr(e, 25));
+			__m256i ch = vxor(g, _mm256_and_si256(e, vxor(f, g)));
+			__m256i t1 = vadd(vadd(vadd(h, s1), vadd(ch, vset(K[i]))), w[i]);
+			__m256i s0 = vxor(vxor(vrotr(a, 2), vrotr(a, 13)), vrotr(a, 22));
+			__m256i maj = _mm256_or_si256(_mm256_and_si256(a, b), _mm256_and_si256(c, _mm256_or_si256(a, b)));
+			__m256i t2 = vadd(s0, maj);
+			h = g;
+			g = f;
+			f = e;
+			e = vadd(d, t1);
+			d = c;
+			c = b;
+			b = a;
+			a = vadd(t1, t2);
+		}
+		state[0] = vadd(state[0], a);
+		state[1] = vadd(state[1], b);
+		state[2] = vadd(state[2], c);
+		state[3] = vadd(state[3], d);
+		state[4] = vadd(state[4], e);
+		state[5] = vadd(state[5], f);
+		state[6] = vadd(state[6], g);
+		state[7] = vadd(state[7], h);
+	}
+
+	CPPMINER_AVX2 int64_t scanAvx2(const Job& job, uint32_t first, uint32_t count, uint64_t zeros[ZERO_BINS]) {
+		const __m256i lanes = _mm256_setr_epi32(0, 1, 2, 3, 4, 5, 6, 7);
+		const __m256i bswapMask = _mm256_setr_epi8(3, 2, 1, 0, 7, 6, 5, 4, 11, 10, 9, 8, 15, 14, 13, 12,
+			3, 2, 1, 0, 7, 6, 5, 4, 11, 10, 9, 8, 15, 14, 13, 12);
+		const __m256i zero = _mm256_setzero_si256();
+
+		__m256i block[16], state[8], hash[8];
+		for (uint32_t i = 0; i + 8 <= count; i += 8) {
+			__m256i nonces = vadd(vset(first + i), lanes);
+			block[0] = vset(job.merkle);
+			block[1] = vset(job.time);
+			block[2] = vset(job.nbits);
+			block[3] = _mm256_shuffle_epi8(nonces, bswapMask);
+			block[4] = vset(0x80000000);
+			for (int j = 5; j < 15; j++)
+				block[j] = zero;
+			block[15] = vset(640);
+			for (int j = 0; j < 8; j++)
+				state[j] = vset(job.midstate[j]);
+			compress8(state, block);
+
+			for (int j = 0; j < 8; j++)
+				block[j] = state[j];
+			block[8] = vset(0x80000000);
+			for (int j = 9; j < 15; j++)
+				block[j] = zero;
+			block[15] = vset(256);
+			for (int j = 0; j < 8; j++)
+				hash[j] = vset(H[j]);
+			compress8(hash, block);
+
+			int zeroLanes = _mm256_movemask_ps(_mm256_castsi256_ps(_mm256_cmpeq_epi32(_mm256_and_si256(hash[7], vset(MIN_BITS_MASK)), zero)));
+			if (zeroLanes != 0) {
+				alignas(32) uint32_t h7[8];
+				_mm256_store_si256(reinterpret_cast<__m256i*>(h7), hash[7]);
+				for (int lane = 0; lane < 8; lane++)
+					recordZeros(h7[lane], zeros);
+			}
+
+			__m256i sum = _mm256_and_si256(hash[job.hOffset], vset(job.mask));
+			for (int j = job.hOffset + 1; j < 8; j++)
+				sum = _mm256_or_si256(sum, hash[j]);
+			int matched = _mm256_movemask_ps(_mm256_castsi256_ps(_mm256_cmpeq_epi32(sum, zero)));
+			if (matched != 0) {
+				// the mask is a necessary condition, the matched lanes are compared to the target
+				alignas(32) uint32_t words[8][8];
+				for (int j = 0; j < 8; j++)
+					_mm256_store_si256(reinterpret_cast<__m256i*>(words[j]), hash[j]);
+				for (int lane = 0; lane < 8; lane++) {
+					if ((matched & (1 << lane)) == 0)
+						continue;
+					uint32_t laneHash[8];
+					for (int j = 0; j < 8; j++)
+						laneHash[j] = words[j][lane];
+					if (atMostTarget(job, laneHash))
+						return i + lane;
+				}
+			}
+		}
+		uint32_t tail = count & ~7u;
+		int64_t matched = scanScalar(job, first + tail, count - tail, zeros);
+		return matched < 0 ? -1 : tail + matched;
+	}
+
+	/**
+	 * sha-256 compression with the SHA-NI instructions, 4 rounds per step
+	 */
+	CPPMINER_SHA void compressShaNi(uint32_t state[8], const uint32_t block[16]) {
+		// state as ABEF and CDGH
+		__m128i tmp = _mm_shuffle_epi32(_mm_loadu_si128(reinterpret_cast<const __m128i*>(state)), 0xB1);
+		__m128i state1 = _mm_shuffle_epi32(_mm_loadu_si128(reinterpret_cast<const __m128i*>(state + 4)), 0x1B);
+		__m128i state0 = _mm_alignr_epi8(tmp, state1, 8);
+		state1 = _mm_blend_epi16(state1, tmp, 0xF0);
+		const __m128i abef = state0, cdgh = state1;
+
+		__m128i msg[4];
+		for (int i = 0; i < 4; i++)
+			msg[i] = _mm_loadu_si128(reinterpret_cast<const __m128i*>(block + 4 * i));
+		for (int i = 0; i < 16; i++) {
+			if (i >= 4) {
+				// W[t] = W[t - 16] + s0(W[t - 15]) + W[t - 7] + s1(W[t - 2])
+				__m128i w = _mm_sha256msg1_epu32(msg[i & 3], msg[(i + 1) & 3]);
+				w = _mm_add_epi32(w, _mm_alignr_epi8(msg[(i + 3) & 3], msg[(i + 2) & 3], 4));
+				msg[i & 3] = _mm_sha256msg2_epu32(w, msg[(i + 3) & 3]);
+			}
+			__m128i wk = _mm_add_epi32(msg[i & 3], _mm_loadu_si128(reinterpret_cast<const __m128i*>(K + 4 * i)));
+			state1 = _mm_sha256rnds2_epu32(state1, state0, wk);
+			state0 = _mm_sha256rnds2_epu32(state0, state1, _mm_shuffle_epi32(wk, 0x0E));
+		}
+		state0 = _mm_add_epi32(state0, abef);
+		state1 = _mm_add_epi32(state1, cdgh);
+
+		tmp = _mm_shuffle_epi32(state0, 0x1B);
+		state1 = _mm_shuffle_epi32(state1, 0xB1);
+		_mm_storeu_si128(reinterpret_cast<__m128i*>(state), _mm_blend_epi16(tmp, state1, 0xF0));
+		_mm_storeu_si128(reinterpret_cast<__m128i*>(state + 4), _mm_alignr_epi8(state1, tmp, 8));
+	}
+
+	int64_t scanShaNi(const Job& job, uint32_t first, uint32_t count, uint64_t zeros[ZERO_BINS]) {
+		return scanNonces<compressShaNi>(job, first, count, zeros);
+	}
+
+	void cpuid(int leaf, uint32_t regs[4]) {
+#if defined(__GNUC__)
+		__cpuid_count(leaf, 0, regs[0], regs[1], regs[2], regs[3]);
+#else
+		int info[4];
+		__cpuidex(info, leaf, 0);
+		for (int i = 0; i < 4; i++)
+			regs[i] = static_cast<uint32_t>(info[i]);
+#endif
+	}
+
+	uint32_t maxLeaf() {
+		uint32_t regs[4];
+		cpuid(0, regs);
+		return regs[0];
+	}
+
+	bool hasAvx2() {
+		uint32_t regs[4];
+		if (maxLeaf() < 7)
+			return false;
+		cpuid(1, regs);
+		// OSXSAVE and AVX, the OS saves the ymm registers
+		if ((regs[2] & (1u << 27)) == 0 || (regs[2] & (1u << 28)) == 0)
+			return false;
+#if defined(__GNUC__)
+		uint32_t xcr0, edx;
+		__asm__("xgetbv" : "=a"(xcr0), "=d"(edx) : "c"(0));
+#else
+		uint32_t xcr0 = static_cast<uint32_t>(_xgetbv(0));
+#endif
+		if ((xcr0 & 6) != 6)
+			return false;
+		cpuid(7, regs);
+		return (regs[1] & (1u << 5)) != 0;
+	}
+
+	bool hasShaNi() {
+		uint32_t regs[4];
+		if (maxLeaf() < 7)
+			return false;
+		cpuid(1, regs);
+		bool sse41 = (regs[2] & (1u << 19)) != 0;
+		cpuid(7, regs);
+		return sse41 && (regs[1] & (1u << 29)) != 0;
+	}
+
+#endif
+
+#ifdef CPPMINER_ARM
+
+	/**
+	 * sha-256 compression with the ARMv8 SHA2 instructions, 4 rounds per step
+	 */
+	CPPMINER_SHA2 void compressArmSha2(uint32_t state[8], const uint32_t block[16]) {
+		uint32x4_t state0 = vld1q_u32(state), state1 = vld1q_u32(state + 4);
+		const uint32x4_t abcd = state0, efgh = state1;
+
+		uint32x4_t msg[4];
+		for (int i = 0; i < 4; i++)
+			msg[i] = vld1q_u32(block + 4 * i);
+		for (int i = 0; i < 16; i++) {
+			if (i >= 4)
+				msg[i & 3] = vsha256su1q_u32(vsha256su0q_u32(msg[i & 3], msg[(i + 1) & 3]), msg[(i + 2) & 3], msg[(i + 3) & 3]);
+			uint32x4_t wk = vaddq_u32(msg[i & 3], vld1q_u32(K + 4 * i));
+			uint32x4_t previous = state0;
+			state0 = vsha256hq_u32(state0, state1, wk);
+			state1 = vsha256h2q_u32(state1, previous, wk);
+		}
+		vst1q_u32(state, vaddq_u32(state0, abcd));
+		vst1q_u32(state + 4, vaddq_u32(state1, efgh));
+	}
+
+	int64_t scanArmSha2(const Job& job, uint32_t first, uint32_t count, uint64_t zeros[ZERO_BINS]) {
+		return scanNonces<compressArmSha2>(job, first, count, zeros);
+	}
+
+	bool hasArmSha2() {
+#if defined(__linux__)
+		return (getauxval(AT_HWCAP) & HWCAP_SHA2) != 0;
+#else
+		// Apple and Windows ARM64 targets all have the SHA2 extension
+		return true;
+#endif
+	}
+
+#endif
+
+	bool always() {
+		return true;
+	}
+
+	typedef int64_t (*ScanFunction)(const Job&, uint32_t, uint32_t, uint64_t*);
+
+	struct Engine {
+		const char* name;
+		ScanFunction scan;
+		bool (*supported)();
+	};
+
+	// by preference order
+	const Engine ENGINES[] = {
+#ifdef CPPMINER_X86
+		{ "sha-ni", scanShaNi, hasShaNi },
+		{ "avx2", scanAvx2, hasAvx2 },
+#endif
+#ifdef CPPMINER_ARM
+		{ "armv8-sha2", scanArmSha2, hasArmSha2 },
+#endif
+		{ "scalar", scanScalar, always }
+	};
+
+	/**
+	 * @param name engine name, or "auto" for the first supported engine
+	 * @return nullptr if the engine is unknown or not supported by the CPU
+	 */
+	const Engine* selectEngine(const char* name) {
+		bool any = std::strcmp(name, "auto") == 0;
+		for (const Engine& engine : ENGINES) {
+			if ((any || std::strcmp(name, engine.name) == 0) && engine.supported())
+				return &engine;
+		}
+		return nullptr;
+	}
+
+	static_assert(std::atomic<int64_t>::is_always_lock_free && sizeof(std::atomic<int64_t>) == sizeof(int64_t),
+		"ShareRing needs lock free 64 bits atomics");
+
+	/**
+	 * Producer side of the java ShareRing : bounded MPMC ring in a direct buffer, same layout and protocol
+	 */
+	class ShareRing {
+	public:
+		explicit ShareRing(void* buffer) : base(static_cast<char*>(buffer)), mask(at(CAPACITY).load() - 1) {}
+
+		/**
+		 * @return false if the ring is full, the nonce is dropped and counted
+		 */
+		bool offer(uint32_t nonce) {
+			int64_t tail = at(TAIL).load();
+			for (;;) {
+				size_t slot = HEADER_SIZE + static_cast<size_t>(tail & mask) * SLOT_SIZE;
+				int64_t diff = at(slot + SEQUENCE).load(std::memory_order_acquire) - tail;
+				if (diff == 0) {
+					// tail is reloaded on failure
+					if (at(TAIL).compare_exchange_weak(tail, tail + 1)) {
+						at(slot + NONCE).store(nonce, std::memory_order_relaxed);
+						at(slot + SEQUENCE).store(tail + 1, std::memory_order_release);
+						return true;
+					}
+				} else if (diff < 0) {
+					at(DROPPED).fetch_add(1);
+					return false;
+				} else {
+					tail = at(TAIL).load();
+				}
+			}
+		}
+
+	private:
+		static constexpr size_t CAPACITY = 0, TAIL = 64, DROPPED = 192, HEADER_SIZE = 256, SLOT_SIZE = 16;
+		static constexpr size_t SEQUENCE = 0, NONCE = 8;
+
+		std::atomic<int64_t>& at(size_t offset) {
+			return *reinterpret_cast<std::atomic<int64_t>*>(base + offset);
+		}
+
+		char* const base;
+		const int64_t mask;
+	};
+
+	/**
+	 * Counters of a worker thread, written by this thread only, on their own cache lines
+	 */
+	struct alignas(128) WorkerCounter {
+		std::atomic<uint64_t> hashes{ 0 };
+		std::atomic<uint64_t> busyNanos{ 0 };
+		std::atomic<uint64_t> zeros[ZERO_BINS]{};
+	};
+
+	/**
+	 * Persistent worker threads, claiming chunks of nonces of the current job
+	 */
+	class Miner {
+	public:
+		Miner(unsigned threadCount, const Engine& engine) : engine(engine), scan(engine.scan), counters(new WorkerCounter[threadCount]) {
+			for (unsigned i = 0; i < threadCount; i++)
+				threads.emplace_back(&Miner::work, this, i);
+		}
+
+		~Miner() {
+			cancel();
+			{
+				std::lock_guard<std::mutex> lock(mutex);
+				shutdown = true;
+			}
+			workAvailable.notify_all();
+			for (std::thread& thread : threads)
+				thread.join();
+		}
+
+		/**
+		 * Block until a nonce is found, the range is exhausted or the job is canceled
+		 * @param newShareJob share mode : the job with the share predicate, each share is offered to shares
+		 * @return the matched nonce, or -1
+		 */
+		int64_t mine(const Job& newJob, const Job* newShareJob, ShareRing* newShares) {
+			std::unique_lock<std::mutex> lock(mutex);
+			job = newJob;
+			if (newShareJob != nullptr)
+				shareJob = *newShareJob;
+			shares = newShares;
+			nextNonce.store(job.start);
+			result.store(-1);
+			running = static_cast<int>(threads.size());
+			generation++;
+			workAvailable.notify_all();
+			workDone.wait(lock, [this] { return running == 0; });
+			return result.load();
+		}
+
+		/**
+		 * Clear the cancellation before the next mine : a cancel from now on stops it, even before it starts
+		 */
+		void startJob() {
+			stopped.store(false);
+		}
+
+		void cancel() {
+			stopped.store(true);
+		}
+
+		const Engine& engine;
+
+		size_t threadCount() const {
+			return threads.size();
+		}
+
+		void workerStats(int64_t* hashes, int64_t* busyNanos) const {
+			for (size_t i = 0; i < threads.size(); i++) {
+				hashes[i] = static_cast<int64_t>(counters[i].hashes.load(std::memory_order_relaxed));
+				busyNanos[i] = static_cast<int64_t>(counters[i].busyNanos.load(std::memory_order_relaxed));
+			}
+		}
+
+		/**
+		 * @param zeros ZERO_BINS leading zeros counts per thread
+		 */
+		void leadingZeros(int64_t* zeros) const {
+			for (size_t i = 0; i < threads.size(); i++) {
+				for (int j = 0; j < ZERO_BINS; j++)
+					zeros[i * ZERO_BINS + j] = static_cast<int64_t>(counters[i].zeros[j].load(std::memory_order_relaxed));
+			}
+		}
+
+	private:
+		void work(unsigned index) {
+			uint64_t seen = 0;
+			for (;;) {
+				{
+					std::unique_lock<std::mutex> lock(mutex);
+					workAvailable.wait(lock, [this, seen] { return shutdown || generation != seen; });
+					if (shutdown)
+						return;
+					seen = generation;
+				}
+				scanChunks(counters[index]);
+				{
+					std::lock_guard<std::mutex> lock(mutex);
+					if (--running == 0)
+						workDone.notify_all();
+				}
+			}
+		}
+
+		void scanChunks(WorkerCounter& counter) {
+			while (!stopped.load(std::memory_order_relaxed)) {
+				int64_t first = nextNonce.fetch_add(CHUNK_NONCES);
+				if (first >= job.end)
+					return;
+				uint32_t count = static_cast<uint32_t>(std::min(CHUNK_NONCES, job.end - first));
+				auto start = std::chrono::steady_clock::now();
+				uint64_t zeros[ZERO_BINS] = {};
+				int64_t matched = shares == nullptr ? scan(job, static_cast<uint32_t>(first), count, zeros)
+					: scanShares(static_cast<uint32_t>(first), count, zeros);
+				auto busy = std::chrono::duration_cast<std::chrono::nanoseconds>(std::chrono::steady_clock::now() - start).count();
+				// single writer : plain read, release store
+				counter.hashes.store(counter.hashes.load(std::memory_order_relaxed) + (matched < 0 ? count : matched + 1), std::memory_order_release);
+				counter.busyNanos.store(counter.busyNanos.load(std::memory_order_relaxed) + busy, std::memory_order_release);
+				for (int j = 0; j < ZERO_BINS; j++) {
+					if (zeros[j] != 0)
+						counter.zeros[j].store(counter.zeros[j].load(std::memory_order_relaxed) + zeros[j], std::memory_order_release);
+				}
+				if (matched >= 0) {
+					int64_t expected = -1;
+					result.compare_exchange_strong(expected, static_cast<uint32_t>(first + matched));
+					stopped.store(true);
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Offer the shares of the chunk, until a share matches the header target
+		 * @return the index of the nonce matching the header target, or -1
+		 */
+		int64_t scanShares(uint32_t first, uint32_t count, uint64_t zeros[ZERO_BINS]) {
+			uint32_t scanned = 0;
+			while (scanned < count) {
+				int64_t matched = scan(shareJob, first + scanned, count - scanned, zeros);
+				if (matched < 0)
+					return -1;
+				uint32_t index = scanned + static_cast<uint32_t>(matched);
+				shares->offer(first + index);
+				// rare, once per share, not counted twice in the leading zeros
+				uint64_t ignored[ZERO_BINS] = {};
+				if (scanScalar(job, first + index, 1, ignored) == 0)
+					return index;
+				scanned = index + 1;
+			}
+			return -1;
+		}
+
+		const ScanFunction scan;
+		std::unique_ptr<WorkerCounter[]> counters;
+		std::vector<std::thread> threads;
+
+		std::mutex mutex;
+		std::condition_variable workAvailable;
+		std::condition_variable workDone;
+		uint64_t generation = 0;
+		int running = 0;
+		bool shutdown = false;
+
+		Job job{};
+		Job shareJob{};
+		ShareRing* shares = nullptr;
+		std::atomic<int64_t> nextNonce{ 0 };
+		std::atomic<int64_t> result{ -1 };
+		std::atomic<bool> stopped{ false };
+	};
+
+	Miner* getMiner(JNIEnv* env, jobject self) {
+		jclass minerClass = env->GetObjectClass(self);
+		jfieldID handleField = env->GetFieldID(minerClass, "handle", "J");
+		return reinterpret_cast<Miner*>(env->GetLongField(self, handleField));
+	}
+
+}
+
+JNIEXPORT jlong JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_create(JNIEnv* env, jclass, jint threads, jstring engineName)
 {
-	return 42;
+	const char* name = env->GetStringUTFChars(engineName, nullptr);
+	const Engine* engine = selectEngine(name);
+	env->ReleaseStringUTFChars(engineName, name);
+	if (engine == nullptr)
+		return 0;
+	unsigned threadCount = threads > 0 ? static_cast<unsigned>(threads) : std::max(1u, std::thread::hardware_concurrency());
+	return reinterpret_cast<jlong>(new Miner(threadCount, *engine));
 }
 
-JNIEXPORT void JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_mine(JNIEnv*, jobject, jobject dataBuffer, jint startNonce, jobject resultBuffer)
+JNIEXPORT jstring JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_engineName(JNIEnv* env, jclass, jlong handle)
 {
-	// TODO ... or not
-}
\ No newline at end of file
+	return env->NewStringUTF(reinterpret_cast<Miner*>(handle)->engine.name);
+}
+
+JNIEXPORT jobjectArray JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_supportedEngines0(JNIEnv* env, jclass)
+{
+	std::vector<const char*> names;
+	for (const Engine& engine : ENGINES) {
+		if (engine.supported())
+			names.push_back(engine.name);
+	}
+	jobjectArray result = env->NewObjectArray(static_cast<jsize>(names.size()), env->FindClass("java/lang/String"), nullptr);
+	for (size_t i = 0; i < names.size(); i++)
+		env->SetObjectArrayElement(result, static_cast<jsize>(i), env->NewStringUTF(names[i]));
+	return result;
+}
+
+JNIEXPORT void JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_destroy(JNIEnv*, jclass, jlong handle)
+{
+	delete reinterpret_cast<Miner*>(handle);
+}
+
+JNIEXPORT jint JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_threadCount(JNIEnv*, jclass, jlong handle)
+{
+	return static_cast<jint>(reinterpret_cast<Miner*>(handle)->threadCount());
+}
+
+JNIEXPORT void JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_getWorkerStats(JNIEnv* env, jobject self, jlongArray hashes, jlongArray busyNanos)
+{
+	Miner* miner = getMiner(env, self);
+	std::vector<int64_t> values(miner->threadCount() * 2);
+	miner->workerStats(values.data(), values.data() + miner->threadCount());
+	jsize count = static_cast<jsize>(miner->threadCount());
+	env->SetLongArrayRegion(hashes, 0, count, reinterpret_cast<const jlong*>(values.data()));
+	env->SetLongArrayRegion(busyNanos, 0, count, reinterpret_cast<const jlong*>(values.data() + count));
+}
+
+JNIEXPORT void JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_getLeadingZeros(JNIEnv* env, jobject self, jlongArray zeros)
+{
+	Miner* miner = getMiner(env, self);
+	std::vector<int64_t> values(miner->threadCount() * ZERO_BINS);
+	miner->leadingZeros(values.data());
+	env->SetLongArrayRegion(zeros, 0, static_cast<jsize>(values.size()), reinterpret_cast<const jlong*>(values.data()));
+}
+
+JNIEXPORT void JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_startJob0(JNIEnv* env, jobject self)
+{
+	getMiner(env, self)->startJob();
+}
+
+JNIEXPORT void JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_cancel0(JNIEnv* env, jobject self)
+{
+	getMiner(env, self)->cancel();
+}
+
+JNIEXPORT void JNICALL Java_com_infine_demo_bcminer_cpp_CppMiner_mine(JNIEnv* env, jobject self, jobject dataBuffer, jint startNonce, jobject shareBuffer, jobject sharesBuffer, jobject resultBuffer)
+{
+	const uint32_t* data = static_cast<const uint32_t*>(env->GetDirectBufferAddress(dataBuffer));
+	jlong* result = static_cast<jlong*>(env->GetDirectBufferAddress(resultBuffer));
+	Job job{};
+	job.merkle = data[0];
+	job.time = data[1];
+	job.nbits = data[2];
+	std::memcpy(job.midstate, data + 3, sizeof(job.midstate));
+	job.hOffset = static_cast<int32_t>(data[11]);
+	job.mask = data[12];
+	std::memcpy(job.target, data + 13, sizeof(job.target));
+	// same range as JavaMiner : from startNonce (signed) up to 0xFFFFFFFF excluded
+	job.start = startNonce;
+	job.end = 0xFFFFFFFFLL;
+	if (shareBuffer == nullptr) {
+		*result = getMiner(env, self)->mine(job, nullptr, nullptr);
+		return;
+	}
+	// share mode : the share predicate in the HashPredicate.copyData layout
+	const uint32_t* share = static_cast<const uint32_t*>(env->GetDirectBufferAddress(shareBuffer));
+	Job shareJob = job;
+	shareJob.hOffset = static_cast<int32_t>(share[0]);
+	shareJob.mask = share[1];
+	std::memcpy(shareJob.target, share + 2, sizeof(shareJob.target));
+	ShareRing shares(env->GetDirectBufferAddress(sharesBuffer));
+	*result = getMiner(env, self)->mine(job, &shareJob, &shares);
+}
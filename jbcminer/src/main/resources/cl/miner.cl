@@ -139,6 +139,25 @@ bool test_hash(const int hMaskOffset, const uint hMask, uint* hash)
 	return sum == 0;
 }
 
+// HashPredicate.atMostTarget : the hash as a 256 bits number is lower or equal to the target, most significant word
+// first, compared from the first significant word of the target (the words before are tested by the mask)
+bool test_target(constant uint* target, const int hMaskOffset, uint* hash)
+{
+	for (int i = H_INTS - 1 - hMaskOffset; i < H_INTS; i++) {
+		uint word = swap(hash[H_INTS - 1 - i]);
+		if (word != target[i])
+			return word < target[i];
+	}
+	return true;
+}
+
+// LeadingZeros : count the hash by leading zero bits if it has at least 8, 1 hash in 256
+void record_zeros(const uint h7, global uint* zeros)
+{
+	if ((h7 & 0xFF) == 0)
+		atomic_inc(&zeros[clz(swap(h7))]);
+}
+
 void hash_block(const uint header[3], const uint midstate[H_INTS], uint nonce, uint* workBuffer, uint* hash)
 {
 	workBuffer[0] = header[0]; // last int of merkel root
@@ -171,10 +190,17 @@ void hash_block(const uint header[3], const uint midstate[H_INTS], uint nonce, u
 * [3+8] midState
 * [11] hMastOffset (int)
 * [12] hMask
+* [13+8] target, most significant word first
+*
+* Zeros : leading zeros histogram, hashes with 0 to 32 leading zero bits (LeadingZeros.BINS)
+*
+* Share data : share predicate (HashPredicate.copyData), [0] hMaskOffset, -1 if not in share mode [1] hMask [2+8] target
+* Shares : append buffer of the shares, [0] shares found (may exceed shareCapacity) [1+shareCapacity] nonces
 *
 * Result : [0] boolean:matched [1] matched nonce
 **/
-kernel void hash_nonces(constant uint* globalData, const uint baseNonce, const uint groupNonces, global int* result, local int* localMatches)
+kernel void hash_nonces(constant uint* globalData, const uint baseNonce, const uint groupNonces, global int* result, local int* localMatches, global uint* zeros,
+                        constant uint* shareData, global uint* shares, const uint shareCapacity)
 {
     uint header[3];
     uint midstate[8];
@@ -183,6 +209,8 @@ kernel void hash_nonces(constant uint* globalData, const uint baseNonce, const u
 
     int hMaskOffset = (int)globalData[11];
     uint hMask = globalData[12];
+    int shareOffset = (int)shareData[0];
+    uint shareMask = shareData[1];
 
     uint groupCount = get_num_groups(0);
     uint groupId = get_group_id(0);
@@ -204,7 +232,13 @@ kernel void hash_nonces(constant uint* globalData, const uint baseNonce, const u
     for (uint i = 0; i < groupNonces; i += groupSize) {
         nonce = startNonce + i;
         hash_block(header, midstate, nonce, workBuffer, hash);
-        if (test_hash(hMaskOffset, hMask, hash)) {
+        record_zeros(hash[H_INTS - 1], zeros);
+        if (shareOffset >= 0 && test_hash(shareOffset, shareMask, hash) && test_target(shareData + 2, shareOffset, hash)) {
+            uint index = atomic_inc(&shares[0]);
+            if (index < shareCapacity)
+                shares[1 + index] = nonce;
+        }
+        if (test_hash(hMaskOffset, hMask, hash) && test_target(globalData + 13, hMaskOffset, hash)) {
 //            print_buffer(hash, H_INTS);
             localMatches[localId] = localId;
         }
@@ -130,6 +130,25 @@ __device__ bool test_hash(const int hMaskOffset, const uint hMask, uint* hash)
 	return sum == 0;
 }
 
+// HashPredicate.atMostTarget : the hash as a 256 bits number is lower or equal to the target, most significant word
+// first, compared from the first significant word of the target (the words before are tested by the mask)
+__device__ bool test_target(const uint* target, const int hMaskOffset, uint* hash)
+{
+	for (int i = H_INTS - 1 - hMaskOffset; i < H_INTS; i++) {
+		uint word = swap(hash[H_INTS - 1 - i]);
+		if (word != target[i])
+			return word < target[i];
+	}
+	return true;
+}
+
+// LeadingZeros : count the hash by leading zero bits if it has at least 8, 1 hash in 256
+__device__ void record_zeros(const uint h7, uint* zeros)
+{
+	if ((h7 & 0xFF) == 0)
+		atomicAdd(&zeros[__clz(swap(h7))], 1);
+}
+
 __device__ void hash_block(const uint header[3], const uint midstate[H_INTS], uint nonce, uint* workBuffer, uint* hash)
 {
 	workBuffer[0] = header[0]; // last int of merkel root
@@ -162,8 +181,15 @@ __device__ void hash_block(const uint header[3], const uint midstate[H_INTS], ui
 * [3+8] midState
 * [11] hMastOffset (int)
 * [12] hMask
+* [13+8] target, most significant word first
+*
+* Zeros : leading zeros histogram, hashes with 0 to 32 leading zero bits (LeadingZeros.BINS)
+*
+* Share data : share predicate (HashPredicate.copyData), [0] hMaskOffset, -1 if not in share mode [1] hMask [2+8] target
+* Shares : append buffer of the shares, [0] shares found (may exceed shareCapacity) [1+shareCapacity] nonces
 */
-extern "C" __global__ void mine(const uint *globalData, const uint baseNonce, const uint groupNonces, uint *result)
+extern "C" __global__ void mine(const uint *globalData, const uint baseNonce, const uint groupNonces, uint *result, uint *zeros,
+                                const uint *shareData, uint *shares, const uint shareCapacity)
 {
     extern __shared__ int localMatches[];
 
@@ -178,6 +204,8 @@ extern "C" __global__ void mine(const uint *globalData, const uint baseNonce, co
 
     int hMaskOffset = (int)globalData[11];
     uint hMask = globalData[12];
+    int shareOffset = (int)shareData[0];
+    uint shareMask = shareData[1];
 
     uint startNonce = baseNonce + groupId * groupNonces + localId;
     for (int i = 0; i < 3; i ++) header[i] = globalData[i];
@@ -192,7 +220,13 @@ extern "C" __global__ void mine(const uint *globalData, const uint baseNonce, co
     for (uint i = 0; i < groupNonces; i += groupSize) {
         nonce = startNonce + i;
         hash_block(header, midstate, nonce, workBuffer, hash);
-        if (test_hash(hMaskOffset, hMask, hash)) {
+        record_zeros(hash[H_INTS - 1], zeros);
+        if (shareOffset >= 0 && test_hash(shareOffset, shareMask, hash) && test_target(shareData + 2, shareOffset, hash)) {
+            uint index = atomicAdd(&shares[0], 1);
+            if (index < shareCapacity)
+                shares[1 + index] = nonce;
+        }
+        if (test_hash(hMaskOffset, hMask, hash) && test_target(globalData + 13, hMaskOffset, hash)) {
             // printf("nonce matched: group id %u local id: %u nonce: %u\n", groupId, localId, nonce);
             localMatches[localId] = localId;
         }
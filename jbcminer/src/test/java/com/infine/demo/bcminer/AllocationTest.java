@@ -0,0 +1,145 @@
+package com.infine.demo.bcminer;
+
+import com.infine.demo.bcminer.cl.CLMiner;
+import com.infine.demo.bcminer.cpp.CppMiner;
+import com.infine.demo.bcminer.cuda.CudaMiner;
+import com.infine.demo.bcminer.java.HashEngine;
+import com.infine.demo.bcminer.java.JavaMiner;
+import com.infine.demo.bcminer.java.NonceHasher;
+import com.infine.demo.bcminer.java.Sha256;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The mining hot loops must not allocate : bytes allocated per hash, measured with the thread allocation counters,
+ * must stay below a threshold once warmed up.
+ */
+class AllocationTest {
+
+    private static final double MAX_BYTES_PER_HASH = 0.01;
+    // allows the per job allocations (tasks, worker counters) amortized over the nonces
+    private static final double MAX_MINER_BYTES_PER_HASH = 0.05;
+
+    private static final int WARMUP_NONCES = 1 << 18;
+    private static final int NONCES = 1 << 16;
+    private static final int MINER_NONCES = 1 << 20;
+    private static final int MAX_MEASURES = 20;
+
+    @BeforeAll
+    static void supported() {
+        assumeTrue(Allocations.supported(), "thread allocation counters not supported");
+    }
+
+    @Test
+    void hasherScan() {
+        for (String engine : HashEngine.NAMES)
+            hasherScan(engine);
+    }
+
+    private static void hasherScan(String engine) {
+        BlockHeader header = TestHeader.TEST_HEADER;
+        NonceHasher hasher = HashEngine.forName(engine).createHasher(header, Sha256.precompute(header), header.hashPredicate());
+        // positive nonces, not matching
+        hasher.scan(0, 1, WARMUP_NONCES);
+        // the large vector methods may still be compiling in the background, measure again until they are installed
+        double bytesPerHash = Double.MAX_VALUE;
+        for (int i = 0; i < MAX_MEASURES && bytesPerHash > MAX_BYTES_PER_HASH; i++) {
+            long before = Allocations.currentThread();
+            hasher.scan(WARMUP_NONCES + i * NONCES, 1, NONCES);
+            bytesPerHash = (double) (Allocations.currentThread() - before) / NONCES;
+        }
+        System.out.printf("%s hasher : %.4f bytes per hash%n", engine, bytesPerHash);
+        assertTrue(bytesPerHash <= MAX_BYTES_PER_HASH, engine + " allocates " + bytesPerHash + " bytes per hash");
+    }
+
+    @Test
+    void shareRing() {
+        ShareRing ring = ShareRing.allocate(16);
+        offerPoll(ring, WARMUP_NONCES);
+        long before = Allocations.currentThread();
+        offerPoll(ring, NONCES);
+        double bytesPerShare = (double) (Allocations.currentThread() - before) / NONCES;
+        System.out.printf("ShareRing : %.4f bytes per share%n", bytesPerShare);
+        assertTrue(bytesPerShare <= MAX_BYTES_PER_HASH, "ShareRing allocates " + bytesPerShare + " bytes per share");
+    }
+
+    // half of the shares dropped
+    private static void offerPoll(ShareRing ring, int shares) {
+        for (int i = 0; i < shares; i += 32) {
+            for (int j = 0; j < 32; j++)
+                ring.offer(i + j);
+            while (ring.poll() != ShareRing.EMPTY) ;
+        }
+    }
+
+    @Test
+    void javaMiner() {
+        try (JavaMiner miner = new JavaMiner(2, HashEngine.forName(HashEngine.UNROLLED))) {
+            // warm up the workers, then mine up to the expected nonce
+            miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - MINER_NONCES);
+            Map<Long, Long> before = Allocations.allThreads();
+            miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - MINER_NONCES);
+            double bytesPerHash = (double) Allocations.allThreadsSince(before) / miner.getStats().totalHashes();
+            System.out.printf("JavaMiner : %.4f bytes per hash%n", bytesPerHash);
+            assertTrue(bytesPerHash <= MAX_MINER_BYTES_PER_HASH, "JavaMiner allocates " + bytesPerHash + " bytes per hash");
+        }
+    }
+
+    @Test
+    void cppMinerStats() throws Exception {
+        try (CppMiner miner = createOrSkip(() -> new CppMiner(1))) {
+            CompletableFuture<Integer> future = CompletableFuture.supplyAsync(() -> miner.mine(SteadyStateBench.unsolvable(TestHeader.TEST_HEADER), 0));
+            // wait for the job to start, so the cancel is not reset by the job, and warm up the stats polling
+            while (miner.getStats().totalHashes() == 0)
+                Thread.sleep(1);
+            for (int i = 0; i < 1000; i++)
+                miner.getStats();
+            int polls = 10_000;
+            long before = Allocations.currentThread();
+            for (int i = 0; i < polls; i++)
+                miner.getStats();
+            double bytesPerPoll = (double) (Allocations.currentThread() - before) / polls;
+            miner.cancel();
+            future.get();
+            System.out.printf("CppMiner : %.2f bytes per stats poll%n", bytesPerPoll);
+            assertTrue(bytesPerPoll < 1, "CppMiner allocates " + bytesPerPoll + " bytes per stats poll");
+        }
+    }
+
+    @Test
+    void gpuHostLoops() {
+        try (CLMiner miner = createOrSkip(() -> (CLMiner) CLMiner.OPTIONS.createMiner(CLMiner.OPTIONS.parse(new String[0], 0)))) {
+            miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100_000_000);
+            miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100_000_000);
+            System.out.printf("CLMiner : %.2f bytes per pass%n", miner.allocatedBytesPerPass());
+            assertEquals(0, miner.allocatedBytesPerPass(), 1);
+        }
+        try (CudaMiner miner = createOrSkip(() -> new CudaMiner(0, 16, 256, 1024))) {
+            miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 10_000_000);
+            miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 10_000_000);
+            System.out.printf("CudaMiner : %.2f bytes per pass%n", miner.allocatedBytesPerPass());
+            assertEquals(0, miner.allocatedBytesPerPass(), 1);
+        }
+    }
+
+    private interface MinerFactory<T extends IMiner> {
+        T create();
+    }
+
+    // the native miners may not be available on this host
+    private static <T extends IMiner> T createOrSkip(MinerFactory<T> factory) {
+        try {
+            return factory.create();
+        } catch (Exception | LinkageError e) {
+            assumeTrue(false, "miner not available : " + e);
+            return null;
+        }
+    }
+
+}
@@ -45,6 +45,15 @@ class BenchTest {
             } while (nonce != TestHeader.EXPECTED_NONCE);
             return nonce;
         }
+
+        @Override
+        public Integer mine(BlockHeader header, int startNonce, HashPredicate share, ShareRing shares) {
+            return mine(header, startNonce);
+        }
+
+        @Override
+        public void cancel() {
+        }
     }
 
     static class NoMatchTestMiner implements IMiner {
@@ -65,5 +74,14 @@ class BenchTest {
             } while (Integer.toUnsignedLong(nonce) != Integer.toUnsignedLong(startNonce));
             return nonce;
         }
+
+        @Override
+        public Integer mine(BlockHeader header, int startNonce, HashPredicate share, ShareRing shares) {
+            return mine(header, startNonce);
+        }
+
+        @Override
+        public void cancel() {
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.infine.demo.bcminer;
+
+import com.infine.demo.bcminer.CorpusBench.Report;
+import com.infine.demo.bcminer.CorpusBench.Result;
+import com.infine.demo.bcminer.java.JavaMiner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorpusBenchTest {
+
+    @Test
+    void runAndCompare(@TempDir Path dir) {
+        List<HeaderCorpus.Entry> corpus = HeaderCorpus.load().subList(0, 2);
+        Report report = CorpusBench.run(List.of(JavaMiner.OPTIONS), corpus, 10_000);
+        assertEquals(2, report.results().size());
+        for (Result result : report.results()) {
+            assertEquals("java", result.miner());
+            assertNotNull(result.matchedNonce());
+            assertTrue(result.hashes() > 0 && result.hashes() <= 10_001);
+            assertTrue(result.mhps() > 0);
+        }
+        assertTrue(report.results().get(0).knownNonce());
+
+        Path file = dir.resolve("report.json");
+        CorpusBench.write(report, file);
+        Report read = CorpusBench.read(file);
+        assertEquals(report, read);
+
+        assertTrue(CorpusBench.compare(read, report, 0.1).isEmpty());
+        Result fast = report.results().get(0);
+        Report baseline = new Report(0, report.window(), List.of(new Result(fast.miner(), fast.height(), fast.window(), fast.matchedNonce(),
+                fast.knownNonce(), fast.hashes(), fast.setupSeconds(), fast.seconds() / 2, fast.mhps() * 2)));
+        List<CorpusBench.Regression> regressions = CorpusBench.compare(baseline, report, 0.1);
+        assertEquals(1, regressions.size());
+        assertEquals(0.5, regressions.get(0).ratio(), 1E-9);
+    }
+
+}
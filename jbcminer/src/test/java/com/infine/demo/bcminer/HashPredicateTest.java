@@ -18,4 +18,42 @@ class HashPredicateTest {
         assertTrue(predicate.test(Utils.parse(VALID_HASH)));
         assertFalse(predicate.test(Utils.parse(INVALID_HASH)));
     }
+
+    @Test
+    void target() {
+        // nbits 0x1a016164 : 0x016164 * 256^(0x1a - 3)
+        assertArrayEquals(new int[]{0, 0x0161, 0x64000000, 0, 0, 0, 0, 0}, TestHeader.TEST_HEADER.target());
+        HashPredicate predicate = TestHeader.TEST_HEADER.hashPredicate();
+        assertEquals(6, predicate.hOffset());
+        // 23 leading zero bits in the second word, hash bytes in reverse order
+        assertEquals(0x00FEFFFF, predicate.mask());
+    }
+
+    @Test
+    void exactTarget() {
+        HashPredicate predicate = TestHeader.TEST_HEADER.hashPredicate();
+        // hash words in reverse order of the 256 bits number, bytes reversed
+        int[] target = {0, 0, 0, 0, 0, Integer.reverseBytes(0x64000000), Integer.reverseBytes(0x0161), 0};
+        assertTrue(predicate.test(target));
+        int[] above = target.clone();
+        above[4] = Integer.reverseBytes(1);
+        assertFalse(predicate.test(above));
+        int[] below = target.clone();
+        below[5] = Integer.reverseBytes(0x63FFFFFF);
+        below[4] = -1;
+        assertTrue(predicate.test(below));
+        // matches the mask, above the target
+        int[] masked = new int[8];
+        masked[6] = Integer.reverseBytes(0x01FF);
+        assertEquals(0, masked[6] & predicate.mask());
+        assertFalse(predicate.test(masked));
+    }
+
+    @Test
+    void wordMask() {
+        HashPredicate predicate = new HashPredicate(6, 0xFFFF);
+        assertEquals(0, predicate.wordMask(5));
+        assertEquals(0xFFFF, predicate.wordMask(6));
+        assertEquals(0xFFFFFFFF, predicate.wordMask(7));
+    }
 }
\ No newline at end of file
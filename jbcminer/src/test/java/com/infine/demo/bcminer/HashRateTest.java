@@ -0,0 +1,76 @@
+package com.infine.demo.bcminer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRateTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void windows() {
+        HashRate rate = new HashRate();
+        rate.reset(100, 0);
+        long hashes = 0;
+        // 1000 H/s for 60s, then 100 H/s for 10s
+        for (int s = 1; s <= 70; s++) {
+            hashes += s <= 60 ? 1000 : 100;
+            rate.sample(100 + s * SECOND, hashes);
+        }
+        assertEquals(100, rate.rate1s(), 1E-6);
+        assertEquals(100, rate.rate10s(), 1E-6);
+        assertEquals((50 * 1000 + 10 * 100) / 60.0, rate.rate60s(), 1E-6);
+        // the 1s ewma follows the drop, the 60s one lags
+        assertEquals(100, rate.ewma(0), 1);
+        assertTrue(rate.ewma(1) < 500);
+        assertTrue(rate.ewma(2) > 500);
+    }
+
+    @Test
+    void jitteredSamples() {
+        HashRate rate = new HashRate();
+        rate.reset(0, 0);
+        long period = SECOND - SECOND / 100, hashes = 0;
+        // 990 hashes per 0.99s sample, the last interval 99 hashes
+        for (int s = 1; s <= 70; s++) {
+            hashes += s < 70 ? 990 : 99;
+            rate.sample(s * period, hashes);
+        }
+        // every sample is an entry
+        assertEquals(71, rate.size());
+        assertEquals(period, rate.time(70) - rate.time(69));
+        // the windows are not stretched to the next older entry
+        assertEquals(100, rate.rate1s(), 1E-6);
+        assertEquals((9 * 990 + 99) / (10 * period * 1E-9), rate.rate10s(), 1E-6);
+    }
+
+    @Test
+    void history() {
+        HashRate rate = new HashRate(4);
+        rate.reset(0, 0);
+        rate.sample(SECOND / 2, 10); // not an history entry
+        for (int s = 1; s <= 5; s++)
+            rate.sample(s * SECOND, s * 100L);
+        assertEquals(4, rate.size());
+        assertEquals(2 * SECOND, rate.time(0));
+        assertEquals(500, rate.totalHashes(3));
+        assertEquals(100, rate.rate(3), 1E-6);
+        assertThrows(IndexOutOfBoundsException.class, () -> rate.time(4));
+
+        StringBuilder csv = new StringBuilder();
+        rate.writeCsv(csv);
+        assertEquals("""
+                time_s,total_hashes,rate_hps
+                2.000,200,0.0
+                3.000,300,100.0
+                4.000,400,100.0
+                5.000,500,100.0
+                """, csv.toString());
+
+        StringBuilder json = new StringBuilder();
+        rate.writeJsonLines(json);
+        assertTrue(json.toString().startsWith("{\"time_s\":2.000,\"total_hashes\":200,\"rate_hps\":0.0}\n"));
+    }
+
+}
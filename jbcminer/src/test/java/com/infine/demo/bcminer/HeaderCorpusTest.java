@@ -0,0 +1,36 @@
+package com.infine.demo.bcminer;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeaderCorpusTest {
+
+    @Test
+    void load() {
+        List<HeaderCorpus.Entry> corpus = HeaderCorpus.load();
+        assertTrue(corpus.size() >= 8);
+        assertEquals(0, corpus.get(0).height());
+        assertEquals("000000000019d6689c085ae165831e934ff763ae46a2a6c172b3f1b60a8ce26f", corpus.get(0).hash());
+        HeaderCorpus.Entry test = corpus.stream().filter(e -> e.height() == 239711).findFirst().orElseThrow();
+        assertArrayEquals(TestHeader.TEST_HEADER.data(), test.header().data());
+    }
+
+    @Test
+    void verify() {
+        HeaderCorpus.Entry entry = HeaderCorpus.load().get(1);
+        BlockHeader header = new BlockHeader(entry.header().data().clone());
+        header.nonce(header.nonce() + 1);
+        assertThrows(IllegalStateException.class, () -> HeaderCorpus.verify(new HeaderCorpus.Entry(1, entry.hash(), header)));
+    }
+
+    @Test
+    void target() {
+        assertEquals(new BigInteger("00000000ffff0000000000000000000000000000000000000000000000000000", 16), HeaderCorpus.target(0x1d00ffff));
+        assertEquals(BigInteger.valueOf(0x12), HeaderCorpus.target(0x01120000));
+    }
+
+}
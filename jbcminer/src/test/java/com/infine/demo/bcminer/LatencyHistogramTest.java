@@ -0,0 +1,45 @@
+package com.infine.demo.bcminer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void buckets() {
+        // every value is in a bucket whose upper bound is within 12.5% of it
+        for (long value = 0; value < 100_000; value++)
+            assertBucket(value);
+        for (long value = 1; value < LatencyHistogram.MAX_VALUE; value = value * 3 + 1)
+            assertBucket(value);
+        assertBucket(LatencyHistogram.MAX_VALUE);
+        assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.index(LatencyHistogram.MAX_VALUE)));
+    }
+
+    private static void assertBucket(long value) {
+        int index = LatencyHistogram.index(value);
+        long upperBound = LatencyHistogram.upperBound(index);
+        assertTrue(upperBound >= value, value + " above its bucket upper bound " + upperBound);
+        assertTrue(index == 0 || LatencyHistogram.upperBound(index - 1) < value, value + " in the previous bucket");
+        assertTrue(upperBound - value <= value / LatencyHistogram.SUB_BUCKETS, value + " bucket too large " + upperBound);
+    }
+
+    @Test
+    void record() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.quantile(0.5));
+        // 1 to 1000 us
+        for (int i = 1; i <= 1000; i++)
+            histogram.record(i * 1000L);
+        histogram.record(-1);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(1001, histogram.count());
+        assertEquals(histogram.buckets() - 1, LatencyHistogram.index(LatencyHistogram.MAX_VALUE));
+        assertEquals(1, histogram.count(histogram.buckets() - 1));
+        assertEquals(500_000, histogram.quantile(0.5), 500_000 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(990_000, histogram.quantile(0.99), 990_000 / LatencyHistogram.SUB_BUCKETS);
+        assertEquals(LatencyHistogram.MAX_VALUE, histogram.quantile(1));
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.infine.demo.bcminer;
+
+import com.infine.demo.bcminer.java.HashEngine;
+import com.infine.demo.bcminer.java.NonceHasher;
+import com.infine.demo.bcminer.java.Sha256;
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.Random;
+
+import static com.infine.demo.bcminer.java.Sha256.BUFFER_INTS;
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeadingZerosTest {
+
+    // a multiple of every engine lanes, so no hash beyond the count is recorded
+    private static final int NONCES = 3 * 64 * 256;
+
+    @Test
+    void bits() {
+        // the last byte of the hash is the most significant byte of the Bitcoin hash
+        assertEquals(0, LeadingZeros.bits(0x00000080));
+        assertEquals(7, LeadingZeros.bits(0x01000001));
+        assertEquals(15, LeadingZeros.bits(0x00000100));
+        assertEquals(31, LeadingZeros.bits(0x01000000));
+        assertEquals(32, LeadingZeros.bits(0));
+    }
+
+    @Test
+    void record() {
+        LeadingZeros leadingZeros = new LeadingZeros();
+        leadingZeros.record(0x01000001);
+        assertEquals(0, leadingZeros.atLeast(0));
+        assertEquals(1, leadingZeros.relativeError());
+        leadingZeros.record(0x00000100);
+        leadingZeros.record(0x01000000);
+        leadingZeros.record(0x00010000);
+        assertEquals(3, leadingZeros.atLeast(LeadingZeros.MIN_BITS));
+        assertEquals(2, leadingZeros.atLeast(16));
+        assertEquals(1, leadingZeros.count(15));
+        assertEquals(31, leadingZeros.best());
+        assertEquals(3 * 256, leadingZeros.estimatedHashes());
+
+        LeadingZeros sum = new LeadingZeros();
+        sum.add(leadingZeros);
+        sum.add(leadingZeros);
+        assertEquals(6, sum.atLeast(LeadingZeros.MIN_BITS));
+        assertEquals(2, sum.count(31));
+    }
+
+    @Test
+    void addNew() {
+        LeadingZeros leadingZeros = new LeadingZeros();
+        IntBuffer counts = IntBuffer.allocate(LeadingZeros.BINS), reported = IntBuffer.allocate(LeadingZeros.BINS);
+        counts.put(8, 10);
+        leadingZeros.addNew(counts, reported);
+        counts.put(8, 15).put(9, 1);
+        leadingZeros.addNew(counts, reported);
+        assertEquals(15, leadingZeros.count(8));
+        assertEquals(1, leadingZeros.count(9));
+        // unsigned device counters
+        reported.put(8, -2);
+        counts.put(8, 3);
+        leadingZeros.addNew(counts, reported);
+        assertEquals(20, leadingZeros.count(8));
+    }
+
+    @Test
+    void estimate() {
+        Random random = new Random(239711);
+        LeadingZeros leadingZeros = new LeadingZeros();
+        int hashes = 1 << 20;
+        for (int i = 0; i < hashes; i++)
+            leadingZeros.record(random.nextInt());
+        assertEquals(hashes, leadingZeros.estimatedHashes(), 5 * leadingZeros.relativeError() * hashes);
+        assertTrue(Math.abs(leadingZeros.zScore(hashes)) < 5);
+        // under hashing engine : counted hashes not computed
+        assertTrue(leadingZeros.zScore(hashes * 5L / 4) < -5);
+    }
+
+    @Test
+    void engines() {
+        BlockHeader header = SteadyStateBench.unsolvable(TestHeader.TEST_HEADER);
+        LeadingZeros expected = new LeadingZeros();
+        int[] midstate = Sha256.createMidstate(header);
+        int[] hash = new int[H_INTS], workBuffer = new int[BUFFER_INTS];
+        for (int nonce = 0; nonce < NONCES; nonce++) {
+            Sha256.updateHash(hash, header.data(), midstate, workBuffer, nonce);
+            expected.record(hash[H_INTS - 1]);
+        }
+        assertTrue(expected.atLeast(LeadingZeros.MIN_BITS) > 0);
+
+        for (String engine : HashEngine.NAMES)
+            assertEngine(expected, header, engine, HashEngine.forName(engine));
+        assertEngine(expected, header, "interleaved-3", HashEngine.forName(HashEngine.INTERLEAVED, 3));
+    }
+
+    private static void assertEngine(LeadingZeros expected, BlockHeader header, String name, HashEngine engine) {
+        NonceHasher hasher = engine.createHasher(header, Sha256.precompute(header), header.hashPredicate());
+        assertEquals(-1, hasher.scan(0, 1, NONCES));
+        for (int bits = 0; bits < LeadingZeros.BINS; bits++)
+            assertEquals(expected.count(bits), hasher.leadingZeros().count(bits), name + " hashes with " + bits + " leading zero bits");
+    }
+
+}
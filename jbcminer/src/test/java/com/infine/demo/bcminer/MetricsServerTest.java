@@ -0,0 +1,89 @@
+package com.infine.demo.bcminer;
+
+import com.infine.demo.bcminer.java.HashEngine;
+import com.infine.demo.bcminer.java.JavaMiner;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsServerTest {
+
+    @Test
+    void scrape() throws Exception {
+        try (JavaMiner miner = new JavaMiner(2, HashEngine.forName(HashEngine.UNROLLED));
+             MetricsServer server = MetricsServer.start(0, false).register("java", miner)) {
+            assertEquals(TestHeader.EXPECTED_NONCE, miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100_000));
+            long firstJobHashes = miner.getStats().totalHashes();
+            assertEquals(TestHeader.EXPECTED_NONCE, miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100_000));
+            miner.getStats().sample();
+
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + MetricsServer.PATH)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/plain; version=0.0.4"));
+            List<String> lines = response.body().lines().toList();
+
+            // hashes of both jobs
+            assertEquals(firstJobHashes + miner.getStats().totalHashes(), (long) value(lines, "bcminer_hashes_total{miner=\"java\"}"));
+            assertEquals(2, value(lines, "bcminer_nonces_found_total{miner=\"java\"}"));
+            assertTrue(value(lines, "bcminer_hash_rate{miner=\"java\",window=\"1s\"}") > 0);
+            assertTrue(lines.stream().anyMatch(l -> l.startsWith("bcminer_worker_hash_rate{miner=\"java\",worker=\"")));
+            assertEquals(2, value(lines, "bcminer_job_switch_seconds_count{miner=\"java\"}"));
+            assertEquals(2, value(lines, "bcminer_job_switch_seconds_bucket{miner=\"java\",le=\"+Inf\"}"));
+            assertEquals(2, value(lines, "bcminer_setup_seconds_count{miner=\"java\"}"));
+            assertEquals(0, value(lines, "bcminer_pass_duration_seconds_count{miner=\"java\"}"));
+            // one help and type per metric
+            assertEquals(1, lines.stream().filter(l -> l.equals("# TYPE bcminer_setup_seconds histogram")).count());
+        }
+    }
+
+    @Test
+    void histogramBuckets() {
+        MinerStats stats = new MinerStats();
+        IMiner miner = new IMiner() {
+            @Override
+            public MinerStats getStats() {
+                return stats;
+            }
+
+            @Override
+            public Integer mine(BlockHeader header, int startNonce) {
+                return null;
+            }
+
+            @Override
+            public Integer mine(BlockHeader header, int startNonce, HashPredicate share, ShareRing shares) {
+                return null;
+            }
+
+            @Override
+            public void cancel() {
+            }
+        };
+        for (int i = 0; i < 3; i++)
+            stats.passLatency().record(i == 2 ? 2_000_000 : 1000);
+        try (MetricsServer server = MetricsServer.start(0, false).register("test", miner)) {
+            List<String> buckets = server.scrape().lines().filter(l -> l.startsWith("bcminer_pass_duration_seconds_bucket")).toList();
+            // non empty buckets, cumulative
+            assertEquals(List.of(
+                    "bcminer_pass_duration_seconds_bucket{miner=\"test\",le=\"" + MetricsServer.seconds(LatencyHistogram.upperBound(LatencyHistogram.index(1000))) + "\"} 2",
+                    "bcminer_pass_duration_seconds_bucket{miner=\"test\",le=\"" + MetricsServer.seconds(LatencyHistogram.upperBound(LatencyHistogram.index(2_000_000))) + "\"} 3",
+                    "bcminer_pass_duration_seconds_bucket{miner=\"test\",le=\"+Inf\"} 3"), buckets);
+            assertEquals("0.000001023", MetricsServer.seconds(LatencyHistogram.upperBound(LatencyHistogram.index(1000))));
+            assertEquals(3, value(server.scrape().lines().toList(), "bcminer_pass_duration_seconds_count{miner=\"test\"}"));
+        }
+    }
+
+    private static double value(List<String> lines, String series) {
+        return lines.stream().filter(l -> l.startsWith(series + " ")).mapToDouble(l -> Double.parseDouble(l.substring(series.length() + 1)))
+                .findFirst().orElseThrow(() -> new AssertionError(series + " not found"));
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.infine.demo.bcminer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinerStatsTest {
+
+    private static final int THREADS = 8;
+    private static final int UPDATES = 100_000;
+
+    @Test
+    void concurrentUpdates() throws InterruptedException {
+        MinerStats stats = new MinerStats();
+        stats.start();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean ownCounter = i % 2 == 0;
+            String name = "worker-" + i;
+            threads.add(new Thread(() -> {
+                MinerStats.Counter counter = ownCounter ? stats.counter(name) : null;
+                for (int j = 0; j < UPDATES; j++) {
+                    if (counter != null)
+                        counter.update(3, 1, 10);
+                    else
+                        stats.update(3, 1);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        // lock free reads while updating
+        while (threads.stream().anyMatch(Thread::isAlive)) {
+            MinerStats.Snapshot snapshot = stats.snapshot();
+            assertTrue(snapshot.totalHashes() <= 3L * THREADS * UPDATES);
+            assertTrue(snapshot.fullyComputed() >= 0);
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        MinerStats.Snapshot snapshot = stats.snapshot();
+        assertEquals(3L * THREADS * UPDATES, snapshot.totalHashes());
+        assertEquals((long) THREADS * UPDATES, snapshot.earlyRejected());
+        assertEquals(2L * THREADS * UPDATES, snapshot.fullyComputed());
+        assertTrue(snapshot.totalTime() > 0);
+        assertTrue(snapshot.mhps() > 0);
+
+        assertEquals(THREADS / 2, stats.workers());
+        for (int i = 0; i < stats.workers(); i++) {
+            MinerStats.Counter worker = stats.worker(i);
+            assertTrue(worker.name().startsWith("worker-"));
+            assertEquals(3L * UPDATES, worker.totalHashes());
+            assertEquals(UPDATES, worker.earlyRejected());
+            assertEquals(10L * UPDATES * 1E-9, worker.busyTime(), 1E-9);
+        }
+    }
+
+    @Test
+    void workerIdleTime() throws InterruptedException {
+        MinerStats stats = new MinerStats();
+        stats.start();
+        MinerStats.Counter counter = stats.counter("slow");
+        Thread.sleep(50);
+        counter.update(1000, 0, 10_000_000);
+        assertEquals(0.01, counter.busyTime(), 1E-9);
+        assertTrue(counter.totalTime() >= 0.05);
+        assertEquals(counter.totalTime() - 0.01, counter.idleTime(), 1E-9);
+        assertTrue(counter.busyMhps() > counter.mhps());
+        assertTrue(stats.workersBreakdown().contains("slow : hashed"));
+
+        stats.start();
+        assertEquals(0, stats.workers());
+    }
+
+    @Test
+    void start() {
+        MinerStats stats = new MinerStats();
+        assertEquals(0, stats.totalTime());
+        stats.update(10);
+        stats.counter("test").update(5, 2, 0);
+        assertEquals(15, stats.totalHashes());
+        assertEquals(2, stats.earlyRejected());
+
+        stats.start();
+        assertEquals(0, stats.totalHashes());
+        assertEquals(0, stats.earlyRejected());
+        assertEquals(0, stats.totalTime());
+        assertEquals(0, stats.mhps());
+    }
+
+    @Test
+    void cumulativeHashes() throws InterruptedException {
+        MinerStats stats = new MinerStats();
+        int jobs = 2_000;
+        Thread miner = new Thread(() -> {
+            for (int i = 0; i < jobs; i++) {
+                stats.start();
+                stats.counter("worker").update(3, 0, 0);
+                stats.update(2);
+            }
+        });
+        miner.start();
+        // scraped while the jobs start : never counted twice, never decreasing
+        long last = 0;
+        while (miner.isAlive()) {
+            long cumulative = stats.cumulativeHashes();
+            assertTrue(cumulative >= last, cumulative + " < " + last);
+            assertTrue(cumulative <= 5L * jobs);
+            last = cumulative;
+        }
+        miner.join();
+        assertEquals(jobs, stats.jobs());
+        assertEquals(5L * jobs, stats.cumulativeHashes());
+        stats.start();
+        assertEquals(0, stats.totalHashes());
+        assertEquals(5L * jobs, stats.cumulativeHashes());
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.infine.demo.bcminer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.IntBuffer;
+import java.util.BitSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShareRingTest {
+
+    @Test
+    void offerPoll() {
+        ShareRing ring = ShareRing.allocate(3);
+        assertEquals(4, ring.capacity());
+        assertEquals(ShareRing.EMPTY, ring.poll());
+        assertTrue(ring.offer(1));
+        assertTrue(ring.offer(-1));
+        assertEquals(2, ring.size());
+        assertEquals(1, ring.poll());
+        // unsigned nonces
+        assertEquals(0xFFFFFFFFL, ring.poll());
+        assertEquals(ShareRing.EMPTY, ring.poll());
+        // wraps around
+        for (int lap = 0; lap < 3; lap++) {
+            for (int i = 0; i < 4; i++)
+                assertTrue(ring.offer(lap * 4 + i));
+            for (int i = 0; i < 4; i++)
+                assertEquals(lap * 4 + i, ring.poll());
+        }
+        assertEquals(0, ring.dropped());
+        assertThrows(IllegalArgumentException.class, () -> ShareRing.allocate(0));
+    }
+
+    @Test
+    void dropWhenFull() {
+        ShareRing ring = ShareRing.allocate(2);
+        assertTrue(ring.offer(1));
+        assertTrue(ring.offer(2));
+        assertFalse(ring.offer(3));
+        assertEquals(1, ring.dropped());
+        assertEquals(1, ring.poll());
+        assertTrue(ring.offer(4));
+        assertEquals(2, ring.drain(nonce -> {
+        }));
+        assertEquals(1, ring.dropped());
+    }
+
+    @Test
+    void offerAppended() {
+        ShareRing ring = ShareRing.allocate(8);
+        // device buffer of 2 nonces, 3 shares found
+        IntBuffer appendBuffer = IntBuffer.wrap(new int[]{3, 10, 11});
+        ring.offerAppended(appendBuffer, 2);
+        assertEquals(2, ring.size());
+        assertEquals(1, ring.dropped());
+        assertEquals(10, ring.poll());
+        assertEquals(11, ring.poll());
+    }
+
+    @Test
+    void concurrentProducers() throws InterruptedException {
+        int producers = 4, nonces = 100_000;
+        ShareRing ring = ShareRing.allocate(64);
+        BitSet polled = new BitSet(producers * nonces);
+        AtomicLong offered = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int first = p * nonces;
+            new Thread(() -> {
+                for (int i = 0; i < nonces; i++) {
+                    if (ring.offer(first + i))
+                        offered.incrementAndGet();
+                }
+                done.countDown();
+            }).start();
+        }
+        // single consumer, every nonce is polled once
+        while (done.getCount() > 0 || ring.size() > 0) {
+            long nonce = ring.poll();
+            if (nonce != ShareRing.EMPTY) {
+                assertFalse(polled.get((int) nonce), "polled twice " + nonce);
+                polled.set((int) nonce);
+            }
+        }
+        assertEquals(offered.get(), polled.cardinality());
+        assertEquals((long) producers * nonces, offered.get() + ring.dropped());
+    }
+
+}
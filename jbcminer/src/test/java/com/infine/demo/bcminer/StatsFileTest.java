@@ -0,0 +1,81 @@
+package com.infine.demo.bcminer;
+
+import com.infine.demo.bcminer.java.HashEngine;
+import com.infine.demo.bcminer.java.JavaMiner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void publish() {
+        Path file = tempDir.resolve("bcminer.stats");
+        try (StatsFile statsFile = StatsFile.create(file, 8);
+             JavaMiner miner = new JavaMiner(2, HashEngine.forName(HashEngine.UNROLLED))) {
+            MinerStats stats = miner.getStats().engine("unrolled").publish(statsFile);
+            StatsFileReader reader = new StatsFileReader(file);
+            StatsFileReader.Snapshot snapshot = reader.read();
+            assertEquals(ProcessHandle.current().pid(), snapshot.pid());
+            assertEquals(0, snapshot.jobId());
+            assertEquals("unrolled", snapshot.engine());
+
+            assertEquals(TestHeader.EXPECTED_NONCE, miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100_000));
+            // the worker slots are written by the workers, the totals by the sample
+            snapshot = reader.read();
+            assertEquals(1, snapshot.jobId());
+            assertEquals(stats.workers(), snapshot.workers().size());
+            assertEquals(stats.totalHashes(), snapshot.workers().stream().mapToLong(StatsFileReader.Worker::hashes).sum());
+            for (int i = 0; i < stats.workers(); i++) {
+                assertEquals(stats.worker(i).name(), snapshot.workers().get(i).name());
+                assertTrue(snapshot.workers().get(i).busyNanos() > 0);
+            }
+            assertEquals(0, snapshot.jobHashes());
+
+            stats.sample();
+            snapshot = reader.read();
+            assertEquals(stats.totalHashes(), snapshot.jobHashes());
+            assertEquals(stats.totalHashes(), snapshot.cumulativeHashes());
+            assertEquals(1, snapshot.noncesFound());
+            assertTrue(snapshot.jobRate() > 0);
+            assertTrue(snapshot.updateTime() > 0);
+
+            long firstJobHashes = stats.totalHashes();
+            assertEquals(TestHeader.EXPECTED_NONCE, miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100_000));
+            stats.sample();
+            snapshot = reader.read();
+            assertEquals(2, snapshot.jobId());
+            assertEquals(firstJobHashes + stats.totalHashes(), snapshot.cumulativeHashes());
+            assertEquals(stats.workers(), snapshot.workers().size());
+        }
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void maxWorkers() {
+        Path file = tempDir.resolve("bcminer.stats");
+        try (StatsFile statsFile = StatsFile.create(file, 1)) {
+            MinerStats stats = new MinerStats().publish(statsFile);
+            stats.counter("first").update(10, 0, 1);
+            stats.counter("second").update(20, 0, 1);
+            StatsFileReader.Snapshot snapshot = new StatsFileReader(file).read();
+            assertEquals(1, snapshot.workers().size());
+            assertEquals(new StatsFileReader.Worker("first", 10, 1, snapshot.workers().get(0).activeNanos()), snapshot.workers().get(0));
+        }
+    }
+
+    @Test
+    void invalidFile() throws Exception {
+        Path file = tempDir.resolve("invalid.stats");
+        Files.write(file, new byte[StatsFile.HEADER_SIZE]);
+        assertThrows(IllegalArgumentException.class, () -> new StatsFileReader(file));
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.infine.demo.bcminer;
+
+import com.infine.demo.bcminer.SteadyStateBench.Iteration;
+import com.infine.demo.bcminer.SteadyStateBench.Options;
+import com.infine.demo.bcminer.SteadyStateBench.Summary;
+import com.infine.demo.bcminer.java.JavaMiner;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SteadyStateBenchTest {
+
+    @Test
+    void options() {
+        Options options = Options.parse(new String[]{"java", "-threads", "2", "-steady", "-warmup", "1", "-hashes", "1000", "-forks", "0"});
+        assertEquals(new Options(1, 5, 5, 1000, 0), options);
+        assertThrows(IllegalArgumentException.class, () -> Options.parse(new String[]{"-iterations", "0"}));
+    }
+
+    @Test
+    void summary() {
+        List<Iteration> iterations = List.of(
+                new Iteration(0, 0, true, 1_000_000, 10),
+                new Iteration(0, 1, false, 9_000_000, 1),
+                new Iteration(1, 0, false, 10_000_000, 1),
+                new Iteration(1, 1, false, 11_000_000, 1));
+        Summary summary = SteadyStateBench.summary(iterations, 2);
+        assertEquals(3, summary.samples());
+        assertEquals(10, summary.mean(), 1E-9);
+        assertEquals(1, summary.stddev(), 1E-9);
+        assertEquals(0.1, summary.cv(), 1E-9);
+        // t(2) = 4.303
+        assertEquals(10 - 4.303 / Math.sqrt(3), summary.ci95Low(), 1E-9);
+        assertEquals(10 + 4.303 / Math.sqrt(3), summary.ci95High(), 1E-9);
+        assertTrue(SteadyStateBench.toJson(summary).startsWith("{\"type\":\"summary\""));
+    }
+
+    @Test
+    void iterate() {
+        try (JavaMiner miner = new JavaMiner(1)) {
+            List<Iteration> timed = SteadyStateBench.iterate(miner, new Options(1, 2, 0.2, 0, 0), 0);
+            assertEquals(3, timed.size());
+            assertTrue(timed.get(0).warmup());
+            for (Iteration iteration : timed) {
+                assertTrue(iteration.seconds() >= 0.2);
+                assertTrue(iteration.hashes() > 0);
+            }
+
+            List<Iteration> counted = SteadyStateBench.iterate(miner, new Options(0, 1, 0, 200_000, 0), 0);
+            assertTrue(counted.get(0).hashes() >= 200_000);
+        }
+    }
+
+    @Test
+    void iterateHashes() {
+        // each iteration waits for its job to start : the previous job hashes never cancel it, a late cancel is not lost
+        try (JavaMiner miner = new JavaMiner(1)) {
+            List<Iteration> counted = assertTimeoutPreemptively(Duration.ofSeconds(60),
+                    () -> SteadyStateBench.iterate(miner, new Options(0, 4, 0, 100_000, 0), 0));
+            assertEquals(4, counted.size());
+            for (Iteration iteration : counted) {
+                assertTrue(iteration.hashes() >= 100_000);
+                assertTrue(iteration.hashes() < 0xFFFFFFFFL);
+            }
+            assertEquals(4, miner.getStats().jobs());
+        }
+    }
+
+    @Test
+    void unsolvable() {
+        BlockHeader header = SteadyStateBench.unsolvable(TestHeader.TEST_HEADER);
+        assertEquals(TestHeader.EXPECTED_NONCE, header.nonce());
+        assertEquals(0, header.hashPredicate().hOffset());
+    }
+
+}
@@ -1,9 +1,39 @@
 package com.infine.demo.bcminer;
 
+import com.infine.demo.bcminer.java.Sha256;
+
+import java.util.stream.IntStream;
+
 public class TestHeader {
 
     public static final String TEST_HEADER_HEX = "020000000affed3fc96851d8c74391c2d9333168fe62165eb228bced7e000000000000004277b65e3bd527f0ceb5298bdb06b4aacbae8a4a808c2c8aa414c20f252db801130dae516461011a3aeb9bb8";
     public static final BlockHeader TEST_HEADER = BlockHeader.parse(TEST_HEADER_HEX);
     public static final int EXPECTED_NONCE = TEST_HEADER.nonce(); // 3097226042
 
+    // 12 leading zero bits, 1 share in 4096 hashes
+    public static final HashPredicate SHARE = HashPredicate.ofTarget(new int[]{0x000FFFFF, -1, -1, -1, -1, -1, -1, -1});
+    // 11 leading zero bits, then the target mantissa rejects 1/4 of the hashes passing the mask
+    public static final HashPredicate EXACT_SHARE = HashPredicate.ofTarget(new int[]{0x00180000, 0, 0, 0, 0, 0, 0, 0});
+
+    /**
+     * @return the nonces in [from, from + count[ matching the share predicate, in nonce order
+     */
+    public static int[] shares(HashPredicate share, int from, int count) {
+        int[] midstate = Sha256.createMidstate(TEST_HEADER);
+        int[] hash = new int[Sha256.H_INTS], workBuffer = new int[Sha256.BUFFER_INTS];
+        return IntStream.range(0, count).map(i -> from + i).filter(nonce -> {
+            Sha256.updateHash(hash, TEST_HEADER.data(), midstate, workBuffer, nonce);
+            return share.test(hash);
+        }).toArray();
+    }
+
+    /**
+     * @return the polled nonces, sorted as unsigned
+     */
+    public static int[] drainSorted(ShareRing shares) {
+        IntStream.Builder nonces = IntStream.builder();
+        shares.drain(nonces);
+        return nonces.build().mapToLong(Integer::toUnsignedLong).sorted().mapToInt(nonce -> (int) nonce).toArray();
+    }
+
 }
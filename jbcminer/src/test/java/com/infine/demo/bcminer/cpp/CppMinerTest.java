@@ -0,0 +1,106 @@
+package com.infine.demo.bcminer.cpp;
+
+import com.infine.demo.bcminer.LeadingZeros;
+import com.infine.demo.bcminer.ShareRing;
+import com.infine.demo.bcminer.TestHeader;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CppMinerTest {
+
+    @Test
+    void mine() {
+        try (var miner = new CppMiner(2)) {
+            Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 1_000_000);
+            assertNotNull(matchedNonce);
+            assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+            assertTrue(miner.getStats().totalHashes() > 1_000_000);
+            // one worker stats per native thread
+            assertEquals(2, miner.getStats().workers());
+            assertEquals(miner.getStats().totalHashes(), miner.getStats(0).totalHashes() + miner.getStats(1).totalHashes());
+            assertTrue(miner.getStats(0).busyTime() > 0);
+            // the computed hashes back the reported count
+            LeadingZeros leadingZeros = miner.getStats().leadingZeros();
+            assertTrue(Math.abs(leadingZeros.zScore(miner.getStats().totalHashes())) < 5, leadingZeros.toString());
+        }
+    }
+
+    @Test
+    void engines() {
+        List<String> engines = CppMiner.supportedEngines();
+        assertTrue(engines.contains("scalar"));
+        for (String engine : engines) {
+            try (var miner = new CppMiner(1, engine)) {
+                assertEquals(engine, miner.engine());
+                assertEquals(engine, miner.getStats().engine());
+                Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100_000);
+                assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+                LeadingZeros leadingZeros = miner.getStats().leadingZeros();
+                assertTrue(Math.abs(leadingZeros.zScore(miner.getStats().totalHashes())) < 5, engine + " " + leadingZeros);
+            }
+        }
+        try (var miner = new CppMiner(1)) {
+            assertEquals(engines.get(0), miner.engine());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new CppMiner(1, "unknown"));
+    }
+
+    @Test
+    void shares() {
+        int from = TestHeader.EXPECTED_NONCE - 100_000;
+        int[] expected = TestHeader.shares(TestHeader.SHARE, from, 100_001);
+        for (String engine : CppMiner.supportedEngines()) {
+            try (var miner = new CppMiner(2, engine)) {
+                ShareRing shares = ShareRing.allocate(1024);
+                assertEquals(TestHeader.EXPECTED_NONCE, miner.mine(TestHeader.TEST_HEADER, from, TestHeader.SHARE, shares));
+                assertEquals(0, shares.dropped());
+                // the other worker may offer shares of its chunk beyond the matched nonce
+                int[] polled = TestHeader.drainSorted(shares);
+                assertArrayEquals(expected, Arrays.copyOf(polled, expected.length), engine);
+                for (int i = expected.length; i < polled.length; i++)
+                    assertEquals(1, TestHeader.shares(TestHeader.SHARE, polled[i], 1).length, engine + " share " + polled[i]);
+            }
+        }
+    }
+
+    @Test
+    void cancel() throws Exception {
+        try (var miner = new CppMiner(2)) {
+            // 2^32 nonces before the expected nonce
+            CompletableFuture<Integer> future = CompletableFuture.supplyAsync(() -> miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE + 1));
+            while (miner.getStats().totalHashes() == 0 && !future.isDone())
+                Thread.sleep(10);
+            miner.cancel();
+            assertNull(future.get());
+        }
+    }
+
+    @Test
+    void cancelWhileClosing() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            var miner = new CppMiner(1);
+            CompletableFuture<Void> canceller = CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < 1000; j++)
+                    miner.cancel();
+            });
+            miner.close();
+            canceller.get();
+            // no-op once closed
+            miner.cancel();
+        }
+    }
+
+    public static void main(String[] args) {
+        new CppMinerTest().mine();
+    }
+}
@@ -0,0 +1,88 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.MinerStats;
+import com.infine.demo.bcminer.TestHeader;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static com.infine.demo.bcminer.java.Sha256.BUFFER_INTS;
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static com.infine.demo.bcminer.java.UnrolledHasherTest.randomHeader;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BitslicedHasherTest {
+
+    @Test
+    void matchSha256() {
+        Random random = new Random(239711);
+        int[] expected = new int[H_INTS], workBuffer = new int[BUFFER_INTS];
+        for (int i = 0; i < 20; i++) {
+            BlockHeader header = randomHeader(random);
+            int[] midstate = Sha256.createMidstate(header);
+            BitslicedHasher hasher = new BitslicedHasher(header);
+            int nonce = random.nextInt(), stride = random.nextInt(16) + 1;
+            hasher.hash(nonce, stride);
+            for (int lane = 0; lane < BitslicedHasher.LANES; lane++) {
+                Sha256.updateHash(expected, header.data(), midstate, workBuffer, nonce + lane * stride);
+                assertArrayEquals(expected, hasher.hash(lane));
+            }
+        }
+    }
+
+    @Test
+    void copyData() {
+        BlockHeader header = TestHeader.TEST_HEADER;
+        ByteBuffer data = ByteBuffer.allocateDirect(BlockHeader.DATA_INTS * Integer.BYTES);
+        header.copyData(data);
+        BitslicedHasher hasher = new BitslicedHasher(data);
+        assertTrue(hasher.test(TestHeader.EXPECTED_NONCE));
+        assertFalse(hasher.test(TestHeader.EXPECTED_NONCE + 1));
+    }
+
+    @Test
+    void scan() {
+        Random random = new Random(239711);
+        BlockHeader header = randomHeader(random);
+        int[] midstate = Sha256.createMidstate(header);
+        int[] expected = new int[H_INTS], workBuffer = new int[BUFFER_INTS];
+        // 1 in 4096 hashes matches, and is rejected early otherwise
+        HashPredicate predicate = new HashPredicate(7, 0xFFF);
+        int nonce = random.nextInt(), stride = 5;
+        int expectedMatch = -1;
+        for (int i = 0; expectedMatch < 0; i++) {
+            Sha256.updateHash(expected, header.data(), midstate, workBuffer, nonce + i * stride);
+            if (predicate.test(expected)) expectedMatch = i;
+        }
+
+        ByteBuffer data = ByteBuffer.allocate(BlockHeader.DATA_INTS * Integer.BYTES);
+        header.copyData(data);
+        data.putInt(11 * Integer.BYTES, predicate.hOffset()).putInt(12 * Integer.BYTES, predicate.mask());
+        for (int i = 0; i < H_INTS; i++)
+            data.putInt((BlockHeader.DATA_TARGET + i) * Integer.BYTES, predicate.target()[i]);
+        BitslicedHasher hasher = new BitslicedHasher(data);
+        assertEquals(expectedMatch, hasher.scan(nonce, stride, expectedMatch + 100));
+        long rejected = hasher.earlyRejected();
+        assertTrue(rejected >= expectedMatch);
+        // every nonce before the match is rejected early
+        assertEquals(-1, hasher.scan(nonce, stride, expectedMatch));
+        assertEquals(rejected + expectedMatch, hasher.earlyRejected());
+    }
+
+    @Test
+    void mine() {
+        try (var miner = new JavaMiner(2, HashEngine.forName(HashEngine.BITSLICED))) {
+            Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 10000);
+            assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+            MinerStats stats = miner.getStats();
+            assertEquals(stats.totalHashes(), stats.earlyRejected() + stats.fullyComputed());
+        }
+    }
+
+}
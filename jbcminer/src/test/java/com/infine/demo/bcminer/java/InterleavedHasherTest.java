@@ -0,0 +1,96 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.MinerStats;
+import com.infine.demo.bcminer.TestHeader;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.infine.demo.bcminer.java.Sha256.BUFFER_INTS;
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static com.infine.demo.bcminer.java.UnrolledHasherTest.randomHeader;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InterleavedHasherTest {
+
+    @Test
+    void matchSha256() {
+        Random random = new Random(239711);
+        int[] expected = new int[H_INTS], workBuffer = new int[BUFFER_INTS];
+        for (int factor = InterleavedHasher.MIN_FACTOR; factor <= InterleavedHasher.MAX_FACTOR; factor++) {
+            for (int i = 0; i < 50; i++) {
+                BlockHeader header = randomHeader(random);
+                int[] midstate = Sha256.createMidstate(header);
+                InterleavedHasher hasher = create(factor, header, header.hashPredicate());
+                for (int j = 0; j < 20; j++) {
+                    int nonce = random.nextInt(), stride = random.nextInt(16) + 1;
+                    hasher.hash(nonce, stride);
+                    for (int lane = 0; lane < factor; lane++) {
+                        Sha256.updateHash(expected, header.data(), midstate, workBuffer, nonce + lane * stride);
+                        assertArrayEquals(expected, hasher.hash(lane));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void scan() {
+        Random random = new Random(239711);
+        BlockHeader header = randomHeader(random);
+        int[] midstate = Sha256.createMidstate(header);
+        int[] expected = new int[H_INTS], workBuffer = new int[BUFFER_INTS];
+        // 1 in 4096 hashes matches, and is rejected early otherwise
+        HashPredicate predicate = new HashPredicate(7, 0xFFF);
+        int nonce = random.nextInt(), stride = 3;
+        int expectedMatch = -1;
+        for (int i = 0; expectedMatch < 0; i++) {
+            Sha256.updateHash(expected, header.data(), midstate, workBuffer, nonce + i * stride);
+            if (predicate.test(expected)) expectedMatch = i;
+        }
+        for (int factor = InterleavedHasher.MIN_FACTOR; factor <= InterleavedHasher.MAX_FACTOR; factor++) {
+            InterleavedHasher hasher = create(factor, header, predicate);
+            assertEquals(expectedMatch, hasher.scan(nonce, stride, expectedMatch + 100));
+            long rejected = hasher.earlyRejected();
+            // nonces after the match in the same interleaved group
+            assertTrue(rejected >= expectedMatch && rejected < expectedMatch + factor);
+            assertEquals(-1, hasher.scan(nonce, stride, expectedMatch));
+            assertEquals(rejected + expectedMatch, hasher.earlyRejected());
+        }
+    }
+
+    @Test
+    void testHeader() {
+        BlockHeader header = TestHeader.TEST_HEADER;
+        for (int factor = InterleavedHasher.MIN_FACTOR; factor <= InterleavedHasher.MAX_FACTOR; factor++) {
+            InterleavedHasher hasher = create(factor, header, header.hashPredicate());
+            assertTrue(hasher.test(TestHeader.EXPECTED_NONCE));
+            assertFalse(hasher.test(TestHeader.EXPECTED_NONCE + 1));
+        }
+    }
+
+    @Test
+    void invalidFactor() {
+        assertThrows(IllegalArgumentException.class, () -> HashEngine.forName(HashEngine.INTERLEAVED, 5));
+    }
+
+    @Test
+    void mine() {
+        try (var miner = new JavaMiner(2, HashEngine.forName(HashEngine.INTERLEAVED, 3))) {
+            Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100000);
+            assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+            MinerStats stats = miner.getStats();
+            assertEquals(stats.totalHashes(), stats.earlyRejected() + stats.fullyComputed());
+        }
+    }
+
+    private static InterleavedHasher create(int factor, BlockHeader header, HashPredicate predicate) {
+        return (InterleavedHasher) InterleavedHasher.engine(factor).createHasher(header, Sha256.precompute(header), predicate);
+    }
+}
@@ -0,0 +1,53 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.TestHeader;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JavaMinerJobTest {
+
+    @Test
+    void switchJob() throws Exception {
+        try (var miner = new JavaMiner(2, HashEngine.forName(HashEngine.UNROLLED))) {
+            // far from the expected nonce, replaced by the next mine
+            CompletableFuture<Integer> previous = CompletableFuture.supplyAsync(() -> miner.mine(TestHeader.TEST_HEADER, 0));
+            while (miner.jobSwitchNanos() < 0)
+                Thread.onSpinWait();
+
+            Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100_000);
+            assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+            assertTrue(previous.isDone());
+            assertNull(previous.get());
+            assertTrue(miner.jobSwitchNanos() > 0);
+            // the previous job searched from 0, the new one up to the expected nonce
+            assertFalse(miner.searchedRanges().contains(0));
+        }
+    }
+
+    @Test
+    void cancel() throws Exception {
+        try (var miner = new JavaMiner(2, HashEngine.forName(HashEngine.UNROLLED))) {
+            CompletableFuture<Integer> future = CompletableFuture.supplyAsync(() -> miner.mine(TestHeader.TEST_HEADER, 0));
+            while (miner.jobSwitchNanos() < 0)
+                Thread.onSpinWait();
+            miner.cancel();
+            assertNull(future.get(10, TimeUnit.SECONDS));
+
+            // the pool is reused by the next job
+            Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 1000);
+            assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+        }
+    }
+
+    @Test
+    void close() {
+        var miner = new JavaMiner(1);
+        miner.close();
+        assertThrows(IllegalStateException.class, () -> miner.mine(TestHeader.TEST_HEADER, 0));
+    }
+
+}
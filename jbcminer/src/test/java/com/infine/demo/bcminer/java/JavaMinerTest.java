@@ -1,10 +1,23 @@
 package com.infine.demo.bcminer.java;
 
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.ShareRing;
 import com.infine.demo.bcminer.TestHeader;
 import org.junit.jupiter.api.Test;
 
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class JavaMinerTest {
 
@@ -15,6 +28,80 @@ class JavaMinerTest {
             assertNotNull(matchedNonce);
             assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
             assertEquals(1000001, miner.getStats(0).totalHashes());
+            // the computed hashes back the reported count
+            assertTrue(Math.abs(miner.getStats().leadingZeros().zScore(1000001)) < 5, miner.getStats().leadingZeros().toString());
+        }
+    }
+
+    @Test
+    void shares() {
+        int from = TestHeader.EXPECTED_NONCE - 200_000;
+        for (HashPredicate share : List.of(TestHeader.SHARE, TestHeader.EXACT_SHARE)) {
+            int[] expected = TestHeader.shares(share, from, 200_001);
+            // the matched nonce is a share too
+            assertEquals(TestHeader.EXPECTED_NONCE, expected[expected.length - 1]);
+            for (String engine : HashEngine.NAMES)
+                shares(engine, HashEngine.forName(engine), share, from, expected);
+            shares(HashEngine.INTERLEAVED + "-3", HashEngine.forName(HashEngine.INTERLEAVED, 3), share, from, expected);
+        }
+    }
+
+    private static void shares(String name, HashEngine engine, HashPredicate share, int from, int[] expected) {
+        try (var miner = new JavaMiner(1, engine)) {
+            ShareRing shares = ShareRing.allocate(1024);
+            assertEquals(TestHeader.EXPECTED_NONCE, miner.mine(TestHeader.TEST_HEADER, from, share, shares), name);
+            int[] offered = TestHeader.drainSorted(shares);
+            int[] midstate = Sha256.createMidstate(TestHeader.TEST_HEADER);
+            int[] hash = new int[Sha256.H_INTS], workBuffer = new int[Sha256.BUFFER_INTS];
+            for (int nonce : offered) {
+                Sha256.updateHash(hash, TestHeader.TEST_HEADER.data(), midstate, workBuffer, nonce);
+                assertTrue(HashPredicate.atMostTarget(hash, share.target(), 0), name + " share above the target " + nonce);
+            }
+            assertArrayEquals(expected, offered, name);
+            assertEquals(0, shares.dropped(), name);
+            assertEquals(200_001, miner.getStats().totalHashes(), name);
+
+            // full ring : the shares are dropped, the search goes on
+            ShareRing small = ShareRing.allocate(4);
+            assertEquals(TestHeader.EXPECTED_NONCE, miner.mine(TestHeader.TEST_HEADER, from, share, small), name);
+            assertEquals(expected.length - 4, small.dropped(), name);
+            assertArrayEquals(Arrays.copyOf(expected, 4), TestHeader.drainSorted(small), name);
+        }
+    }
+
+    @Test
+    void releaseHashers() throws InterruptedException {
+        List<WeakReference<NonceHasher>> hashers = new CopyOnWriteArrayList<>();
+        HashEngine unrolled = HashEngine.forName(HashEngine.UNROLLED);
+        HashEngine engine = (header, precomputed, predicate) -> {
+            NonceHasher hasher = unrolled.createHasher(header, precomputed, predicate);
+            hashers.add(new WeakReference<>(hasher));
+            return hasher;
+        };
+        try (var miner = new JavaMiner(2, engine)) {
+            assertEquals(TestHeader.EXPECTED_NONCE, miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 300_000));
+            assertFalse(hashers.isEmpty());
+            // the pool threads are still alive, and do not keep the hashers of the finished job
+            for (int i = 0; i < 10 && hashers.stream().anyMatch(h -> h.get() != null); i++) {
+                System.gc();
+                Thread.sleep(100);
+            }
+            assertTrue(hashers.stream().allMatch(h -> h.get() == null));
+        }
+    }
+
+    @Test
+    void cancelWaitingMine() throws Exception {
+        try (var miner = new JavaMiner(1)) {
+            // 2^32 nonces before the expected nonce
+            CompletableFuture<Integer> running = CompletableFuture.supplyAsync(() -> miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE + 1));
+            while (miner.getStats().totalHashes() == 0)
+                Thread.sleep(1);
+            // replaces the running job, then waits for its workers
+            CompletableFuture<Integer> waiting = CompletableFuture.supplyAsync(() -> miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE + 1));
+            assertNull(running.get(1, TimeUnit.MINUTES));
+            miner.cancel();
+            assertNull(waiting.get(1, TimeUnit.MINUTES));
         }
     }
 
@@ -0,0 +1,70 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.TestHeader;
+import com.infine.demo.bcminer.java.NonceRanges.Range;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NonceRangesTest {
+
+    @Test
+    void merge() {
+        NonceRanges ranges = new NonceRanges();
+        ranges.add(10, 20);
+        ranges.add(30, 40);
+        assertEquals(List.of(new Range(10, 20), new Range(30, 40)), ranges.ranges());
+        ranges.add(20, 25);
+        assertEquals(List.of(new Range(10, 25), new Range(30, 40)), ranges.ranges());
+        ranges.add(5, 50);
+        assertEquals(List.of(new Range(5, 50)), ranges.ranges());
+        ranges.add(60, 70);
+        ranges.add(50, 55);
+        ranges.add(55, 60);
+        assertEquals(List.of(new Range(5, 70)), ranges.ranges());
+        ranges.add(10, 15);
+        assertEquals(List.of(new Range(5, 70)), ranges.ranges());
+        assertEquals(65, ranges.size());
+        assertTrue(ranges.contains(5));
+        assertTrue(ranges.contains(69));
+        assertFalse(ranges.contains(70));
+        assertFalse(ranges.contains(4));
+    }
+
+    @Test
+    void wrap() {
+        NonceRanges ranges = new NonceRanges();
+        ranges.addNonces(-2, 4);
+        assertEquals(List.of(new Range(0, 2), new Range(0xFFFFFFFEL, 1L << 32)), ranges.ranges());
+        ranges.addNonces(2, 10);
+        assertEquals(List.of(new Range(0, 12), new Range(0xFFFFFFFEL, 1L << 32)), ranges.ranges());
+    }
+
+    @Test
+    void searchedRanges() {
+        long expectedNonce = Integer.toUnsignedLong(TestHeader.EXPECTED_NONCE);
+        try (var miner = new JavaMiner(1, HashEngine.forName(HashEngine.UNROLLED))) {
+            Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 1_000_000);
+            assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+            // a single worker searches the chunks in order
+            assertEquals(List.of(new Range(expectedNonce - 1_000_000, expectedNonce + 1)), miner.searchedRanges().ranges());
+            assertEquals(1_000_001, miner.getStats().totalHashes());
+        }
+
+        try (var miner = new JavaMiner(4, HashEngine.forName(HashEngine.UNROLLED))) {
+            Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 4_000_000);
+            assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+            NonceRanges ranges = miner.searchedRanges();
+            assertTrue(ranges.contains(expectedNonce));
+            assertEquals(miner.getStats().totalHashes(), ranges.size());
+            // idle workers steal the other half of the nonces range
+            assertTrue(ranges.contains(expectedNonce - 4_000_000));
+            assertTrue(ranges.ranges().size() > 1);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.MinerStats;
+import com.infine.demo.bcminer.TestHeader;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Random;
+
+import static com.infine.demo.bcminer.java.Sha256.BUFFER_INTS;
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static com.infine.demo.bcminer.java.UnrolledHasherTest.randomHeader;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpecializedEngineTest {
+
+    @Test
+    void matchSha256() {
+        Random random = new Random(239711);
+        int[] expected = new int[H_INTS], workBuffer = new int[BUFFER_INTS];
+        SpecializedEngine engine = new SpecializedEngine();
+        for (int i = 0; i < 20; i++) {
+            BlockHeader header = randomHeader(random);
+            int[] midstate = Sha256.createMidstate(header);
+            // 1 in 256 hashes passes the early reject, 1 in 65536 matches
+            HashPredicate predicate = new HashPredicate(6 + random.nextInt(2), 0xFF);
+            NonceHasher hasher = engine.createHasher(header, Sha256.precompute(header), predicate);
+            for (int j = 0; j < 10_000; j++) {
+                int nonce = random.nextInt();
+                Sha256.updateHash(expected, header.data(), midstate, workBuffer, nonce);
+                assertEquals(predicate.test(expected), hasher.test(nonce));
+            }
+        }
+        assertEquals(20, engine.definedClasses());
+    }
+
+    @Test
+    void testHeader() {
+        BlockHeader header = TestHeader.TEST_HEADER;
+        NonceHasher hasher = new SpecializedEngine().createHasher(header, Sha256.precompute(header), header.hashPredicate());
+        assertTrue(hasher.test(TestHeader.EXPECTED_NONCE));
+        assertFalse(hasher.test(TestHeader.EXPECTED_NONCE + 1));
+        assertTrue(hasher.earlyRejected() > 0);
+    }
+
+    @Test
+    void sharedClass() {
+        BlockHeader header = TestHeader.TEST_HEADER;
+        SpecializedEngine engine = new SpecializedEngine();
+        NonceHasher first = engine.createHasher(header, Sha256.precompute(header), header.hashPredicate());
+        NonceHasher second = engine.createHasher(header, Sha256.precompute(header), header.hashPredicate());
+        assertNotSame(first, second);
+        assertSame(first.getClass(), second.getClass());
+        assertTrue(first.getClass().isHidden());
+        assertEquals(1, engine.definedClasses());
+    }
+
+    @Test
+    void unloadEvictedClasses() throws InterruptedException {
+        Random random = new Random(239711);
+        SpecializedEngine engine = new SpecializedEngine();
+        BlockHeader header = randomHeader(random);
+        WeakReference<Class<?>> evicted = new WeakReference<>(engine.createHasher(header, Sha256.precompute(header), header.hashPredicate()).getClass());
+        for (int i = 0; i < SpecializedEngine.CACHE_SIZE; i++) {
+            header = randomHeader(random);
+            engine.createHasher(header, Sha256.precompute(header), header.hashPredicate());
+        }
+        assertEquals(SpecializedEngine.CACHE_SIZE, engine.cachedClasses());
+        for (int i = 0; i < 10 && evicted.get() != null; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertNull(evicted.get());
+    }
+
+    @Test
+    void template() {
+        assertThrows(ExceptionInInitializerError.class, SpecializedHasher::new);
+    }
+
+    @Test
+    void mine() {
+        try (var miner = new JavaMiner(2, HashEngine.forName(HashEngine.SPECIALIZED))) {
+            Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100000);
+            assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+            MinerStats stats = miner.getStats();
+            assertTrue(stats.earlyRejected() > 0);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.java.ThreadScaling.Point;
+import com.infine.demo.bcminer.java.ThreadScaling.Sweep;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadScalingTest {
+
+    @Test
+    void curve() {
+        // 4 physical cores with SMT
+        Sweep sweep = new Sweep(List.of(new Point(1, 10), new Point(2, 20), new Point(3, 29), new Point(4, 38),
+                new Point(5, 40), new Point(6, 42), new Point(7, 43), new Point(8, 41)));
+        assertEquals(4, sweep.knee());
+        assertEquals(7, sweep.best());
+        assertEquals(3.8, sweep.speedup(3), 1E-9);
+        assertEquals(0.95, sweep.efficiency(3), 1E-9);
+        assertTrue(sweep.toString().contains("knee at 4 threads, best at 7 threads"));
+    }
+
+    @Test
+    void sweep() {
+        Sweep sweep = ThreadScaling.sweep(HashEngine.forName(HashEngine.SCALAR), 2, 0.2);
+        assertEquals(2, sweep.points().size());
+        assertTrue(sweep.points().get(0).mhps() > 0);
+    }
+
+    @Test
+    void autoThreads(@TempDir Path dir) throws IOException {
+        Path cacheFile = dir.resolve("threads.properties");
+        int processors = Runtime.getRuntime().availableProcessors();
+        Files.writeString(cacheFile, HashEngine.UNROLLED + "." + processors + "=3\n");
+        assertEquals(3, ThreadScaling.autoThreads(cacheFile, HashEngine.UNROLLED, 2));
+        assertEquals(5, ThreadScaling.parseThreads("5", HashEngine.UNROLLED, 2));
+        if (processors <= 2) {
+            // measured, then cached
+            int threads = ThreadScaling.autoThreads(cacheFile, HashEngine.SCALAR, 2);
+            assertTrue(threads >= 1 && threads <= processors);
+            assertTrue(Files.readString(cacheFile).contains(HashEngine.SCALAR + "." + processors + "=" + threads));
+        }
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.MinerStats;
+import com.infine.demo.bcminer.TestHeader;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static com.infine.demo.bcminer.java.Sha256.BUFFER_INTS;
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UnrolledHasherTest {
+
+    @Test
+    void matchSha256() {
+        Random random = new Random(239711);
+        int[] expected = new int[H_INTS], workBuffer = new int[BUFFER_INTS];
+        for (int i = 0; i < 100; i++) {
+            BlockHeader header = randomHeader(random);
+            int[] midstate = Sha256.createMidstate(header);
+            UnrolledHasher hasher = new UnrolledHasher(header, Sha256.precompute(header), header.hashPredicate());
+            for (int j = 0; j < 100; j++) {
+                int nonce = random.nextInt();
+                Sha256.updateHash(expected, header.data(), midstate, workBuffer, nonce);
+                hasher.hash(nonce);
+                assertArrayEquals(expected, hasher.hash());
+            }
+        }
+    }
+
+    @Test
+    void earlyReject() {
+        Random random = new Random(239711);
+        BlockHeader header = randomHeader(random);
+        int[] midstate = Sha256.createMidstate(header);
+        int[] expected = new int[H_INTS], workBuffer = new int[BUFFER_INTS];
+        // 1 in 256 hashes passes the last word test
+        HashPredicate predicate = new HashPredicate(7, 0xFF);
+        UnrolledHasher hasher = new UnrolledHasher(header, Sha256.precompute(header), predicate);
+        int matched = 0;
+        for (int i = 0; i < 100_000; i++) {
+            int nonce = random.nextInt();
+            Sha256.updateHash(expected, header.data(), midstate, workBuffer, nonce);
+            boolean expectedMatch = predicate.test(expected);
+            assertEquals(expectedMatch, hasher.test(nonce));
+            if (expectedMatch) matched++;
+        }
+        assertEquals(100_000 - matched, hasher.earlyRejected());
+    }
+
+    @Test
+    void testHeader() {
+        BlockHeader header = TestHeader.TEST_HEADER;
+        UnrolledHasher hasher = new UnrolledHasher(header, Sha256.precompute(header), header.hashPredicate());
+        assertTrue(hasher.test(TestHeader.EXPECTED_NONCE));
+        assertFalse(hasher.test(TestHeader.EXPECTED_NONCE + 1));
+    }
+
+    @Test
+    void mine() {
+        try (var miner = new JavaMiner(2, HashEngine.forName(HashEngine.UNROLLED))) {
+            Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100000);
+            assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+            MinerStats stats = miner.getStats();
+            assertTrue(stats.earlyRejected() > 0);
+            assertEquals(stats.totalHashes(), stats.earlyRejected() + stats.fullyComputed());
+        }
+    }
+
+    static BlockHeader randomHeader(Random random) {
+        int[] data = new int[BlockHeader.HEADER_INTS];
+        for (int i = 0; i < data.length; i++)
+            data[i] = random.nextInt();
+        return new BlockHeader(data);
+    }
+}
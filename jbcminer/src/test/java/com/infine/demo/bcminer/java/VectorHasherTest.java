@@ -0,0 +1,122 @@
+package com.infine.demo.bcminer.java;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.MinerStats;
+import com.infine.demo.bcminer.TestHeader;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static com.infine.demo.bcminer.java.Sha256.BUFFER_INTS;
+import static com.infine.demo.bcminer.java.Sha256.H_INTS;
+import static com.infine.demo.bcminer.java.UnrolledHasherTest.randomHeader;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VectorHasherTest {
+
+    private static final int LANES = VectorHasher.LANES;
+
+    @Test
+    void matchSha256() {
+        Random random = new Random(239711);
+        int[] expected = new int[H_INTS], workBuffer = new int[BUFFER_INTS];
+        for (int i = 0; i < 100; i++) {
+            BlockHeader header = randomHeader(random);
+            int[] midstate = Sha256.createMidstate(header);
+            VectorHasher hasher = new VectorHasher(header, Sha256.precompute(header), header.hashPredicate());
+            for (int j = 0; j < 20; j++) {
+                int nonce = random.nextInt(), stride = random.nextInt(16) + 1;
+                int[] hash = hasher.hash(nonce, stride);
+                for (int lane = 0; lane < LANES; lane++) {
+                    Sha256.updateHash(expected, header.data(), midstate, workBuffer, nonce + lane * stride);
+                    for (int word = 0; word < H_INTS; word++)
+                        assertEquals(expected[word], hash[word * LANES + lane]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void scan() {
+        Random random = new Random(239711);
+        BlockHeader header = randomHeader(random);
+        int[] midstate = Sha256.createMidstate(header);
+        int[] expected = new int[H_INTS], workBuffer = new int[BUFFER_INTS];
+        // 1 in 65536 hashes matches
+        HashPredicate predicate = new HashPredicate(7, 0xFFFF);
+        VectorHasher hasher = new VectorHasher(header, Sha256.precompute(header), predicate);
+        int nonce = random.nextInt(), stride = 3;
+        int count = 1_000_003;
+        int expectedMatch = -1;
+        for (int i = 0; i < count && expectedMatch < 0; i++) {
+            Sha256.updateHash(expected, header.data(), midstate, workBuffer, nonce + i * stride);
+            if (predicate.test(expected)) expectedMatch = i;
+        }
+        assertTrue(expectedMatch >= 0);
+        assertEquals(expectedMatch, hasher.scan(nonce, stride, count));
+
+        // rejected lanes past the match are counted too, up to the last scanned vector
+        long scanned = Math.min((long) (expectedMatch / LANES + 1) * LANES, count);
+        assertTrue(hasher.earlyRejected() >= expectedMatch);
+        assertTrue(hasher.earlyRejected() < scanned);
+    }
+
+    @Test
+    void exactTarget() {
+        Random random = new Random(239711);
+        BlockHeader header = randomHeader(random);
+        int[] precomputed = Sha256.precompute(header);
+        // 9 leading zero bits, the target mantissa rejects 3/8 of the hashes passing the mask
+        HashPredicate predicate = HashPredicate.ofTarget(new int[]{0x00500000, 0, 0, 0, 0, 0, 0, 0});
+        VectorHasher hasher = new VectorHasher(header, precomputed, predicate);
+        ScalarHasher scalar = new ScalarHasher(header, precomputed, predicate);
+        int nonce = random.nextInt();
+        int[] expected = matches(scalar, nonce, 200_000);
+        // about 200000 / 819
+        assertTrue(expected.length > 150 && expected.length < 350, "matches " + expected.length);
+        assertArrayEquals(expected, matches(hasher, nonce, 200_000));
+    }
+
+    // indexes of all the matching nonces
+    private static int[] matches(NonceHasher hasher, int nonce, int count) {
+        IntStream.Builder matches = IntStream.builder();
+        for (int from = 0, match; from < count && (match = hasher.scan(nonce + from, 1, count - from)) >= 0; from += match + 1)
+            matches.add(from + match);
+        return matches.build().toArray();
+    }
+
+    @Test
+    void partialScan() {
+        BlockHeader header = TestHeader.TEST_HEADER;
+        VectorHasher hasher = new VectorHasher(header, Sha256.precompute(header), header.hashPredicate());
+        int count = LANES / 2 + 1;
+        assertEquals(count - 1, hasher.scan(TestHeader.EXPECTED_NONCE - count + 1, 1, count));
+        // matching lane out of the scanned range
+        assertEquals(-1, hasher.scan(TestHeader.EXPECTED_NONCE - count + 1, 1, count - 1));
+        assertEquals(2 * count - 2, hasher.earlyRejected());
+    }
+
+    @Test
+    void testHeader() {
+        BlockHeader header = TestHeader.TEST_HEADER;
+        VectorHasher hasher = new VectorHasher(header, Sha256.precompute(header), header.hashPredicate());
+        assertTrue(hasher.test(TestHeader.EXPECTED_NONCE));
+        assertFalse(hasher.test(TestHeader.EXPECTED_NONCE + 1));
+    }
+
+    @Test
+    void mine() {
+        try (var miner = new JavaMiner(2, HashEngine.forName(HashEngine.VECTOR))) {
+            Integer matchedNonce = miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100000);
+            assertEquals(TestHeader.EXPECTED_NONCE, matchedNonce);
+            MinerStats stats = miner.getStats();
+            assertEquals(stats.totalHashes(), stats.earlyRejected() + stats.fullyComputed());
+        }
+    }
+
+}
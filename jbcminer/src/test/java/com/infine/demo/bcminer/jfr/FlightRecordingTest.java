@@ -0,0 +1,60 @@
+package com.infine.demo.bcminer.jfr;
+
+import com.infine.demo.bcminer.TestHeader;
+import com.infine.demo.bcminer.java.HashEngine;
+import com.infine.demo.bcminer.java.JavaMiner;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void minerEvents() throws Exception {
+        Path file = tempDir.resolve("bench.jfr");
+        long hashes;
+        try (FlightRecording ignored = FlightRecording.start(file);
+             JavaMiner miner = new JavaMiner(2, HashEngine.forName(HashEngine.UNROLLED))) {
+            assertEquals(TestHeader.EXPECTED_NONCE, miner.mine(TestHeader.TEST_HEADER, TestHeader.EXPECTED_NONCE - 100_000));
+            miner.getStats().sample();
+            hashes = miner.getStats().totalHashes();
+        }
+
+        Map<String, RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("com.infine.bcminer."))
+                .collect(Collectors.toMap(e -> e.getEventType().getName(), Function.identity(), (a, b) -> b));
+        assertEquals(List.of(HashRateEvent.NAME, JobEvent.NAME, JobSwitchEvent.NAME, NonceFoundEvent.NAME),
+                events.keySet().stream().sorted().toList());
+
+        RecordedEvent job = events.get(JobEvent.NAME);
+        assertEquals("java", job.getString("miner"));
+        assertTrue(job.getBoolean("matched"));
+        assertEquals(TestHeader.EXPECTED_NONCE, job.getInt("nonce"));
+        // up to the matched nonce, and the other chunks searched concurrently
+        assertTrue(job.getLong("hashes") >= 100_001);
+        assertTrue(job.getDuration().toNanos() > 0);
+
+        assertEquals(TestHeader.EXPECTED_NONCE, events.get(NonceFoundEvent.NAME).getInt("nonce"));
+        assertTrue(events.get(JobSwitchEvent.NAME).getDuration("latency").toNanos() > 0);
+        assertEquals(hashes, events.get(HashRateEvent.NAME).getLong("totalHashes"));
+    }
+
+    @Test
+    void parseFile() {
+        assertEquals(Path.of("bench.jfr"), FlightRecording.parseFile(new String[]{"java", "-threads", "2", "-jfr", "bench.jfr"}));
+        assertNull(FlightRecording.parseFile(new String[]{"java", "-jfr"}));
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.infine.demo.bcminer.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.LinuxPerfAsmProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+
+/**
+ * Run the benchmarks with a profiler configuration :
+ * <ul>
+ *     <li>default : no profiler</li>
+ *     <li>gc : allocation rate and GC count per operation, the hashing hot path must not allocate</li>
+ *     <li>perfasm : hottest generated code regions, needs Linux perf and the hsdis disassembler in the JDK</li>
+ * </ul>
+ * Usage : <code>BenchmarkRunner [default|gc|perfasm] [benchmark regex...]</code>, all the benchmarks of this package
+ * by default. Use the JMH main (org.openjdk.jmh.Main) for other options.
+ */
+public final class BenchmarkRunner {
+
+    public static final String DEFAULT = "default";
+    public static final String GC = "gc";
+    public static final String PERFASM = "perfasm";
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Run a benchmark class, with an optional profiler configuration in args
+     */
+    public static void run(Class<?> benchmark, String[] args) throws RunnerException {
+        String config = args.length > 0 ? args[0] : DEFAULT;
+        new Runner(options(config, benchmark.getSimpleName()).build()).run();
+    }
+
+    public static ChainedOptionsBuilder options(String config, String... includes) {
+        ChainedOptionsBuilder builder = new OptionsBuilder();
+        for (String include : includes)
+            builder.include(include);
+        switch (config) {
+            case DEFAULT -> {
+            }
+            case GC -> builder.addProfiler(GCProfiler.class);
+            // the benchmark inlining and loop unrolling are kept, only the disassembly is added
+            case PERFASM -> builder.addProfiler(LinuxPerfAsmProfiler.class)
+                    .jvmArgsAppend("-XX:+UnlockDiagnosticVMOptions", "-XX:PrintAssemblyOptions=intel");
+            default -> throw new IllegalArgumentException("Unknown profiler configuration " + config + ", expected one of default, gc, perfasm");
+        }
+        return builder;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        String config = args.length > 0 ? args[0] : DEFAULT;
+        String[] includes = args.length > 1 ? Arrays.copyOfRange(args, 1, args.length) : new String[]{BenchmarkRunner.class.getPackageName()};
+        new Runner(options(config, includes).build()).run();
+    }
+
+}
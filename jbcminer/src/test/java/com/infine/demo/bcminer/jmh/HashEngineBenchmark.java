@@ -0,0 +1,70 @@
+package com.infine.demo.bcminer.jmh;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.TestHeader;
+import com.infine.demo.bcminer.java.HashEngine;
+import com.infine.demo.bcminer.java.NonceHasher;
+import com.infine.demo.bcminer.java.Sha256;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single thread throughput of the {@link HashEngine}s, in nonces per second.<br/>
+ * Run from the IDE or with <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.infine.demo.bcminer.jmh.HashEngineBenchmark [-Dexec.args=gc]</code>, see {@link BenchmarkRunner}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class HashEngineBenchmark {
+
+    private static final int NONCES = 4096;
+
+    @Param({HashEngine.SCALAR, HashEngine.UNROLLED, HashEngine.VECTOR, HashEngine.BITSLICED, HashEngine.INTERLEAVED, HashEngine.SPECIALIZED})
+    public String engine;
+
+    // only used by the interleaved engine, sweep with -p interleave=2,3,4
+    @Param({"2"})
+    public int interleave;
+
+    private NonceHasher hasher;
+
+    private int nonce;
+
+    @Setup
+    public void setup() {
+        BlockHeader header = TestHeader.TEST_HEADER;
+        hasher = HashEngine.forName(engine, interleave).createHasher(header, Sha256.precompute(header), header.hashPredicate());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NONCES)
+    public int scan() {
+        // positive nonces, never matching the test header nonce
+        int matched = hasher.scan(nonce, 1, NONCES);
+        nonce += NONCES;
+        if (nonce < 0) nonce = 0;
+        return matched;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(HashEngineBenchmark.class, args);
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.infine.demo.bcminer.jmh;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.TestHeader;
+import com.infine.demo.bcminer.java.HashEngine;
+import com.infine.demo.bcminer.java.NonceHasher;
+import com.infine.demo.bcminer.java.Sha256;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average time of the {@link Sha256} building blocks, the per nonce work of the {@link HashEngine#SCALAR} JavaMiner
+ * loop, and the JDK {@link MessageDigest} SHA-256 as baseline.<br/>
+ * Run with {@link BenchmarkRunner}, for example <code>BenchmarkRunner gc Sha256Benchmark</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class Sha256Benchmark {
+
+    private final BlockHeader header = TestHeader.TEST_HEADER;
+    private final int[] data = header.data();
+    private final int[] midstate = Sha256.createMidstate(header);
+    private final int[] hash = new int[Sha256.H_INTS];
+    private final int[] block = new int[Sha256.BUFFER_INTS];
+    private final int[] workBuffer = new int[Sha256.BUFFER_INTS];
+    private final byte[] headerBytes = new byte[BlockHeader.HEADER_INTS * Integer.BYTES];
+
+    private MessageDigest digest;
+    private MessageDigest midstateDigest;
+    private NonceHasher scalarHasher;
+    private HashPredicate predicate;
+
+    private int nonce;
+
+    @Setup
+    public void setup() throws NoSuchAlgorithmException {
+        System.arraycopy(data, 0, block, 0, Sha256.BLOCK_INTS);
+        ByteBuffer.wrap(headerBytes).asIntBuffer().put(data);
+        digest = MessageDigest.getInstance("SHA-256");
+        // digest of the header first chunk, cloned for each nonce
+        midstateDigest = MessageDigest.getInstance("SHA-256");
+        midstateDigest.update(headerBytes, 0, Sha256.BLOCK_INTS * Integer.BYTES);
+        predicate = header.hashPredicate();
+        scalarHasher = HashEngine.forName(HashEngine.SCALAR).createHasher(header, Sha256.precompute(header), predicate);
+    }
+
+    /**
+     * One 64 bytes block compression, message schedule included
+     */
+    @Benchmark
+    public int[] processBlock() {
+        System.arraycopy(block, 0, workBuffer, 0, Sha256.BLOCK_INTS);
+        System.arraycopy(midstate, 0, hash, 0, Sha256.H_INTS);
+        Sha256.processBlock(workBuffer, hash);
+        return hash;
+    }
+
+    /**
+     * Double hash of a nonce from the midstate : 2 blocks
+     */
+    @Benchmark
+    public int[] updateHash() {
+        Sha256.updateHash(hash, data, midstate, workBuffer, nonce++);
+        return hash;
+    }
+
+    @Benchmark
+    public int[] createMidstate() {
+        Sha256.createMidstate(hash, header);
+        return hash;
+    }
+
+    /**
+     * Per nonce work of the JavaMiner loop : updateHash and the hash predicate
+     */
+    @Benchmark
+    public boolean minerLoop() {
+        return scalarHasher.test(nonce++);
+    }
+
+    /**
+     * Baseline : double hash of a nonce from a midstate digest clone, 2 blocks like updateHash
+     */
+    @Benchmark
+    public byte[] messageDigestMidstate() throws CloneNotSupportedException {
+        MessageDigest md = (MessageDigest) midstateDigest.clone();
+        md.update(headerBytes, Sha256.BLOCK_INTS * Integer.BYTES, headerBytes.length - Sha256.BLOCK_INTS * Integer.BYTES);
+        return digest.digest(md.digest());
+    }
+
+    /**
+     * Baseline : double hash of the full header, 3 blocks
+     */
+    @Benchmark
+    public byte[] messageDigestHeader() {
+        return digest.digest(digest.digest(headerBytes));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(Sha256Benchmark.class, args);
+    }
+
+}
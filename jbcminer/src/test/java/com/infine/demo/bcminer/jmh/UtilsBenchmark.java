@@ -0,0 +1,81 @@
+package com.infine.demo.bcminer.jmh;
+
+import com.infine.demo.bcminer.BlockHeader;
+import com.infine.demo.bcminer.HashPredicate;
+import com.infine.demo.bcminer.TestHeader;
+import com.infine.demo.bcminer.Utils;
+import com.infine.demo.bcminer.java.Sha256;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Average time of the {@link HashPredicate} and of the {@link Utils} header decoding.<br/>
+ * Run with {@link BenchmarkRunner}, for example <code>BenchmarkRunner gc UtilsBenchmark</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UtilsBenchmark {
+
+    // hashes of consecutive nonces, tested in turn
+    private static final int HASHES = 1024;
+
+    private final int[][] hashes = new int[HASHES][];
+    private HashPredicate predicate;
+    private int index;
+    private int value = 0x12345678;
+
+    @Setup
+    public void setup() {
+        BlockHeader header = TestHeader.TEST_HEADER;
+        predicate = header.hashPredicate();
+        int[] midstate = Sha256.createMidstate(header);
+        int[] workBuffer = new int[Sha256.BUFFER_INTS];
+        for (int i = 0; i < HASHES; i++) {
+            hashes[i] = new int[Sha256.H_INTS];
+            Sha256.updateHash(hashes[i], header.data(), midstate, workBuffer, i);
+        }
+    }
+
+    @Benchmark
+    public boolean hashPredicate() {
+        return predicate.test(hashes[index++ & (HASHES - 1)]);
+    }
+
+    @Benchmark
+    public int[] parse() {
+        return Utils.parse(TestHeader.TEST_HEADER_HEX);
+    }
+
+    @Benchmark
+    public int flipEndianess() {
+        return Utils.flipEndianess(value++);
+    }
+
+    /**
+     * Baseline : the JDK intrinsic
+     */
+    @Benchmark
+    public int reverseBytes() {
+        return Integer.reverseBytes(value++);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        BenchmarkRunner.run(UtilsBenchmark.class, args);
+    }
+
+}